@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Introspectable;
+import reactor.core.util.PlatformDependent;
+
+/**
+ * A pool of fixed-capacity {@link ByteBuffer} handed out as {@link PooledByteBuffer}.
+ * <p>
+ * Each thread first allocates from and recycles into a small thread-local cache,
+ * exchanging buffers in batches with a shared, bounded arena when its cache runs empty or
+ * full. Buffers recycled while the arena is full are left to the garbage collector.
+ *
+ * @since 2.5
+ */
+public final class ByteBufferPool implements Introspectable, Backpressurable {
+
+	/**
+	 * Create a pool of heap {@link ByteBuffer} of the given capacity, retaining up to
+	 * {@link PlatformDependent#SMALL_BUFFER_SIZE} idle buffers in its shared arena.
+	 *
+	 * @param bufferSize the capacity in bytes of each buffer
+	 *
+	 * @return a new {@link ByteBufferPool}
+	 */
+	public static ByteBufferPool create(int bufferSize) {
+		return create(bufferSize, PlatformDependent.SMALL_BUFFER_SIZE, false);
+	}
+
+	/**
+	 * Create a pool of {@link ByteBuffer} of the given capacity.
+	 *
+	 * @param bufferSize the capacity in bytes of each buffer
+	 * @param maxPooled the maximum number of idle buffers retained in the shared arena
+	 * @param direct true to allocate direct buffers
+	 *
+	 * @return a new {@link ByteBufferPool}
+	 */
+	public static ByteBufferPool create(int bufferSize, int maxPooled, boolean direct) {
+		return new ByteBufferPool(bufferSize, maxPooled, direct);
+	}
+
+	static final int THREAD_CACHE_SIZE = PlatformDependent.XS_BUFFER_SIZE;
+
+	final int     bufferSize;
+	final boolean direct;
+
+	final ThreadLocal<ThreadCache> caches = ThreadLocal.withInitial(ThreadCache::new);
+
+	/**
+	 * Shared arena stack, guarded by its own monitor
+	 */
+	final PooledByteBuffer[] arena;
+	int arenaSize;
+
+	volatile long allocated;
+	static final AtomicLongFieldUpdater<ByteBufferPool> ALLOCATED =
+			AtomicLongFieldUpdater.newUpdater(ByteBufferPool.class, "allocated");
+
+	ByteBufferPool(int bufferSize, int maxPooled, boolean direct) {
+		if (bufferSize <= 0) {
+			throw new IllegalArgumentException("bufferSize > 0 required but it was " + bufferSize);
+		}
+		if (maxPooled < 0) {
+			throw new IllegalArgumentException("maxPooled >= 0 required but it was " + maxPooled);
+		}
+		this.bufferSize = bufferSize;
+		this.direct = direct;
+		this.arena = new PooledByteBuffer[maxPooled];
+	}
+
+	/**
+	 * Borrow a cleared buffer with a reference count of 1, reusing an idle one if
+	 * possible.
+	 *
+	 * @return a {@link PooledByteBuffer} to {@link PooledByteBuffer#release() release}
+	 * after use
+	 */
+	public PooledByteBuffer allocate() {
+		ThreadCache c = caches.get();
+		PooledByteBuffer b = c.poll();
+		if (b == null) {
+			refill(c);
+			b = c.poll();
+			if (b == null) {
+				ALLOCATED.incrementAndGet(this);
+				b = new PooledByteBuffer(this,
+						direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize));
+			}
+		}
+		return b.reset();
+	}
+
+	/**
+	 * @return the capacity in bytes of the pooled buffers
+	 */
+	public int bufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @return the number of buffers allocated by this pool so far, a stable value meaning
+	 * buffers are being reused
+	 */
+	public long getAllocated() {
+		return allocated;
+	}
+
+	@Override
+	public long getCapacity() {
+		return arena.length;
+	}
+
+	@Override
+	public long getPending() {
+		synchronized (arena) {
+			return arenaSize;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ByteBufferPool{bufferSize=" + bufferSize + ", direct=" + direct + ", allocated=" + allocated + "}";
+	}
+
+	void recycle(PooledByteBuffer b) {
+		ThreadCache c = caches.get();
+		if (!c.offer(b)) {
+			spill(c);
+			c.offer(b);
+		}
+	}
+
+	void refill(ThreadCache c) {
+		synchronized (arena) {
+			int n = Math.min(arenaSize, THREAD_CACHE_SIZE / 2);
+			for (int i = 0; i < n; i++) {
+				int idx = --arenaSize;
+				c.offer(arena[idx]);
+				arena[idx] = null;
+			}
+		}
+	}
+
+	void spill(ThreadCache c) {
+		synchronized (arena) {
+			for (int i = 0; i < THREAD_CACHE_SIZE / 2; i++) {
+				PooledByteBuffer b = c.poll();
+				if (arenaSize == arena.length) {
+					// drop to GC
+					continue;
+				}
+				arena[arenaSize++] = b;
+			}
+		}
+	}
+
+	static final class ThreadCache {
+
+		final PooledByteBuffer[] buffers = new PooledByteBuffer[THREAD_CACHE_SIZE];
+		int size;
+
+		PooledByteBuffer poll() {
+			int s = size;
+			if (s == 0) {
+				return null;
+			}
+			size = --s;
+			PooledByteBuffer b = buffers[s];
+			buffers[s] = null;
+			return b;
+		}
+
+		boolean offer(PooledByteBuffer b) {
+			int s = size;
+			if (s == buffers.length) {
+				return false;
+			}
+			buffers[s] = b;
+			size = s + 1;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A reference-counted {@link ByteBuffer} borrowed from a {@link ByteBufferPool}.
+ * <p>
+ * A {@link PooledByteBuffer} starts with a reference count of 1. Each {@link #retain()}
+ * must be matched by a {@link #release()} and the underlying {@link ByteBuffer} returns to
+ * its pool once the count reaches 0, after which neither this instance nor its {@link
+ * ByteBuffer} must be used.
+ *
+ * @since 2.5
+ */
+public final class PooledByteBuffer {
+
+	final ByteBufferPool pool;
+	final ByteBuffer     buffer;
+
+	volatile int refCnt;
+	static final AtomicIntegerFieldUpdater<PooledByteBuffer> REF_CNT =
+			AtomicIntegerFieldUpdater.newUpdater(PooledByteBuffer.class, "refCnt");
+
+	PooledByteBuffer(ByteBufferPool pool, ByteBuffer buffer) {
+		this.pool = pool;
+		this.buffer = buffer;
+	}
+
+	/**
+	 * Return the underlying {@link ByteBuffer}, valid until the last {@link #release()}.
+	 *
+	 * @return the underlying {@link ByteBuffer}
+	 *
+	 * @throws IllegalStateException if this buffer has been released
+	 */
+	public ByteBuffer buffer() {
+		if (refCnt <= 0) {
+			throw new IllegalStateException("Buffer has been released");
+		}
+		return buffer;
+	}
+
+	/**
+	 * @return the {@link ByteBufferPool} this buffer belongs to
+	 */
+	public ByteBufferPool pool() {
+		return pool;
+	}
+
+	/**
+	 * @return the current reference count, 0 once released
+	 */
+	public int refCnt() {
+		return refCnt;
+	}
+
+	/**
+	 * Increment the reference count.
+	 *
+	 * @return this buffer
+	 *
+	 * @throws IllegalStateException if this buffer has been released
+	 */
+	public PooledByteBuffer retain() {
+		for (; ; ) {
+			int c = refCnt;
+			if (c <= 0) {
+				throw new IllegalStateException("Buffer has been released");
+			}
+			if (REF_CNT.compareAndSet(this, c, c + 1)) {
+				return this;
+			}
+		}
+	}
+
+	/**
+	 * Decrement the reference count and return the buffer to its pool when it reaches 0.
+	 *
+	 * @return true if this call returned the buffer to its pool
+	 *
+	 * @throws IllegalStateException if this buffer has already been released
+	 */
+	public boolean release() {
+		for (; ; ) {
+			int c = refCnt;
+			if (c <= 0) {
+				throw new IllegalStateException("Buffer has been released");
+			}
+			if (REF_CNT.compareAndSet(this, c, c - 1)) {
+				if (c == 1) {
+					pool.recycle(this);
+					return true;
+				}
+				return false;
+			}
+		}
+	}
+
+	PooledByteBuffer reset() {
+		buffer.clear();
+		REF_CNT.lazySet(this, 1);
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "PooledByteBuffer{refCnt=" + refCnt + ", buffer=" + buffer + "}";
+	}
+}
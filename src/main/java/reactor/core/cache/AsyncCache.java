@@ -0,0 +1,461 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Introspectable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * A keyed cache of asynchronously loaded values.
+ * <p>
+ * A lookup missing the cache subscribes to the {@link Mono} returned by the loader for
+ * that key, and concurrent lookups of the same key share this single load through a
+ * {@link MonoProcessor} instead of hitting the backend again. Failed or empty loads are
+ * not cached.
+ * <p>
+ * Loaded entries are bounded by a total weight, evicting the least recently used entries
+ * first, and can expire a fixed time after being loaded, the removal being scheduled on a
+ * {@link TimedScheduler}. Activity is recorded into {@link CacheStats}.
+ *
+ * <pre>
+ * {@code
+ * AsyncCache<String, User> users = AsyncCache.create(userService::find, 10_000,
+ *                                                    Duration.ofMinutes(5), Schedulers.timer());
+ * users.get("jdoe").subscribe(this::render);
+ * }
+ * </pre>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ *
+ * @since 2.5
+ */
+public final class AsyncCache<K, V> implements Introspectable, Backpressurable {
+
+	/**
+	 * Create an {@link AsyncCache} holding up to {@code maxSize} loaded entries and
+	 * without expiry.
+	 *
+	 * @param loader the function returning the {@link Mono} loading a missing key
+	 * @param maxSize the maximum number of loaded entries
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 *
+	 * @return a new {@link AsyncCache}
+	 */
+	public static <K, V> AsyncCache<K, V> create(Function<? super K, ? extends Mono<? extends V>> loader,
+			long maxSize) {
+		return new AsyncCache<>(loader, maxSize, (k, v) -> 1L, null, null);
+	}
+
+	/**
+	 * Create an {@link AsyncCache} holding up to {@code maxSize} loaded entries, each
+	 * expiring after the given time-to-live.
+	 *
+	 * @param loader the function returning the {@link Mono} loading a missing key
+	 * @param maxSize the maximum number of loaded entries
+	 * @param ttl the time an entry is served after being loaded
+	 * @param timer the {@link TimedScheduler} measuring and scheduling expiry
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 *
+	 * @return a new {@link AsyncCache}
+	 */
+	public static <K, V> AsyncCache<K, V> create(Function<? super K, ? extends Mono<? extends V>> loader,
+			long maxSize,
+			Duration ttl,
+			TimedScheduler timer) {
+		return new AsyncCache<>(loader, maxSize, (k, v) -> 1L,
+				Objects.requireNonNull(ttl, "ttl"), Objects.requireNonNull(timer, "timer"));
+	}
+
+	/**
+	 * Create an {@link AsyncCache} holding loaded entries up to a total weight.
+	 *
+	 * @param loader the function returning the {@link Mono} loading a missing key
+	 * @param maxWeight the maximum total weight of loaded entries
+	 * @param weigher the function computing the non-negative weight of a loaded entry
+	 * @param ttl the time an entry is served after being loaded, or null to never expire
+	 * @param timer the {@link TimedScheduler} measuring and scheduling expiry, only
+	 * required with a ttl
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 *
+	 * @return a new {@link AsyncCache}
+	 */
+	public static <K, V> AsyncCache<K, V> create(Function<? super K, ? extends Mono<? extends V>> loader,
+			long maxWeight,
+			ToLongBiFunction<? super K, ? super V> weigher,
+			Duration ttl,
+			TimedScheduler timer) {
+		return new AsyncCache<>(loader, maxWeight, weigher, ttl, timer);
+	}
+
+	final Function<? super K, ? extends Mono<? extends V>> loader;
+	final ToLongBiFunction<? super K, ? super V>           weigher;
+	final long                                             maxWeight;
+	final long                                             ttl;
+	final TimedScheduler                                   timer;
+	final CacheStats                                       stats;
+
+	/**
+	 * Entries in access order, eldest first, guarded by its own monitor
+	 */
+	final LinkedHashMap<K, Entry<V>> entries;
+	long weight;
+
+	AsyncCache(Function<? super K, ? extends Mono<? extends V>> loader,
+			long maxWeight,
+			ToLongBiFunction<? super K, ? super V> weigher,
+			Duration ttl,
+			TimedScheduler timer) {
+		if (maxWeight <= 0L) {
+			throw new IllegalArgumentException("maxWeight > 0 required but it was " + maxWeight);
+		}
+		this.loader = Objects.requireNonNull(loader, "loader");
+		this.weigher = Objects.requireNonNull(weigher, "weigher");
+		this.maxWeight = maxWeight;
+		if (ttl != null) {
+			if (ttl.isNegative() || ttl.isZero()) {
+				throw new IllegalArgumentException("ttl > 0 required but it was " + ttl);
+			}
+			this.ttl = ttl.toNanos();
+			this.timer = Objects.requireNonNull(timer, "timer");
+		}
+		else {
+			this.ttl = -1L;
+			this.timer = null;
+		}
+		this.stats = new CacheStats();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Return a {@link Mono} of the value associated with the given key, loading it on
+	 * subscribe if it is neither cached nor already loading.
+	 *
+	 * @param key the key to look up
+	 *
+	 * @return a {@link Mono} of the cached or loaded value
+	 */
+	public Mono<V> get(K key) {
+		Objects.requireNonNull(key, "key");
+		return Mono.defer(() -> lookup(key));
+	}
+
+	/**
+	 * Return the value associated with the given key if it is loaded and not expired,
+	 * without triggering a load nor recording a lookup.
+	 *
+	 * @param key the key to look up
+	 *
+	 * @return the loaded value or null
+	 */
+	public V getIfPresent(K key) {
+		Entry<V> e;
+		synchronized (entries) {
+			e = entries.get(key);
+		}
+		if (e == null || !e.loaded || isExpired(e)) {
+			return null;
+		}
+		return e.processor.peek();
+	}
+
+	/**
+	 * Remove the entry associated with the given key. A load in progress still completes
+	 * its pending lookups but is not cached.
+	 *
+	 * @param key the key to remove
+	 */
+	public void invalidate(K key) {
+		synchronized (entries) {
+			Entry<V> e = entries.remove(key);
+			if (e != null) {
+				removed(e);
+			}
+		}
+	}
+
+	/**
+	 * Remove all entries.
+	 */
+	public void invalidateAll() {
+		synchronized (entries) {
+			for (Entry<V> e : entries.values()) {
+				removed(e);
+			}
+			entries.clear();
+		}
+	}
+
+	/**
+	 * @return the number of loaded or loading entries
+	 */
+	public long size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * @return the activity recorded by this cache
+	 */
+	public CacheStats stats() {
+		return stats;
+	}
+
+	@Override
+	public long getCapacity() {
+		return maxWeight;
+	}
+
+	/**
+	 * @return the total weight of loaded entries
+	 */
+	@Override
+	public long getPending() {
+		synchronized (entries) {
+			return weight;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "AsyncCache{size=" + size() + ", weight=" + getPending() + "/" + maxWeight + ", " + stats + "}";
+	}
+
+	Mono<V> lookup(K key) {
+		Entry<V> e;
+		boolean load = false;
+		synchronized (entries) {
+			e = entries.get(key);
+			if (e != null && e.loaded && isExpired(e)) {
+				entries.remove(key);
+				removed(e);
+				stats.expired();
+				e = null;
+			}
+			if (e == null) {
+				e = new Entry<>();
+				entries.put(key, e);
+				load = true;
+			}
+		}
+		if (load) {
+			stats.miss();
+			load(key, e);
+		}
+		else {
+			stats.hit();
+		}
+		return e.processor;
+	}
+
+	void load(K key, Entry<V> e) {
+		long start = System.nanoTime();
+		Mono<? extends V> source;
+		try {
+			source = Objects.requireNonNull(loader.apply(key), "The loader returned a null Mono");
+		}
+		catch (Throwable ex) {
+			Exceptions.throwIfFatal(ex);
+			loadFailed(key, e, start, Exceptions.unwrap(ex));
+			return;
+		}
+		source.subscribe(new LoadSubscriber<>(this, key, e, start));
+	}
+
+	void loaded(K key, Entry<V> e, long start, V value) {
+		long w;
+		try {
+			w = weigher.applyAsLong(key, value);
+			if (w < 0L) {
+				throw new IllegalArgumentException("The weigher returned a negative weight " + w);
+			}
+		}
+		catch (Throwable ex) {
+			Exceptions.throwIfFatal(ex);
+			loadFailed(key, e, start, Exceptions.unwrap(ex));
+			return;
+		}
+
+		synchronized (entries) {
+			if (entries.get(key) == e) {
+				e.weight = w;
+				e.loaded = true;
+				weight += w;
+				if (timer != null) {
+					e.expireAt = timer.now(TimeUnit.NANOSECONDS) + ttl;
+					e.expiry = timer.schedule(() -> expire(key, e), ttl, TimeUnit.NANOSECONDS);
+				}
+				evict();
+			}
+		}
+		stats.loadSucceeded(System.nanoTime() - start);
+		e.processor.onNext(value);
+	}
+
+	void loadFailed(K key, Entry<V> e, long start, Throwable error) {
+		synchronized (entries) {
+			if (entries.get(key) == e) {
+				entries.remove(key);
+			}
+		}
+		stats.loadFailed(System.nanoTime() - start);
+		if (error != null) {
+			e.processor.onError(error);
+		}
+		else {
+			e.processor.onComplete();
+		}
+	}
+
+	void expire(K key, Entry<V> e) {
+		synchronized (entries) {
+			if (entries.get(key) != e) {
+				return;
+			}
+			entries.remove(key);
+			removed(e);
+		}
+		stats.expired();
+	}
+
+	boolean isExpired(Entry<V> e) {
+		return timer != null && timer.now(TimeUnit.NANOSECONDS) - e.expireAt >= 0L;
+	}
+
+	/**
+	 * Evict least recently used loaded entries until the weight bound is honored, must be
+	 * called under the entries monitor.
+	 */
+	void evict() {
+		Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+		while (weight > maxWeight && it.hasNext()) {
+			Entry<V> e = it.next().getValue();
+			if (e.loaded) {
+				it.remove();
+				removed(e);
+				stats.evicted();
+			}
+		}
+	}
+
+	/**
+	 * Release the weight and expiry of a removed entry, must be called under the entries
+	 * monitor.
+	 */
+	void removed(Entry<V> e) {
+		if (e.loaded) {
+			weight -= e.weight;
+			e.loaded = false;
+		}
+		Cancellation c = e.expiry;
+		if (c != null) {
+			e.expiry = null;
+			c.dispose();
+		}
+	}
+
+	static final class Entry<V> {
+
+		final MonoProcessor<V> processor = MonoProcessor.create();
+
+		/**
+		 * Guarded by the entries monitor, the loaded flag being also read without it as a
+		 * hint
+		 */
+		volatile boolean loaded;
+		long             weight;
+		long             expireAt;
+		Cancellation     expiry;
+	}
+
+	static final class LoadSubscriber<K, V> implements Subscriber<V> {
+
+		final AsyncCache<K, V> parent;
+		final K                key;
+		final Entry<V>         entry;
+		final long             start;
+
+		Subscription s;
+		boolean      done;
+
+		LoadSubscriber(AsyncCache<K, V> parent, K key, Entry<V> entry, long start) {
+			this.parent = parent;
+			this.key = key;
+			this.entry = entry;
+			this.start = start;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(V t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			done = true;
+			s.cancel();
+			parent.loaded(key, entry, start, t);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			parent.loadFailed(key, entry, start, t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			parent.loadFailed(key, entry, start, null);
+		}
+	}
+}
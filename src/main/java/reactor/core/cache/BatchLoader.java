@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Introspectable;
+import reactor.core.tuple.Tuple2;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Collapses individual keyed lookups into batches passed to a single batch function.
+ * <p>
+ * Keys requested through {@link #load(Object)} are collected until {@code maxBatchSize}
+ * distinct keys are pending or {@code maxDelay} has elapsed since the first of them,
+ * then the batch function is invoked once with all of them. Each {@link Mono} returned
+ * by {@link #load(Object)} completes with the value paired with its key in the resulting
+ * {@link Flux}, or empty if the key is absent from it. A batch failure is propagated to
+ * all the lookups of that batch.
+ * <p>
+ * Lookups of the same key pending in the same batch share a single result.
+ *
+ * <pre>
+ * {@code
+ * BatchLoader<Long, User> users = BatchLoader.create(ids -> userRepository.findAll(ids)
+ *                                                        .map(u -> Tuple.of(u.getId(), u)),
+ *                                                    100, Duration.ofMillis(1), Schedulers.timer());
+ * users.load(42L).subscribe(this::render);
+ * }
+ * </pre>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ *
+ * @since 2.5
+ */
+public final class BatchLoader<K, V> implements Introspectable, Backpressurable {
+
+	/**
+	 * Create a {@link BatchLoader} invoking the given batch function with up to {@code
+	 * maxBatchSize} keys, at most {@code maxDelay} after the first key of a batch was
+	 * requested.
+	 *
+	 * @param batchFunction the function loading a list of distinct keys into a {@link
+	 * Flux} of key and value pairs
+	 * @param maxBatchSize the number of pending keys triggering a batch
+	 * @param maxDelay the maximum time a key waits for its batch
+	 * @param timer the {@link TimedScheduler} scheduling delayed batches
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 *
+	 * @return a new {@link BatchLoader}
+	 */
+	public static <K, V> BatchLoader<K, V> create(Function<? super List<K>, ? extends Publisher<Tuple2<K, V>>> batchFunction,
+			int maxBatchSize,
+			Duration maxDelay,
+			TimedScheduler timer) {
+		return new BatchLoader<>(batchFunction, maxBatchSize, maxDelay, timer);
+	}
+
+	final Function<? super List<K>, ? extends Publisher<Tuple2<K, V>>> batchFunction;
+	final int                                                          maxBatchSize;
+	final long                                                         maxDelay;
+	final TimedScheduler                                               timer;
+
+	/**
+	 * Keys of the current batch, guarded by this loader's monitor
+	 */
+	Map<K, MonoProcessor<V>> pending;
+	Cancellation             timeout;
+
+	volatile long batches;
+	@SuppressWarnings("rawtypes")
+	static final AtomicLongFieldUpdater<BatchLoader> BATCHES =
+			AtomicLongFieldUpdater.newUpdater(BatchLoader.class, "batches");
+
+	BatchLoader(Function<? super List<K>, ? extends Publisher<Tuple2<K, V>>> batchFunction,
+			int maxBatchSize,
+			Duration maxDelay,
+			TimedScheduler timer) {
+		if (maxBatchSize <= 0) {
+			throw new IllegalArgumentException("maxBatchSize > 0 required but it was " + maxBatchSize);
+		}
+		if (maxDelay.isNegative()) {
+			throw new IllegalArgumentException("maxDelay >= 0 required but it was " + maxDelay);
+		}
+		this.batchFunction = Objects.requireNonNull(batchFunction, "batchFunction");
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelay = maxDelay.toNanos();
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	/**
+	 * Return a {@link Mono} of the value associated with the given key, adding it to the
+	 * current batch on subscribe.
+	 *
+	 * @param key the key to load
+	 *
+	 * @return a {@link Mono} of the loaded value, empty if the batch did not return it
+	 */
+	public Mono<V> load(K key) {
+		Objects.requireNonNull(key, "key");
+		return Mono.defer(() -> enqueue(key));
+	}
+
+	/**
+	 * Dispatch the pending keys now, if any.
+	 */
+	public void flush() {
+		Map<K, MonoProcessor<V>> batch;
+		synchronized (this) {
+			batch = take();
+		}
+		dispatch(batch);
+	}
+
+	/**
+	 * @return the number of batches dispatched so far
+	 */
+	public long getBatchCount() {
+		return batches;
+	}
+
+	@Override
+	public long getCapacity() {
+		return maxBatchSize;
+	}
+
+	@Override
+	public synchronized long getPending() {
+		Map<K, MonoProcessor<V>> p = pending;
+		return p != null ? p.size() : 0L;
+	}
+
+	Mono<V> enqueue(K key) {
+		MonoProcessor<V> result;
+		Map<K, MonoProcessor<V>> batch = null;
+		boolean schedule = false;
+		synchronized (this) {
+			Map<K, MonoProcessor<V>> p = pending;
+			if (p == null) {
+				p = new LinkedHashMap<>();
+				pending = p;
+				schedule = true;
+			}
+			result = p.get(key);
+			if (result == null) {
+				result = MonoProcessor.create();
+				p.put(key, result);
+				if (p.size() >= maxBatchSize) {
+					batch = take();
+					schedule = false;
+				}
+			}
+			if (schedule) {
+				Map<K, MonoProcessor<V>> expected = p;
+				timeout = timer.schedule(() -> timeout(expected), maxDelay, TimeUnit.NANOSECONDS);
+			}
+		}
+		if (batch != null) {
+			dispatch(batch);
+		}
+		return result;
+	}
+
+	void timeout(Map<K, MonoProcessor<V>> expected) {
+		Map<K, MonoProcessor<V>> batch;
+		synchronized (this) {
+			if (pending != expected) {
+				return;
+			}
+			timeout = null;
+			batch = take();
+		}
+		dispatch(batch);
+	}
+
+	/**
+	 * Detach the current batch and its timeout, must be called under this loader's
+	 * monitor.
+	 */
+	Map<K, MonoProcessor<V>> take() {
+		Map<K, MonoProcessor<V>> p = pending;
+		pending = null;
+		Cancellation c = timeout;
+		if (c != null) {
+			timeout = null;
+			c.dispose();
+		}
+		return p;
+	}
+
+	void dispatch(Map<K, MonoProcessor<V>> batch) {
+		if (batch == null || batch.isEmpty()) {
+			return;
+		}
+		BATCHES.getAndIncrement(this);
+		Publisher<Tuple2<K, V>> source;
+		try {
+			source = Objects.requireNonNull(batchFunction.apply(new ArrayList<>(batch.keySet())),
+					"The batchFunction returned a null Publisher");
+		}
+		catch (Throwable e) {
+			Exceptions.throwIfFatal(e);
+			Throwable ex = Exceptions.unwrap(e);
+			for (MonoProcessor<V> p : batch.values()) {
+				p.onError(ex);
+			}
+			return;
+		}
+		source.subscribe(new BatchSubscriber<>(batch));
+	}
+
+	static final class BatchSubscriber<K, V> implements Subscriber<Tuple2<K, V>> {
+
+		final Map<K, MonoProcessor<V>> batch;
+
+		Subscription s;
+		boolean      done;
+
+		BatchSubscriber(Map<K, MonoProcessor<V>> batch) {
+			this.batch = batch;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(Tuple2<K, V> t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			MonoProcessor<V> p = batch.remove(t.getT1());
+			if (p != null) {
+				V v = t.getT2();
+				if (v != null) {
+					p.onNext(v);
+				}
+				else {
+					p.onComplete();
+				}
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			for (MonoProcessor<V> p : batch.values()) {
+				p.onError(t);
+			}
+			batch.clear();
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			for (MonoProcessor<V> p : batch.values()) {
+				p.onComplete();
+			}
+			batch.clear();
+		}
+	}
+}
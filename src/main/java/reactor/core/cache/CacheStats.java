@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.cache;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import reactor.core.util.Histogram;
+
+/**
+ * Activity recorded by an {@link AsyncCache}: hits, misses, load outcomes and latency
+ * (in nanoseconds), evictions and expirations.
+ *
+ * @since 2.5
+ */
+public final class CacheStats {
+
+	final Histogram loadLatency = new Histogram();
+
+	volatile long hits;
+	static final AtomicLongFieldUpdater<CacheStats> HITS =
+			AtomicLongFieldUpdater.newUpdater(CacheStats.class, "hits");
+
+	volatile long misses;
+	static final AtomicLongFieldUpdater<CacheStats> MISSES =
+			AtomicLongFieldUpdater.newUpdater(CacheStats.class, "misses");
+
+	volatile long loadSuccesses;
+	static final AtomicLongFieldUpdater<CacheStats> LOAD_SUCCESSES =
+			AtomicLongFieldUpdater.newUpdater(CacheStats.class, "loadSuccesses");
+
+	volatile long loadFailures;
+	static final AtomicLongFieldUpdater<CacheStats> LOAD_FAILURES =
+			AtomicLongFieldUpdater.newUpdater(CacheStats.class, "loadFailures");
+
+	volatile long evictions;
+	static final AtomicLongFieldUpdater<CacheStats> EVICTIONS =
+			AtomicLongFieldUpdater.newUpdater(CacheStats.class, "evictions");
+
+	volatile long expirations;
+	static final AtomicLongFieldUpdater<CacheStats> EXPIRATIONS =
+			AtomicLongFieldUpdater.newUpdater(CacheStats.class, "expirations");
+
+	CacheStats() {
+	}
+
+	/**
+	 * @return the number of lookups served by a loaded or loading entry
+	 */
+	public long getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of lookups which triggered a load
+	 */
+	public long getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * @return the ratio of hits over lookups, 1 if no lookup happened yet
+	 */
+	public double getHitRate() {
+		long h = hits;
+		long total = h + misses;
+		return total == 0L ? 1d : (double) h / total;
+	}
+
+	/**
+	 * @return the number of loads which produced a value
+	 */
+	public long getLoadSuccessCount() {
+		return loadSuccesses;
+	}
+
+	/**
+	 * @return the number of loads which failed or completed empty
+	 */
+	public long getLoadFailureCount() {
+		return loadFailures;
+	}
+
+	/**
+	 * @return the time in nanoseconds between a miss and the outcome of its load
+	 */
+	public Histogram getLoadLatency() {
+		return loadLatency;
+	}
+
+	/**
+	 * @return the number of entries removed to honor the size or weight bound
+	 */
+	public long getEvictionCount() {
+		return evictions;
+	}
+
+	/**
+	 * @return the number of entries removed once their time-to-live elapsed
+	 */
+	public long getExpirationCount() {
+		return expirations;
+	}
+
+	@Override
+	public String toString() {
+		return "CacheStats{" +
+				"hits=" + hits +
+				", misses=" + misses +
+				", loadSuccesses=" + loadSuccesses +
+				", loadFailures=" + loadFailures +
+				", evictions=" + evictions +
+				", expirations=" + expirations +
+				", loadLatency=" + loadLatency +
+				'}';
+	}
+
+	void hit() {
+		HITS.getAndIncrement(this);
+	}
+
+	void miss() {
+		MISSES.getAndIncrement(this);
+	}
+
+	void loadSucceeded(long latency) {
+		LOAD_SUCCESSES.getAndIncrement(this);
+		loadLatency.record(latency);
+	}
+
+	void loadFailed(long latency) {
+		LOAD_FAILURES.getAndIncrement(this);
+		loadLatency.record(latency);
+	}
+
+	void evicted() {
+		EVICTIONS.getAndIncrement(this);
+	}
+
+	void expired() {
+		EXPIRATIONS.getAndIncrement(this);
+	}
+}
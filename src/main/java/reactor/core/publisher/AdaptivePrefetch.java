@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+/**
+ * Tracks the upstream request window of a queue-draining operator whose prefetch adapts
+ * to how fast its queue is drained, between a minimum and a maximum.
+ * <p>
+ * At each replenishment point, i.e. once {@link #limit()} values have been consumed
+ * since the previous one, the number of values still queued tells which side is the
+ * bottleneck:
+ * <ul>
+ *     <li>an empty queue means the consumer drains faster than the producer delivers,
+ *     so the window doubles to hide the producer latency behind larger batches;</li>
+ *     <li>a queue holding the whole remainder of the window means the producer has
+ *     delivered everything requested while the consumer is still behind, so the window
+ *     halves to stop buffering values the consumer can't keep up with.</li>
+ * </ul>
+ * Since the window at most halves once three quarters of it have been consumed, the
+ * amount to request never goes negative.
+ * <p>
+ * Instances are not thread-safe and must only be used from the drain loop.
+ *
+ * @since 2.5
+ */
+final class AdaptivePrefetch {
+
+	final int minPrefetch;
+	final int maxPrefetch;
+
+	int prefetch;
+	int limit;
+
+	/**
+	 * @param minPrefetch the minimum and initial request window
+	 * @param maxPrefetch the maximum request window, also the capacity the queue must
+	 * accommodate
+	 */
+	AdaptivePrefetch(int minPrefetch, int maxPrefetch) {
+		if (minPrefetch <= 0) {
+			throw new IllegalArgumentException("minPrefetch > 0 required but it was " + minPrefetch);
+		}
+		if (maxPrefetch < minPrefetch) {
+			throw new IllegalArgumentException("maxPrefetch >= minPrefetch required but it was " + maxPrefetch);
+		}
+		this.minPrefetch = minPrefetch;
+		this.maxPrefetch = maxPrefetch;
+		this.prefetch = minPrefetch;
+		this.limit = limit(minPrefetch);
+	}
+
+	/**
+	 * @return the current request window, to be requested initially
+	 */
+	int prefetch() {
+		return prefetch;
+	}
+
+	/**
+	 * @return the number of values to consume before calling {@link #replenish(long, int)}
+	 */
+	int limit() {
+		return limit;
+	}
+
+	/**
+	 * Adapt the window to the current backlog and compute the amount to request upstream.
+	 *
+	 * @param consumed the number of values consumed since the previous replenishment
+	 * @param backlog the number of values still queued
+	 *
+	 * @return the amount to request upstream
+	 */
+	long replenish(long consumed, int backlog) {
+		int p = prefetch;
+		long n = consumed;
+		if (backlog == 0) {
+			if (p < maxPrefetch) {
+				int next = p > maxPrefetch >> 1 ? maxPrefetch : p << 1;
+				n += next - p;
+				p = next;
+			}
+		}
+		else if (backlog >= p - limit && p > minPrefetch) {
+			int next = Math.max(minPrefetch, p >> 1);
+			n -= p - next;
+			p = next;
+		}
+		if (p != prefetch) {
+			prefetch = p;
+			limit = limit(p);
+		}
+		return n;
+	}
+
+	static int limit(int prefetch) {
+		return prefetch - (prefetch >> 2);
+	}
+}
@@ -37,6 +37,7 @@ import reactor.core.state.Backpressurable;
 import reactor.core.state.Completable;
 import reactor.core.util.BackpressureUtils;
 import reactor.core.util.CancelledSubscription;
+import reactor.core.util.Exceptions;
 
 /**
  * An iterable that consumes a Publisher in a blocking fashion.
@@ -233,7 +234,7 @@ final class BlockingIterable<T> implements Iterable<T>, Receiver, Backpressurabl
 			if (!queue.offer(t)) {
 				BackpressureUtils.terminate(S, this);
 				
-				onError(new IllegalStateException("Queue full?!"));
+				onError(Exceptions.failWithBackpressure("Queue full?!"));
 			} else {
 				signalConsumer();
 			}
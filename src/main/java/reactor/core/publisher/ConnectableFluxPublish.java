@@ -243,7 +243,7 @@ final class ConnectableFluxPublish<T> extends ConnectableFlux<T>
 			}
 			
 			if (!queue.offer(t)) {
-				Throwable ex = new IllegalStateException("Queue full?!");
+				Throwable ex = Exceptions.failWithBackpressure("Queue full?!");
 				if (!Exceptions.addThrowable(ERROR, this, ex)) {
 					Exceptions.onErrorDropped(ex);
 					return;
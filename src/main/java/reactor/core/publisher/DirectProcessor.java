@@ -32,6 +32,7 @@ import reactor.core.state.Completable;
 import reactor.core.state.Introspectable;
 import reactor.core.state.Requestable;
 import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
 
 /**
  * Dispatches onNext, onError and onComplete signals to zero-to-many Subscribers.
@@ -310,7 +311,7 @@ public final class DirectProcessor<T>
 				return;
 			}
 			parent.remove(this);
-			actual.onError(new IllegalStateException("Can't deliver value due to lack of requests"));
+			actual.onError(Exceptions.failWithBackpressure("Can't deliver value due to lack of requests"));
 		}
 
 		void onError(Throwable e) {
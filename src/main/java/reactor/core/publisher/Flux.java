@@ -16,6 +16,9 @@
 
 package reactor.core.publisher;
 
+import java.nio.ByteBuffer;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -34,12 +37,14 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
 import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.LongConsumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 import java.util.logging.Level;
 import java.util.stream.Collector;
 import java.util.stream.Stream;
@@ -48,10 +53,13 @@ import org.reactivestreams.Processor;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
+import reactor.core.buffer.ByteBufferPool;
+import reactor.core.buffer.PooledByteBuffer;
 import reactor.core.flow.Cancellation;
 import reactor.core.flow.Fuseable;
 import reactor.core.publisher.FluxEmitter.BackpressureHandling;
 import reactor.core.queue.QueueSupplier;
+import reactor.core.scheduler.RateLimiter;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 import reactor.core.scheduler.TimedScheduler;
@@ -66,6 +74,7 @@ import reactor.core.tuple.Tuple3;
 import reactor.core.tuple.Tuple4;
 import reactor.core.tuple.Tuple5;
 import reactor.core.tuple.Tuple6;
+import reactor.core.util.ConcurrencyLimit;
 import reactor.core.util.Exceptions;
 import reactor.core.util.Logger;
 import reactor.core.util.PlatformDependent;
@@ -998,6 +1007,60 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 				QueueSupplier.get(prefetch)));
 	}
 
+	/**
+	 * Merge {@link Publisher} sequences individually sorted according to the given
+	 * {@link Comparator} into a single sorted sequence, e.g. pre-sorted partitions read
+	 * from disk segments or shards, without collecting and re-sorting them. A small queue
+	 * of values is prefetched from each source and the smallest head value is picked with
+	 * a heap. A value is only emitted once every source not yet completed has a value
+	 * available, and equal values are emitted in the order of their sources.
+	 *
+	 * @param comparator the {@link Comparator} the sources are sorted with
+	 * @param sources the sorted {@link Publisher} array to merge
+	 * @param <I> The source type of the data sequence
+	 *
+	 * @return a sorted merged {@link Flux}
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <I> Flux<I> mergeOrdered(Comparator<? super I> comparator,
+			Publisher<? extends I>... sources) {
+		return mergeOrdered(comparator, PlatformDependent.XS_BUFFER_SIZE, sources);
+	}
+
+	/**
+	 * Merge {@link Publisher} sequences individually sorted according to the given
+	 * {@link Comparator} into a single sorted sequence, e.g. pre-sorted partitions read
+	 * from disk segments or shards, without collecting and re-sorting them. Up to {@code
+	 * prefetch} values are queued for each source and the smallest head value is picked
+	 * with a heap. A value is only emitted once every source not yet completed has a value
+	 * available, and equal values are emitted in the order of their sources.
+	 *
+	 * @param comparator the {@link Comparator} the sources are sorted with
+	 * @param prefetch the inner source request size
+	 * @param sources the sorted {@link Publisher} array to merge
+	 * @param <I> The source type of the data sequence
+	 *
+	 * @return a sorted merged {@link Flux}
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs")
+	public static <I> Flux<I> mergeOrdered(Comparator<? super I> comparator,
+			int prefetch,
+			Publisher<? extends I>... sources) {
+		Objects.requireNonNull(comparator, "comparator");
+		if (sources == null || sources.length == 0) {
+			return empty();
+		}
+		if (sources.length == 1) {
+			return from(sources[0]);
+		}
+		return onAssembly(new FluxMergeOrdered<>(sources,
+				comparator,
+				QueueSupplier.get(prefetch),
+				prefetch));
+	}
+
 	/**
 	 * Create a {@link Flux} that will never signal any data, error or completion signal.
 	 * <p>
@@ -1758,6 +1821,86 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		return buffer(maxSize, timespan.toMillis(), timer);
 	}
 
+	/**
+	 * Aggregate this {@link Flux} of {@link ByteBuffer} into full {@link PooledByteBuffer}
+	 * borrowed from the given {@link ByteBufferPool}, the last one being flushed on
+	 * completion. Source buffers larger than the remaining room are split across pooled
+	 * buffers and their position is left untouched.
+	 * <p>
+	 * Each emitted {@link PooledByteBuffer} is flipped for reading and must be
+	 * {@link PooledByteBuffer#release() released} by the downstream. Buffers not yet
+	 * emitted are released on cancel or error.
+	 *
+	 * @param pool the {@link ByteBufferPool} to borrow aggregation buffers from
+	 *
+	 * @return a {@link Flux} of pooled buffers of {@link ByteBufferPool#bufferSize()} bytes
+	 */
+	@SuppressWarnings("unchecked")
+	public final Flux<PooledByteBuffer> bufferBytes(ByteBufferPool pool) {
+		Flux<ByteBuffer> thiz = (Flux<ByteBuffer>) this;
+		return onAssembly(new FluxBufferBytes(thiz, pool, PlatformDependent.XS_BUFFER_SIZE));
+	}
+
+	/**
+	 * Collect incoming values into multiple {@link List} delimited by their cumulative
+	 * weight, as computed by the given weigher. A buffer is emitted when its weight reaches
+	 * {@code maxWeight}, and a value that would make it exceed {@code maxWeight} starts a
+	 * new buffer. A single value weighing more than {@code maxWeight} is emitted alone.
+	 *
+	 * @param maxWeight the weight at which a buffer is emitted
+	 * @param weigher the function computing the non-negative weight of each value, e.g. a
+	 * payload size in bytes
+	 *
+	 * @return a microbatched {@link Flux} of {@link List} delimited by weight
+	 */
+	public final Flux<List<T>> bufferByWeight(long maxWeight, ToLongFunction<? super T> weigher) {
+		return onAssembly(new FluxBufferWeight<>(this, maxWeight, weigher,
+				PlatformDependent.SMALL_BUFFER_SIZE));
+	}
+
+	/**
+	 * Collect incoming values into multiple {@link List} delimited by their cumulative
+	 * weight or by a timeout starting with the first value of each buffer, whichever
+	 * comes first.
+	 *
+	 * @param maxWeight the weight at which a buffer is emitted
+	 * @param weigher the function computing the non-negative weight of each value, e.g. a
+	 * payload size in bytes
+	 * @param timespan the maximum time a value waits in a buffer
+	 *
+	 * @return a microbatched {@link Flux} of {@link List} delimited by weight or timeout
+	 *
+	 * @see #bufferByWeight(long, ToLongFunction)
+	 */
+	public final Flux<List<T>> bufferByWeightTimeout(long maxWeight,
+			ToLongFunction<? super T> weigher,
+			Duration timespan) {
+		return bufferByWeightTimeout(maxWeight, weigher, timespan, getTimer());
+	}
+
+	/**
+	 * Collect incoming values into multiple {@link List} delimited by their cumulative
+	 * weight or by a timeout starting with the first value of each buffer, whichever
+	 * comes first.
+	 *
+	 * @param maxWeight the weight at which a buffer is emitted
+	 * @param weigher the function computing the non-negative weight of each value, e.g. a
+	 * payload size in bytes
+	 * @param timespan the maximum time a value waits in a buffer
+	 * @param timer the {@link TimedScheduler} to run the timeouts on
+	 *
+	 * @return a microbatched {@link Flux} of {@link List} delimited by weight or timeout
+	 *
+	 * @see #bufferByWeight(long, ToLongFunction)
+	 */
+	public final Flux<List<T>> bufferByWeightTimeout(long maxWeight,
+			ToLongFunction<? super T> weigher,
+			Duration timespan,
+			TimedScheduler timer) {
+		return onAssembly(new FluxBufferWeight<>(this, maxWeight, weigher, timespan.toNanos(),
+				Objects.requireNonNull(timer, "timer"), PlatformDependent.SMALL_BUFFER_SIZE));
+	}
+
 	/**
 	 * Turn this {@link Flux} into a hot source and cache last emitted signals for further {@link Subscriber}. Will
 	 * retain up an unbounded volume of onNext signals. Completion and Error will also be
@@ -2285,6 +2428,40 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		return onAssembly(new FluxDefaultIfEmpty<>(this, defaultV));
 	}
 
+	/**
+	 * Cancel this {@link Flux} and signal a {@link java.util.concurrent.TimeoutException}
+	 * if it has not terminated within the given period from subscription.
+	 * <p>
+	 * The deadline is visible to upstream asynchronous operators such as {@link
+	 * #publishOn(Scheduler)}, {@link #flatMap(Function)} or a {@link WorkQueueProcessor},
+	 * which drop work still queued on behalf of this subscription once it has passed.
+	 *
+	 * @param timeout the maximum duration of the subscription
+	 *
+	 * @return a {@link Flux} expiring after the given period
+	 */
+	public final Flux<T> deadline(Duration timeout) {
+		return deadline(timeout, getTimer());
+	}
+
+	/**
+	 * Cancel this {@link Flux} and signal a {@link java.util.concurrent.TimeoutException}
+	 * if it has not terminated within the given period from subscription, as measured by
+	 * the given {@link TimedScheduler}.
+	 * <p>
+	 * The deadline is visible to upstream asynchronous operators such as {@link
+	 * #publishOn(Scheduler)}, {@link #flatMap(Function)} or a {@link WorkQueueProcessor},
+	 * which drop work still queued on behalf of this subscription once it has passed.
+	 *
+	 * @param timeout the maximum duration of the subscription
+	 * @param timer the {@link TimedScheduler} measuring the deadline
+	 *
+	 * @return a {@link Flux} expiring after the given period
+	 */
+	public final Flux<T> deadline(Duration timeout, TimedScheduler timer) {
+		return onAssembly(new FluxDeadline<>(this, timeout.toNanos(), timer));
+	}
+
 
 	/**
 	 * Delay this {@link Flux} signals to {@link Subscriber#onNext} until the given period in seconds elapses.
@@ -2718,12 +2895,34 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 	 *
 	 * <p>
 	 * <img class="marble" src="https://raw.githubusercontent.com/reactor/projectreactor.io/master/src/main/static/assets/img/marble/filter.png" alt="">
+	 * <p>
+	 * Consecutive {@code map} and {@code filter} calls are composed into a single operator
+	 * at assembly time.
 	 *
 	 * @param p the {@link Predicate} to test values against
 	 *
 	 * @return a new {@link Flux} containing only values that pass the predicate test
 	 */
+	@SuppressWarnings("unchecked")
 	public final Flux<T> filter(Predicate<? super T> p) {
+		if (this instanceof FluxFilterFuseable) {
+			return onAssembly(((FluxFilterFuseable<T>) this).fuse(p));
+		}
+		if (this instanceof FluxFilter) {
+			return onAssembly(((FluxFilter<T>) this).fuse(p));
+		}
+		if (this instanceof FluxMapFuseable) {
+			return onAssembly(((FluxMapFuseable<?, T>) this).fuseFilter(p));
+		}
+		if (this instanceof FluxMap) {
+			return onAssembly(((FluxMap<?, T>) this).fuseFilter(p));
+		}
+		if (this instanceof FluxMapFilterFuseable) {
+			return onAssembly(((FluxMapFilterFuseable<?, T>) this).fuseFilter(p));
+		}
+		if (this instanceof FluxMapFilter) {
+			return onAssembly(((FluxMapFilter<?, T>) this).fuseFilter(p));
+		}
 		if (this instanceof Fuseable) {
 			return onAssembly(new FluxFilterFuseable<>(this, p));
 		}
@@ -2843,6 +3042,63 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		));
 	}
 
+	/**
+	 * Transform the items emitted by this {@link Flux} into Publishers, then flatten the emissions from those by
+	 * merging them into a single {@link Flux}, so that they may interleave. The concurrency argument allows to
+	 * control how many merged {@link Publisher} can happen in parallel. The amount requested from each merged
+	 * {@link Publisher} adapts between {@code minPrefetch} and {@code maxPrefetch}: it grows while the merged
+	 * values are drained as fast as they arrive and shrinks while they pile up, so that bursty inner sequences
+	 * get larger batches and slow ones don't hold large buffers.
+	 *
+	 * <p>
+	 * <img class="marble" src="https://raw.githubusercontent.com/reactor/projectreactor.io/master/src/main/static/assets/img/marble/flatmapc.png" alt="">
+	 *
+	 * @param mapper the {@link Function} to transform input sequence into N sequences {@link Publisher}
+	 * @param concurrency the maximum in-flight elements from this {@link Flux} sequence
+	 * @param minPrefetch the minimum and initial in-flight elements from each inner {@link Publisher} sequence
+	 * @param maxPrefetch the maximum in-flight elements from each inner {@link Publisher} sequence
+	 * @param <V> the merged output sequence type
+	 *
+	 * @return a merged {@link Flux}
+	 */
+	public final <V> Flux<V> flatMap(Function<? super T, ? extends Publisher<? extends V>> mapper,
+			int concurrency, int minPrefetch, int maxPrefetch) {
+		return onAssembly(new FluxFlatMap<>(
+				this,
+				mapper,
+				false,
+				concurrency,
+				QueueSupplier.get(concurrency),
+				minPrefetch,
+				maxPrefetch,
+				QueueSupplier.growable(maxPrefetch)
+		));
+	}
+
+	/**
+	 * Transform the items emitted by this {@link Flux} into Publishers, then flatten the emissions from those by
+	 * merging them into a single {@link Flux}, so that they may interleave. The number of merged {@link Publisher}
+	 * in flight is bounded by the given {@link ConcurrencyLimit}, which adjusts it at runtime from the latency and
+	 * outcome of each merged {@link Publisher}, measured from its subscription to its termination.
+	 *
+	 * <p>
+	 * <img class="marble" src="https://raw.githubusercontent.com/reactor/projectreactor.io/master/src/main/static/assets/img/marble/flatmapc.png" alt="">
+	 *
+	 * @param mapper the {@link Function} to transform input sequence into N sequences {@link Publisher}
+	 * @param limit the {@link ConcurrencyLimit} algorithm bounding the in-flight elements from this {@link Flux}
+	 * @param prefetch the maximum in-flight elements from each inner {@link Publisher} sequence
+	 * @param <V> the merged output sequence type
+	 *
+	 * @return a merged {@link Flux}
+	 *
+	 * @see ConcurrencyLimit#aimd(int, int)
+	 * @see ConcurrencyLimit#gradient(int, int, int)
+	 */
+	public final <V> Flux<V> flatMap(Function<? super T, ? extends Publisher<? extends V>> mapper,
+			ConcurrencyLimit limit, int prefetch) {
+		return onAssembly(new FluxFlatMapAdaptive<>(this, mapper, limit, prefetch));
+	}
+
 	/**
 	 * Transform the signals emitted by this {@link Flux} into Publishers, then flatten the emissions from those by
 	 * merging them into a single {@link Flux}, so that they may interleave.
@@ -3032,6 +3288,72 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 	}
 
 	
+	/**
+	 * Join the values of this {@link Flux} and another {@link Publisher} having the same
+	 * key and arriving within the given window of each other, e.g. orders and their
+	 * fills, combining every matching pair as soon as its second value arrives.
+	 * <p>
+	 * Each side keeps a hash index of the values received during the last window, so
+	 * memory is bounded by the window rather than by the number of keys. Both sources are
+	 * requested in an unbounded fashion and combined values are queued while the
+	 * downstream has no demand. The index sizes are reported by the
+	 * {@link reactor.core.state.Backpressurable#getPending()} introspection of the join
+	 * subscription.
+	 *
+	 * @param other the {@link Publisher} to join with
+	 * @param leftKey the function extracting the join key of the values of this {@link Flux}
+	 * @param rightKey the function extracting the join key of the other values
+	 * @param window the maximum time between two values to join
+	 * @param combiner the function combining two matching values
+	 * @param <U> the type of the other values
+	 * @param <K> the join key type
+	 * @param <R> the combined output type
+	 *
+	 * @return a {@link Flux} of combined matching values
+	 */
+	public final <U, K, R> Flux<R> join(Publisher<? extends U> other,
+			Function<? super T, ? extends K> leftKey,
+			Function<? super U, ? extends K> rightKey,
+			Duration window,
+			BiFunction<? super T, ? super U, ? extends R> combiner) {
+		return join(other, leftKey, rightKey, window, combiner, getTimer());
+	}
+
+	/**
+	 * Join the values of this {@link Flux} and another {@link Publisher} having the same
+	 * key and arriving within the given window of each other, e.g. orders and their
+	 * fills, combining every matching pair as soon as its second value arrives.
+	 * <p>
+	 * Each side keeps a hash index of the values received during the last window, so
+	 * memory is bounded by the window rather than by the number of keys. Both sources are
+	 * requested in an unbounded fashion and combined values are queued while the
+	 * downstream has no demand. The index sizes are reported by the
+	 * {@link reactor.core.state.Backpressurable#getPending()} introspection of the join
+	 * subscription.
+	 *
+	 * @param other the {@link Publisher} to join with
+	 * @param leftKey the function extracting the join key of the values of this {@link Flux}
+	 * @param rightKey the function extracting the join key of the other values
+	 * @param window the maximum time between two values to join
+	 * @param combiner the function combining two matching values
+	 * @param timer the {@link TimedScheduler} providing the arrival times and running the
+	 * periodic eviction
+	 * @param <U> the type of the other values
+	 * @param <K> the join key type
+	 * @param <R> the combined output type
+	 *
+	 * @return a {@link Flux} of combined matching values
+	 */
+	public final <U, K, R> Flux<R> join(Publisher<? extends U> other,
+			Function<? super T, ? extends K> leftKey,
+			Function<? super U, ? extends K> rightKey,
+			Duration window,
+			BiFunction<? super T, ? super U, ? extends R> combiner,
+			TimedScheduler timer) {
+		return onAssembly(new FluxWindowJoin<>(this, other, leftKey, rightKey, window.toNanos(),
+				combiner, timer));
+	}
+
 	/**
 	 * Signal the last element observed before complete signal.
 	 *
@@ -3118,12 +3440,34 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 	 * <p>
 	 * <img class="marble" src="https://raw.githubusercontent.com/reactor/projectreactor.io/master/src/main/static/assets/img/marble/map.png" alt="">
 	 * <p>
+	 * Consecutive {@code map} and {@code filter} calls are composed into a single operator
+	 * at assembly time.
+	 * <p>
 	 * @param mapper the transforming {@link Function}
 	 * @param <V> the transformed type
 	 *
 	 * @return a transformed {@link Flux}
 	 */
+	@SuppressWarnings("unchecked")
 	public final <V> Flux<V> map(Function<? super T, ? extends V> mapper) {
+		if (this instanceof FluxMapFuseable) {
+			return onAssembly(((FluxMapFuseable<?, T>) this).fuse(mapper));
+		}
+		if (this instanceof FluxMap) {
+			return onAssembly(((FluxMap<?, T>) this).fuse(mapper));
+		}
+		if (this instanceof FluxFilterFuseable) {
+			return onAssembly(((FluxFilterFuseable<T>) this).fuseMap(mapper));
+		}
+		if (this instanceof FluxFilter) {
+			return onAssembly(((FluxFilter<T>) this).fuseMap(mapper));
+		}
+		if (this instanceof FluxMapFilterFuseable) {
+			return onAssembly(((FluxMapFilterFuseable<?, T>) this).fuseMap(mapper));
+		}
+		if (this instanceof FluxMapFilter) {
+			return onAssembly(((FluxMapFilter<?, T>) this).fuseMap(mapper));
+		}
 		if (this instanceof Fuseable) {
 			return onAssembly(new FluxMapFuseable<>(this, mapper));
 		}
@@ -3310,6 +3654,49 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		return onAssembly(new FluxLatest<>(this));
 	}
 
+	/**
+	 * Request an unbounded demand and push the returned {@link Flux}, buffering the observed elements if not
+	 * enough demand is requested downstream and shedding the buffered elements which waited too long, following
+	 * the CoDel (controlled delay) rules: once the head element has spent more than {@code targetDelay} in the
+	 * buffer for a whole {@code interval}, head elements are dropped at an increasing rate until the buffering
+	 * delay falls back below {@code targetDelay}.
+	 * <p>
+	 * Unlike occupancy based strategies, short bursts are fully buffered while sustained overload results in a
+	 * bounded buffering delay and the delivery of fresher elements.
+	 *
+	 * @param targetDelay the acceptable time spent by elements in the buffer, usually a few milliseconds
+	 * @param interval the time the buffering delay can stay above target before shedding, usually a worst-case
+	 * round-trip time
+	 *
+	 * @return a shedding {@link Flux}
+	 */
+	public final Flux<T> onBackpressureShed(Duration targetDelay, Duration interval) {
+		return onBackpressureShed(targetDelay, interval, FluxDrop.NOOP, getTimer());
+	}
+
+	/**
+	 * Request an unbounded demand and push the returned {@link Flux}, buffering the observed elements if not
+	 * enough demand is requested downstream and shedding the buffered elements which waited too long, following
+	 * the CoDel (controlled delay) rules. Shed elements are passed to the given {@link Consumer}.
+	 *
+	 * @param targetDelay the acceptable time spent by elements in the buffer, usually a few milliseconds
+	 * @param interval the time the buffering delay can stay above target before shedding, usually a worst-case
+	 * round-trip time
+	 * @param onDropped the {@link Consumer} called with each shed element
+	 * @param timer the {@link TimedScheduler} measuring the buffering delay
+	 *
+	 * @return a shedding {@link Flux}
+	 *
+	 * @see #onBackpressureShed(Duration, Duration)
+	 */
+	public final Flux<T> onBackpressureShed(Duration targetDelay,
+			Duration interval,
+			Consumer<? super T> onDropped,
+			TimedScheduler timer) {
+		return onAssembly(new FluxBackpressureShed<>(this, targetDelay.toNanos(), interval.toNanos(), onDropped,
+				timer));
+	}
+
 	/**
 	 * Subscribe to a returned fallback publisher when any error occurs.
 	 * <p>
@@ -3706,6 +4093,118 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 				QueueSupplier.get(prefetch)));
 	}
 
+	/**
+	 * Run onNext, onComplete and onError on a supplied {@link Scheduler}
+	 * {@link reactor.core.scheduler.Scheduler.Worker}, with an asynchronous boundary whose
+	 * capacity adapts between {@code minPrefetch} and {@code maxPrefetch}: the amount
+	 * requested upstream grows while the worker drains values as fast as they arrive and
+	 * shrinks while they pile up in the queue, which only allocates what is buffered.
+	 *
+	 * <p>
+	 * <img class="marble" src="https://raw.githubusercontent.com/reactor/projectreactor.io/master/src/main/static/assets/img/marble/publishon.png" alt="">
+	 * <p>
+	 * {@code flux.publishOn(Schedulers.single(), 16, 1024).subscribe() }
+	 *
+	 * @param scheduler a checked {@link reactor.core.scheduler.Scheduler.Worker} factory
+	 * @param minPrefetch the minimum and initial asynchronous boundary capacity
+	 * @param maxPrefetch the maximum asynchronous boundary capacity
+	 *
+	 * @return a {@link Flux} producing asynchronously
+	 */
+	public final Flux<T> publishOn(Scheduler scheduler, int minPrefetch, int maxPrefetch) {
+		if (this instanceof Fuseable.ScalarCallable) {
+			@SuppressWarnings("unchecked") T value = ((Fuseable.ScalarCallable<T>) this).call();
+			return onAssembly(new FluxSubscribeOnValue<>(value, scheduler));
+		}
+
+		return onAssembly(new FluxPublishOn<>(this, scheduler, true, minPrefetch, maxPrefetch,
+				QueueSupplier.growable(maxPrefetch)));
+	}
+
+	/**
+	 * Estimate the values at the given quantiles of this {@link Flux} sequence, e.g. the
+	 * median and 99th percentile latency, in memory bounded by a mergeable quantiles sketch
+	 * rather than by the number of values. The estimated rank error is typically under 1%.
+	 * The returned {@link Mono} completes empty if this {@link Flux} is empty.
+	 *
+	 * @param comparator the {@link Comparator} ordering values
+	 * @param fractions the quantiles to estimate, between 0 (minimum) and 1 (maximum)
+	 *
+	 * @return a {@link Mono} of the estimated values, in the order of the fractions
+	 */
+	public final Mono<List<T>> quantiles(Comparator<? super T> comparator, double... fractions) {
+		return quantiles(QuantilesSketch.DEFAULT_SIZE, comparator, fractions);
+	}
+
+	/**
+	 * Estimate the values at the given quantiles of this {@link Flux} sequence, e.g. the
+	 * median and 99th percentile latency, in memory bounded by a mergeable quantiles sketch
+	 * rather than by the number of values. The sketch retains about {@code 3 * sketchSize}
+	 * values for a rank error in the order of {@code 1 / sketchSize}. The returned {@link
+	 * Mono} completes empty if this {@link Flux} is empty.
+	 *
+	 * @param sketchSize the sketch size, trading memory for accuracy
+	 * @param comparator the {@link Comparator} ordering values
+	 * @param fractions the quantiles to estimate, between 0 (minimum) and 1 (maximum)
+	 *
+	 * @return a {@link Mono} of the estimated values, in the order of the fractions
+	 */
+	public final Mono<List<T>> quantiles(int sketchSize,
+			Comparator<? super T> comparator,
+			double... fractions) {
+		QuantilesSketch.validate(sketchSize, comparator, fractions);
+		double[] f = fractions.clone();
+		return collect(() -> new QuantilesSketch<T>(sketchSize, comparator), QuantilesSketch::offer)
+				.filter(s -> s.count() != 0L)
+				.map(s -> s.quantiles(f));
+	}
+
+	/**
+	 * Request from this {@link Flux} no faster than {@code permitsPerSecond} elements per
+	 * second on average, allowing bursts of up to {@code burst} elements after an idle
+	 * period. Each subscription is shaped by its own token bucket.
+	 * <p>
+	 * Unlike {@link #sample(Duration)}, no element is dropped: the downstream requests are
+	 * only forwarded upstream as permits become available.
+	 *
+	 * @param permitsPerSecond the maximum average number of elements per second
+	 * @param burst the maximum number of elements requested at once
+	 *
+	 * @return a rate limited {@link Flux}
+	 */
+	public final Flux<T> rateLimit(double permitsPerSecond, int burst) {
+		return rateLimit(permitsPerSecond, burst, getTimer());
+	}
+
+	/**
+	 * Request from this {@link Flux} no faster than {@code permitsPerSecond} elements per
+	 * second on average as measured by the given {@link TimedScheduler}, allowing bursts of
+	 * up to {@code burst} elements after an idle period. Each subscription is shaped by its
+	 * own token bucket.
+	 *
+	 * @param permitsPerSecond the maximum average number of elements per second
+	 * @param burst the maximum number of elements requested at once
+	 * @param timer the {@link TimedScheduler} measuring the rate and retrying pending demand
+	 *
+	 * @return a rate limited {@link Flux}
+	 */
+	public final Flux<T> rateLimit(double permitsPerSecond, int burst, TimedScheduler timer) {
+		return onAssembly(new FluxRateLimit<>(this, permitsPerSecond, burst, timer));
+	}
+
+	/**
+	 * Request from this {@link Flux} only as fast as the given {@link RateLimiter} hands
+	 * out permits, one per element. The {@link RateLimiter} can be shared by several
+	 * sequences to respect a common quota.
+	 *
+	 * @param limiter the {@link RateLimiter} to acquire permits from
+	 *
+	 * @return a rate limited {@link Flux}
+	 */
+	public final Flux<T> rateLimit(RateLimiter limiter) {
+		return onAssembly(new FluxRateLimit<>(this, limiter));
+	}
+
 	/**
 	 * Aggregate the values from this {@link Flux} sequence into an object of the same type than the
 	 * emitted items. The left/right {@link BiFunction} arguments are the N-1 and N item, ignoring sequence
@@ -3878,6 +4377,43 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		return process(ReplayProcessor.create(history));
 	}
 
+	/**
+	 * Emit, every {@code timespan}, a uniform random sample of at most {@code k} of the
+	 * values received during that period, e.g. to keep tracing a high-volume sequence with
+	 * a bounded downstream cost. Periods without values are skipped and the sample of the
+	 * current period is emitted on completion.
+	 * <p>
+	 * This {@link Flux} is requested in an unbounded fashion and samples are queued while
+	 * the downstream has no demand. Values not retained only cost a counter update.
+	 *
+	 * @param k the maximum number of values per sample
+	 * @param timespan the sampling period
+	 *
+	 * @return a {@link Flux} of periodic uniform samples
+	 */
+	public final Flux<List<T>> reservoir(int k, Duration timespan) {
+		return reservoir(k, timespan, getTimer());
+	}
+
+	/**
+	 * Emit, every {@code timespan}, a uniform random sample of at most {@code k} of the
+	 * values received during that period, e.g. to keep tracing a high-volume sequence with
+	 * a bounded downstream cost. Periods without values are skipped and the sample of the
+	 * current period is emitted on completion.
+	 * <p>
+	 * This {@link Flux} is requested in an unbounded fashion and samples are queued while
+	 * the downstream has no demand. Values not retained only cost a counter update.
+	 *
+	 * @param k the maximum number of values per sample
+	 * @param timespan the sampling period
+	 * @param timer the {@link TimedScheduler} to run the periods on
+	 *
+	 * @return a {@link Flux} of periodic uniform samples
+	 */
+	public final Flux<List<T>> reservoir(int k, Duration timespan, TimedScheduler timer) {
+		return onAssembly(new FluxReservoir<>(this, k, timespan.toNanos(), timer));
+	}
+
 	/**
 	 * Re-subscribes to this {@link Flux} sequence if it signals any error
 	 * either indefinitely.
@@ -4106,6 +4642,24 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 				QueueSupplier.get(maxConcurrency)));
 	}
 
+	/**
+	 * Relay each value of this {@link Flux} independently with the given probability and
+	 * drop the others, e.g. to keep tracing a statistically uniform fraction of a
+	 * high-volume sequence. Dropped values are replenished one by one, like {@link
+	 * #filter(Predicate)}, and only cost a counter decrement as the number of values to
+	 * drop is drawn once per relayed value.
+	 *
+	 * @param probability the probability of relaying each value, between 0 and 1
+	 *
+	 * @return a randomly sampled {@link Flux}
+	 */
+	public final Flux<T> sampleRandom(double probability) {
+		if (probability == 1d) {
+			return this;
+		}
+		return onAssembly(new FluxSampleRandom<>(this, probability));
+	}
+
 	/**
 	 * Accumulate this {@link Flux} values with an accumulator {@link BiFunction} and
 	 * returns the intermediate results of this function.
@@ -4318,6 +4872,101 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		return onAssembly(new FluxSkipWhile<>(this, skipPredicate));
 	}
 
+	/**
+	 * Emit the aggregate of each window of {@code size} values, a new window starting every
+	 * {@code skip} values, e.g. a rolling sum or maximum. Windows overlap when {@code skip}
+	 * is smaller than {@code size} and values between windows are dropped when it is
+	 * larger. Only full windows are emitted.
+	 * <p>
+	 * The combiner must be associative. The window aggregate is maintained incrementally,
+	 * in O(1) amortized combiner calls per value whatever the window size.
+	 *
+	 * @param size the number of values in a window
+	 * @param skip the number of values between the start of two windows
+	 * @param identity the neutral value of the combiner, e.g. 0 for a sum
+	 * @param combiner the associative aggregation function
+	 *
+	 * @return a {@link Flux} of window aggregates
+	 */
+	public final Flux<T> slidingReduce(int size, int skip, T identity, BinaryOperator<T> combiner) {
+		return onAssembly(new FluxSlidingReduce<>(this, size, skip, identity, combiner, null));
+	}
+
+	/**
+	 * Emit the aggregate of each window of {@code size} values, a new window starting every
+	 * {@code skip} values, e.g. a rolling sum. Windows overlap when {@code skip} is smaller
+	 * than {@code size} and values between windows are dropped when it is larger. Only full
+	 * windows are emitted.
+	 * <p>
+	 * The combiner must be associative and the inverse must undo it, so that evicting a
+	 * value is a single inverse call, e.g. {@code (a, b) -> a - b} for a sum.
+	 *
+	 * @param size the number of values in a window
+	 * @param skip the number of values between the start of two windows
+	 * @param identity the neutral value of the combiner, e.g. 0 for a sum
+	 * @param combiner the associative aggregation function
+	 * @param inverse the function removing a value from an aggregate
+	 *
+	 * @return a {@link Flux} of window aggregates
+	 */
+	public final Flux<T> slidingReduce(int size,
+			int skip,
+			T identity,
+			BinaryOperator<T> combiner,
+			BinaryOperator<T> inverse) {
+		return onAssembly(new FluxSlidingReduce<>(this, size, skip, identity, combiner,
+				Objects.requireNonNull(inverse, "inverse")));
+	}
+
+	/**
+	 * Emit, every {@code timeshift}, the aggregate of the values received during the last
+	 * {@code timespan}, or the identity if there were none, e.g. a rolling sum or maximum.
+	 * This {@link Flux} is requested in an unbounded fashion and aggregates are queued
+	 * while the downstream has no demand.
+	 * <p>
+	 * The combiner must be associative. The window aggregate is maintained incrementally,
+	 * in O(1) amortized combiner calls per value whatever the number of values in a window.
+	 *
+	 * @param timespan the duration of a window
+	 * @param timeshift the period at which window aggregates are emitted
+	 * @param identity the neutral value of the combiner, e.g. 0 for a sum
+	 * @param combiner the associative aggregation function
+	 *
+	 * @return a {@link Flux} of periodic window aggregates
+	 */
+	public final Flux<T> slidingReduce(Duration timespan,
+			Duration timeshift,
+			T identity,
+			BinaryOperator<T> combiner) {
+		return slidingReduce(timespan, timeshift, identity, combiner, getTimer());
+	}
+
+	/**
+	 * Emit, every {@code timeshift}, the aggregate of the values received during the last
+	 * {@code timespan}, or the identity if there were none, e.g. a rolling sum or maximum.
+	 * This {@link Flux} is requested in an unbounded fashion and aggregates are queued
+	 * while the downstream has no demand.
+	 * <p>
+	 * The combiner must be associative. The window aggregate is maintained incrementally,
+	 * in O(1) amortized combiner calls per value whatever the number of values in a window.
+	 *
+	 * @param timespan the duration of a window
+	 * @param timeshift the period at which window aggregates are emitted
+	 * @param identity the neutral value of the combiner, e.g. 0 for a sum
+	 * @param combiner the associative aggregation function
+	 * @param timer the {@link TimedScheduler} providing the clock and the periodic emission
+	 *
+	 * @return a {@link Flux} of periodic window aggregates
+	 */
+	public final Flux<T> slidingReduce(Duration timespan,
+			Duration timeshift,
+			T identity,
+			BinaryOperator<T> combiner,
+			TimedScheduler timer) {
+		return onAssembly(new FluxSlidingReduceTimed<>(this, timespan.toNanos(),
+				timeshift.toNanos(), identity, combiner, timer));
+	}
+
 	/**
 	 * Prepend the given {@link Iterable} before this {@link Flux} sequence.
 	 *
@@ -4917,6 +5566,22 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		return map(TIMESTAMP_OPERATOR);
 	}
 
+	/**
+	 * Retain the {@code k} greatest values of this {@link Flux} sequence according to the
+	 * given {@link Comparator}, e.g. for a leaderboard, and emit them greatest first on
+	 * completion. Only {@code k} values are held at any time.
+	 *
+	 * @param k the number of values to retain
+	 * @param comparator the {@link Comparator} ordering values
+	 *
+	 * @return a {@link Mono} of the {@code k} greatest values, greatest first
+	 */
+	public final Mono<List<T>> topK(int k, Comparator<? super T> comparator) {
+		TopKHeap.validate(k, comparator);
+		return collect(() -> new TopKHeap<T>(k, comparator), TopKHeap::offer)
+				.map(TopKHeap::toList);
+	}
+
 	/**
 	 * Transform this {@link Flux} into a lazy {@link Iterable} blocking on next calls.
 	 *
@@ -5316,6 +5981,53 @@ public abstract class Flux<T> implements Publisher<T>, Introspectable, Backpress
 		return onAssembly(new FluxWithLatestFrom<>(this, other, resultSelector));
 	}
 
+	/**
+	 * Write this {@link Flux} of {@link ByteBuffer} into the file at the given
+	 * {@link Path}, creating or truncating it, without blocking. The returned {@link Mono}
+	 * emits the number of bytes written once all writes have completed.
+	 * <p>
+	 * Up to 4 writes are in flight at any time, buffers are coalesced into writes of up
+	 * to {@link PlatformDependent#SMALL_IO_BUFFER_SIZE} bytes and more buffers are only
+	 * requested as writes complete.
+	 * <p>
+	 * This {@link Flux} must emit {@link ByteBuffer}, whose position is left
+	 * untouched.
+	 *
+	 * @param path the target file
+	 *
+	 * @return a {@link Mono} of the number of bytes written
+	 */
+	public final Mono<Long> writeTo(Path path) {
+		return writeTo(path, 4, PlatformDependent.SMALL_IO_BUFFER_SIZE);
+	}
+
+	/**
+	 * Write this {@link Flux} of {@link ByteBuffer} into the file at the given
+	 * {@link Path} without blocking. The returned {@link Mono} emits the number of bytes
+	 * written once all writes have completed.
+	 * <p>
+	 * Up to {@code maxInFlight} writes are outstanding at any time, each at its own file
+	 * position. Consecutive buffers are coalesced into writes of up to {@code batchSize}
+	 * bytes and more buffers are only requested as writes complete.
+	 * <p>
+	 * This {@link Flux} must emit {@link ByteBuffer}, whose position is left
+	 * untouched.
+	 *
+	 * @param path the target file
+	 * @param maxInFlight the maximum number of concurrent writes
+	 * @param batchSize the size in bytes under which buffers are coalesced
+	 * @param options the {@link java.nio.channels.AsynchronousFileChannel} open options,
+	 * creating or truncating the file for writing if none is given
+	 *
+	 * @return a {@link Mono} of the number of bytes written
+	 */
+	@SuppressWarnings("unchecked")
+	public final Mono<Long> writeTo(Path path, int maxInFlight, int batchSize, OpenOption... options) {
+		Flux<ByteBuffer> thiz = (Flux<ByteBuffer>) this;
+		return Mono.onAssembly(new MonoFileWrite(thiz, path, options, maxInFlight,
+				batchSize, PlatformDependent.XS_BUFFER_SIZE));
+	}
+
 	/**
 	 * "Step-Merge" especially useful in Scatter-Gather scenarios. The operator will forward all combinations
 	 * produced by the passed combinator from the most recent items emitted by each source until any of them
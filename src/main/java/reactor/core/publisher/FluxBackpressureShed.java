@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.Consumer;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.queue.QueueSupplier;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Cancellable;
+import reactor.core.state.Completable;
+import reactor.core.state.Requestable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Requests an unbounded demand and buffers values that the subscriber doesn't request
+ * fast enough, shedding buffered values following the CoDel (controlled delay) rules:
+ * once the time spent in the buffer by the head value has stayed above {@code
+ * targetDelay} for a whole {@code interval}, head values are dropped at an increasing
+ * rate (every {@code interval / sqrt(drops)}) until their sojourn time falls back below
+ * the target.
+ * <p>
+ * This keeps the queueing delay bounded under sustained overload while absorbing short
+ * bursts, and delivers fresher values than occupancy based strategies.
+ *
+ * @param <T> the value type
+ *
+ * @see <a href="https://queue.acm.org/detail.cfm?id=2209336">Controlling Queue Delay</a>
+ * @since 2.5
+ */
+final class FluxBackpressureShed<T> extends FluxSource<T, T> {
+
+	final long                targetDelay;
+	final long                interval;
+	final Consumer<? super T> onDrop;
+	final TimedScheduler      timer;
+
+	public FluxBackpressureShed(Publisher<? extends T> source,
+			long targetDelay,
+			long interval,
+			Consumer<? super T> onDrop,
+			TimedScheduler timer) {
+		super(source);
+		if (targetDelay < 0L) {
+			throw new IllegalArgumentException("targetDelay >= 0 required but it was " + targetDelay);
+		}
+		if (interval <= 0L) {
+			throw new IllegalArgumentException("interval > 0 required but it was " + interval);
+		}
+		this.targetDelay = targetDelay;
+		this.interval = interval;
+		this.onDrop = Objects.requireNonNull(onDrop, "onDrop");
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		source.subscribe(new ShedSubscriber<>(s, targetDelay, interval, onDrop, timer));
+	}
+
+	@Override
+	public long getCapacity() {
+		return Long.MAX_VALUE;
+	}
+
+	static final class ShedSubscriber<T>
+			implements Subscriber<T>, Subscription, Receiver, Producer, Requestable,
+			           Completable, Cancellable, Backpressurable {
+
+		final Subscriber<? super T> actual;
+		final long                  targetDelay;
+		final long                  interval;
+		final Consumer<? super T>   onDrop;
+		final TimedScheduler        timer;
+
+		final Queue<Node<T>> queue;
+
+		Subscription s;
+
+		/**
+		 * CoDel state, only accessed from the drain loop
+		 */
+		boolean dropping;
+		boolean aboveTarget;
+		long    firstAboveTime;
+		long    dropNext;
+		int     count;
+
+		volatile long requested;
+		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<ShedSubscriber> REQUESTED =
+				AtomicLongFieldUpdater.newUpdater(ShedSubscriber.class, "requested");
+
+		volatile long dropped;
+		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<ShedSubscriber> DROPPED =
+				AtomicLongFieldUpdater.newUpdater(ShedSubscriber.class, "dropped");
+
+		volatile int wip;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<ShedSubscriber> WIP =
+				AtomicIntegerFieldUpdater.newUpdater(ShedSubscriber.class, "wip");
+
+		volatile boolean done;
+		Throwable error;
+
+		volatile boolean cancelled;
+
+		ShedSubscriber(Subscriber<? super T> actual,
+				long targetDelay,
+				long interval,
+				Consumer<? super T> onDrop,
+				TimedScheduler timer) {
+			this.actual = actual;
+			this.targetDelay = targetDelay;
+			this.interval = interval;
+			this.onDrop = onDrop;
+			this.timer = timer;
+			this.queue = QueueSupplier.<Node<T>>unbounded().get();
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			queue.offer(new Node<>(t, timer.now(TimeUnit.NANOSECONDS)));
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			error = t;
+			done = true;
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if (BackpressureUtils.validate(n)) {
+				BackpressureUtils.getAndAddCap(REQUESTED, this, n);
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				s.cancel();
+				if (WIP.getAndIncrement(this) == 0) {
+					queue.clear();
+				}
+			}
+		}
+
+		void drain() {
+			if (WIP.getAndIncrement(this) != 0) {
+				return;
+			}
+			int missed = 1;
+			final Queue<Node<T>> q = queue;
+			final Subscriber<? super T> a = actual;
+
+			for (; ; ) {
+				long r = requested;
+				long e = 0L;
+
+				for (; ; ) {
+					if (cancelled) {
+						q.clear();
+						return;
+					}
+					boolean d = done;
+					Node<T> n = q.peek();
+					if (n == null) {
+						aboveTarget = false;
+						dropping = false;
+						if (d) {
+							terminate(a);
+							return;
+						}
+						break;
+					}
+
+					if (shouldDrop(timer.now(TimeUnit.NANOSECONDS), n.time)) {
+						q.poll();
+						drop(n.value);
+						if (cancelled) {
+							q.clear();
+							return;
+						}
+						continue;
+					}
+					if (e == r) {
+						break;
+					}
+					q.poll();
+					a.onNext(n.value);
+					e++;
+				}
+
+				if (e != 0L && r != Long.MAX_VALUE) {
+					REQUESTED.addAndGet(this, -e);
+				}
+
+				missed = WIP.addAndGet(this, -missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+
+		/**
+		 * Apply the CoDel rules to the head value enqueued at the given time.
+		 *
+		 * @return true if the head value should be dropped
+		 */
+		boolean shouldDrop(long now, long enqueueTime) {
+			boolean okToDrop;
+			if (now - enqueueTime < targetDelay) {
+				aboveTarget = false;
+				okToDrop = false;
+			}
+			else if (!aboveTarget) {
+				aboveTarget = true;
+				firstAboveTime = now + interval;
+				okToDrop = false;
+			}
+			else {
+				okToDrop = now - firstAboveTime >= 0L;
+			}
+
+			if (dropping) {
+				if (!okToDrop) {
+					dropping = false;
+					return false;
+				}
+				if (now - dropNext >= 0L) {
+					count++;
+					dropNext = controlLaw(dropNext);
+					return true;
+				}
+				return false;
+			}
+			if (okToDrop) {
+				dropping = true;
+				// resume near the previous drop rate if the last dropping episode was recent
+				count = count > 2 && now - dropNext < 8 * interval ? count - 2 : 1;
+				dropNext = controlLaw(now);
+				return true;
+			}
+			return false;
+		}
+
+		long controlLaw(long t) {
+			return t + (long) (interval / Math.sqrt(count));
+		}
+
+		void drop(T t) {
+			DROPPED.incrementAndGet(this);
+			try {
+				onDrop.accept(t);
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				cancelled = true;
+				s.cancel();
+				actual.onError(Exceptions.unwrap(e));
+			}
+		}
+
+		void terminate(Subscriber<? super T> a) {
+			Throwable ex = error;
+			if (ex != null) {
+				a.onError(ex);
+			}
+			else {
+				a.onComplete();
+			}
+		}
+
+		/**
+		 * @return the number of values shed so far
+		 */
+		public long getDropped() {
+			return dropped;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public long requestedFromDownstream() {
+			return requested;
+		}
+
+		@Override
+		public long getCapacity() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public long getPending() {
+			return queue.size();
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+
+	static final class Node<T> {
+
+		final T    value;
+		final long time;
+
+		Node(T value, long time) {
+			this.value = value;
+			this.time = time;
+		}
+	}
+}
@@ -240,7 +240,7 @@ final class FluxBufferBoundary<T, U, C extends Collection<? super T>>
 			} else {
 				cancel();
 				
-				actual.onError(new IllegalStateException("Could not emit buffer due to lack of requests"));
+				actual.onError(Exceptions.failWithBackpressure("Could not emit buffer due to lack of requests"));
 
 				return false;
 			}
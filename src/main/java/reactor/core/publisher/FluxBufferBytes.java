@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.buffer.ByteBufferPool;
+import reactor.core.buffer.PooledByteBuffer;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.queue.QueueSupplier;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Cancellable;
+import reactor.core.state.Completable;
+import reactor.core.state.Requestable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Aggregates a sequence of {@link ByteBuffer} into full {@link PooledByteBuffer} borrowed
+ * from a {@link ByteBufferPool}, splitting source buffers across pooled buffers as needed.
+ * <p>
+ * Pooled buffers are borrowed only once downstream has requested them, so at most one
+ * partially filled buffer is held at a time and it is released on cancel or error.
+ * Emitted buffers are owned by the downstream which must release them.
+ *
+ * @since 2.5
+ */
+final class FluxBufferBytes extends FluxSource<ByteBuffer, PooledByteBuffer> {
+
+	final ByteBufferPool pool;
+
+	final int prefetch;
+
+	public FluxBufferBytes(Publisher<? extends ByteBuffer> source, ByteBufferPool pool, int prefetch) {
+		super(source);
+		if (prefetch <= 0) {
+			throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+		}
+		this.pool = Objects.requireNonNull(pool, "pool");
+		this.prefetch = prefetch;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super PooledByteBuffer> s) {
+		source.subscribe(new BufferBytesSubscriber(s, pool, prefetch));
+	}
+
+	@Override
+	public long getCapacity() {
+		return prefetch;
+	}
+
+	static final class BufferBytesSubscriber
+			implements Subscriber<ByteBuffer>, Subscription, Receiver, Producer, Requestable,
+			           Completable, Cancellable, Backpressurable {
+
+		final Subscriber<? super PooledByteBuffer> actual;
+		final ByteBufferPool                       pool;
+		final int                                  prefetch;
+		final int                                  limit;
+
+		/**
+		 * Source buffers received and not yet copied, bounded by prefetch
+		 */
+		final Queue<ByteBuffer> queue;
+
+		Subscription s;
+
+		/**
+		 * Source buffer being split, only accessed from the drain loop
+		 */
+		ByteBuffer src;
+
+		/**
+		 * Partially filled pooled buffer, only accessed from the drain loop
+		 */
+		PooledByteBuffer current;
+
+		int consumed;
+
+		boolean started;
+
+		volatile long requested;
+		static final AtomicLongFieldUpdater<BufferBytesSubscriber> REQUESTED =
+				AtomicLongFieldUpdater.newUpdater(BufferBytesSubscriber.class, "requested");
+
+		volatile int wip;
+		static final AtomicIntegerFieldUpdater<BufferBytesSubscriber> WIP =
+				AtomicIntegerFieldUpdater.newUpdater(BufferBytesSubscriber.class, "wip");
+
+		volatile boolean done;
+		Throwable error;
+
+		volatile boolean cancelled;
+
+		BufferBytesSubscriber(Subscriber<? super PooledByteBuffer> actual,
+				ByteBufferPool pool,
+				int prefetch) {
+			this.actual = actual;
+			this.pool = pool;
+			this.prefetch = prefetch;
+			this.limit = FluxPublishOn.limit(prefetch);
+			this.queue = QueueSupplier.<ByteBuffer>get(prefetch).get();
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(ByteBuffer t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			if (!queue.offer(t.duplicate())) {
+				s.cancel();
+				onError(Exceptions.failWithOverflow());
+				return;
+			}
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			error = t;
+			done = true;
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if (BackpressureUtils.validate(n)) {
+				BackpressureUtils.getAndAddCap(REQUESTED, this, n);
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				s.cancel();
+				drain();
+			}
+		}
+
+		void clear() {
+			PooledByteBuffer b = current;
+			if (b != null) {
+				current = null;
+				b.release();
+			}
+			src = null;
+			queue.clear();
+		}
+
+		/**
+		 * Copy pending source buffers into the current pooled buffer until it is full,
+		 * borrowing a pooled buffer only when there are bytes to copy.
+		 *
+		 * @param d true if the source has terminated, flushing a partial buffer
+		 *
+		 * @return a filled buffer or null if more source buffers are needed
+		 */
+		PooledByteBuffer fill(boolean d) {
+			PooledByteBuffer b = current;
+			for (; ; ) {
+				ByteBuffer in = src;
+				if (in == null) {
+					in = queue.poll();
+					if (in == null) {
+						if (d && b != null) {
+							current = null;
+							b.buffer().flip();
+							return b;
+						}
+						return null;
+					}
+					src = in;
+					if (++consumed == limit) {
+						consumed = 0;
+						s.request(limit);
+					}
+				}
+				if (!in.hasRemaining()) {
+					src = null;
+					continue;
+				}
+				if (b == null) {
+					b = pool.allocate();
+					current = b;
+				}
+				ByteBuffer dst = b.buffer();
+				if (in.remaining() <= dst.remaining()) {
+					dst.put(in);
+					src = null;
+				}
+				else {
+					int limit = in.limit();
+					in.limit(in.position() + dst.remaining());
+					dst.put(in);
+					in.limit(limit);
+				}
+				if (!dst.hasRemaining()) {
+					current = null;
+					dst.flip();
+					return b;
+				}
+			}
+		}
+
+		void drain() {
+			if (WIP.getAndIncrement(this) != 0) {
+				return;
+			}
+			int missed = 1;
+			final Subscriber<? super PooledByteBuffer> a = actual;
+
+			for (; ; ) {
+				long r = requested;
+				long e = 0L;
+
+				if (!started && r != 0L && !cancelled) {
+					started = true;
+					s.request(prefetch);
+				}
+
+				while (e != r && !cancelled) {
+					boolean d = done;
+					PooledByteBuffer b;
+					try {
+						b = fill(d);
+					}
+					catch (Throwable ex) {
+						Exceptions.throwIfFatal(ex);
+						s.cancel();
+						clear();
+						a.onError(Exceptions.unwrap(ex));
+						return;
+					}
+					if (b == null) {
+						break;
+					}
+					a.onNext(b);
+					e++;
+				}
+
+				// keep clearing under WIP so buffers borrowed concurrently with cancel
+				// are released by whichever thread drains last
+				if (cancelled) {
+					clear();
+				}
+				else if (done) {
+					Throwable ex = error;
+					if (ex != null) {
+						clear();
+						a.onError(ex);
+						return;
+					}
+					if (current == null && src == null && queue.isEmpty()) {
+						a.onComplete();
+						return;
+					}
+				}
+
+				if (e != 0L && r != Long.MAX_VALUE) {
+					REQUESTED.addAndGet(this, -e);
+				}
+
+				missed = WIP.addAndGet(this, -missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public long requestedFromDownstream() {
+			return requested;
+		}
+
+		@Override
+		public long getCapacity() {
+			return prefetch;
+		}
+
+		@Override
+		public long getPending() {
+			return queue.size();
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+}
@@ -441,7 +441,7 @@ final class FluxBufferStartEnd<T, U, V, C extends Collection<? super T>>
 							REQUESTED.decrementAndGet(this);
 						}
 					} else {
-						anyError(new IllegalStateException("Could not emit buffer due to lack of requests"));
+						anyError(Exceptions.failWithBackpressure("Could not emit buffer due to lack of requests"));
 						continue;
 					}
 				}
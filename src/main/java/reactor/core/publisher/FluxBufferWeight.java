@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.ToLongFunction;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.queue.QueueSupplier;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Cancellable;
+import reactor.core.state.Completable;
+import reactor.core.state.Requestable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Buffers subsequent elements until their cumulative weight reaches a maximum, or
+ * optionally until a timespan has elapsed since the first element of the buffer, and
+ * emits the buffers.
+ * <p>
+ * An element that would make the current buffer exceed the maximum weight starts a new
+ * buffer instead. Upstream is requested in batches of {@code prefetch} elements while
+ * there is downstream demand, since the number of elements per buffer is not known in
+ * advance.
+ *
+ * @param <T> the source value type
+ *
+ * @since 2.5
+ */
+final class FluxBufferWeight<T> extends FluxSource<T, List<T>> {
+
+	final long                      maxWeight;
+	final ToLongFunction<? super T> weigher;
+	final long                      timespan;
+	final TimedScheduler            timer;
+	final int                       prefetch;
+
+	public FluxBufferWeight(Publisher<? extends T> source,
+			long maxWeight,
+			ToLongFunction<? super T> weigher,
+			int prefetch) {
+		this(source, maxWeight, weigher, -1L, null, prefetch);
+	}
+
+	public FluxBufferWeight(Publisher<? extends T> source,
+			long maxWeight,
+			ToLongFunction<? super T> weigher,
+			long timespan,
+			TimedScheduler timer,
+			int prefetch) {
+		super(source);
+		if (maxWeight <= 0L) {
+			throw new IllegalArgumentException("maxWeight > 0 required but it was " + maxWeight);
+		}
+		if (prefetch <= 0) {
+			throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+		}
+		if (timer != null && timespan <= 0L) {
+			throw new IllegalArgumentException("timespan > 0 required but it was " + timespan);
+		}
+		this.maxWeight = maxWeight;
+		this.weigher = Objects.requireNonNull(weigher, "weigher");
+		this.timespan = timespan;
+		this.timer = timer;
+		this.prefetch = prefetch;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super List<T>> s) {
+		source.subscribe(new BufferWeightSubscriber<>(s, maxWeight, weigher, timespan, timer, prefetch));
+	}
+
+	@Override
+	public long getCapacity() {
+		return prefetch;
+	}
+
+	static final class BufferWeightSubscriber<T>
+			implements Subscriber<T>, Subscription, Receiver, Producer, Requestable,
+			           Completable, Cancellable, Backpressurable {
+
+		final Subscriber<? super List<T>> actual;
+		final long                        maxWeight;
+		final ToLongFunction<? super T>   weigher;
+		final long                        timespan;
+		final TimedScheduler              timer;
+		final int                         prefetch;
+
+		/**
+		 * Closed buffers waiting for downstream demand, offered while holding this
+		 * subscriber's monitor
+		 */
+		final Queue<List<T>> ready;
+
+		Subscription s;
+
+		/**
+		 * Open buffer state, guarded by this subscriber's monitor as the timer may close
+		 * it concurrently
+		 */
+		List<T>      buffer;
+		long         weight;
+		long         index;
+		Cancellation timeout;
+
+		/**
+		 * Only accessed from the drain loop
+		 */
+		boolean unbounded;
+
+		volatile long requested;
+		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<BufferWeightSubscriber> REQUESTED =
+				AtomicLongFieldUpdater.newUpdater(BufferWeightSubscriber.class, "requested");
+
+		/**
+		 * Source elements requested and not yet received
+		 */
+		volatile long outstanding;
+		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<BufferWeightSubscriber> OUTSTANDING =
+				AtomicLongFieldUpdater.newUpdater(BufferWeightSubscriber.class, "outstanding");
+
+		volatile int wip;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<BufferWeightSubscriber> WIP =
+				AtomicIntegerFieldUpdater.newUpdater(BufferWeightSubscriber.class, "wip");
+
+		volatile boolean done;
+		Throwable error;
+
+		volatile boolean cancelled;
+
+		BufferWeightSubscriber(Subscriber<? super List<T>> actual,
+				long maxWeight,
+				ToLongFunction<? super T> weigher,
+				long timespan,
+				TimedScheduler timer,
+				int prefetch) {
+			this.actual = actual;
+			this.maxWeight = maxWeight;
+			this.weigher = weigher;
+			this.timespan = timespan;
+			this.timer = timer;
+			this.prefetch = prefetch;
+			this.ready = QueueSupplier.<List<T>>unbounded().get();
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			OUTSTANDING.decrementAndGet(this);
+
+			long w;
+			try {
+				w = weigher.applyAsLong(t);
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				s.cancel();
+				onError(Exceptions.unwrap(e));
+				return;
+			}
+			if (w < 0L) {
+				s.cancel();
+				onError(new IllegalArgumentException("The weigher returned a negative weight " + w));
+				return;
+			}
+
+			synchronized (this) {
+				List<T> b = buffer;
+				if (b != null && weight + w > maxWeight) {
+					close();
+					b = null;
+				}
+				if (b == null) {
+					b = new ArrayList<>();
+					buffer = b;
+					if (timer != null) {
+						long i = ++index;
+						timeout = timer.schedule(() -> timeout(i), timespan, TimeUnit.NANOSECONDS);
+					}
+				}
+				b.add(t);
+				weight += w;
+				if (weight >= maxWeight) {
+					close();
+				}
+			}
+			drain();
+		}
+
+		/**
+		 * Move the open buffer to the ready queue, must be called under this subscriber's
+		 * monitor.
+		 */
+		void close() {
+			ready.offer(buffer);
+			buffer = null;
+			weight = 0L;
+			Cancellation c = timeout;
+			if (c != null) {
+				timeout = null;
+				c.dispose();
+			}
+		}
+
+		void timeout(long expected) {
+			synchronized (this) {
+				if (buffer == null || index != expected) {
+					return;
+				}
+				timeout = null;
+				ready.offer(buffer);
+				buffer = null;
+				weight = 0L;
+			}
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			synchronized (this) {
+				discard();
+			}
+			error = t;
+			done = true;
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			synchronized (this) {
+				if (buffer != null) {
+					close();
+				}
+			}
+			done = true;
+			drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if (BackpressureUtils.validate(n)) {
+				BackpressureUtils.getAndAddCap(REQUESTED, this, n);
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				s.cancel();
+				synchronized (this) {
+					discard();
+				}
+				if (WIP.getAndIncrement(this) == 0) {
+					ready.clear();
+				}
+			}
+		}
+
+		/**
+		 * Drop the open buffer and its pending timeout, must be called under this
+		 * subscriber's monitor.
+		 */
+		void discard() {
+			buffer = null;
+			weight = 0L;
+			index++;
+			Cancellation c = timeout;
+			if (c != null) {
+				timeout = null;
+				c.dispose();
+			}
+		}
+
+		void drain() {
+			if (WIP.getAndIncrement(this) != 0) {
+				return;
+			}
+			int missed = 1;
+			final Queue<List<T>> q = ready;
+			final Subscriber<? super List<T>> a = actual;
+
+			for (; ; ) {
+				long r = requested;
+				long e = 0L;
+
+				while (e != r) {
+					if (cancelled) {
+						q.clear();
+						return;
+					}
+					// done is read first: error is set before it and thus visible once d is true
+					boolean d = done;
+					Throwable ex = error;
+					if (ex != null) {
+						q.clear();
+						a.onError(ex);
+						return;
+					}
+					List<T> b = q.poll();
+					if (b == null) {
+						if (d) {
+							a.onComplete();
+							return;
+						}
+						break;
+					}
+					a.onNext(b);
+					e++;
+				}
+
+				if (cancelled) {
+					q.clear();
+					return;
+				}
+				if (done) {
+					Throwable ex = error;
+					if (ex != null) {
+						q.clear();
+						a.onError(ex);
+						return;
+					}
+					if (q.isEmpty()) {
+						a.onComplete();
+						return;
+					}
+				}
+
+				if (e != 0L && r != Long.MAX_VALUE) {
+					r = REQUESTED.addAndGet(this, -e);
+				}
+
+				if (!done && !unbounded) {
+					if (r == Long.MAX_VALUE) {
+						unbounded = true;
+						s.request(Long.MAX_VALUE);
+					}
+					else if (r != 0L && q.isEmpty() && outstanding == 0L) {
+						OUTSTANDING.addAndGet(this, prefetch);
+						s.request(prefetch);
+					}
+				}
+
+				missed = WIP.addAndGet(this, -missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public long requestedFromDownstream() {
+			return requested;
+		}
+
+		@Override
+		public long getCapacity() {
+			return maxWeight;
+		}
+
+		@Override
+		public synchronized long getPending() {
+			return weight;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+}
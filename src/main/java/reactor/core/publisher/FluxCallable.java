@@ -23,7 +23,8 @@ import reactor.core.subscriber.DeferredScalarSubscriber;
 import reactor.core.util.Exceptions;
 
 /**
- * For each subscriber, a Supplier is invoked and the returned value emitted.
+ * For each subscriber, a Supplier is invoked and the returned value emitted, or the
+ * subscriber is completed empty if the value is null.
  * @param <T> the value type;
  */
 final class FluxCallable<T> extends Flux<T> implements Callable<T> {
@@ -48,6 +49,10 @@ final class FluxCallable<T> extends Flux<T> implements Callable<T> {
             return;
         }
         
+        if (v == null) {
+            s.onComplete();
+            return;
+        }
         wrapper.complete(v);
     }
 
@@ -237,7 +237,7 @@ final class FluxConcatMap<T, R> extends FluxSource<T, R> {
 			} else
 			if (!queue.offer(t)) {
 				s.cancel();
-				onError(new IllegalStateException("Queue full?!"));
+				onError(Exceptions.failWithBackpressure("Queue full?!"));
 			} else {
 				drain();
 			}
@@ -562,7 +562,7 @@ final class FluxConcatMap<T, R> extends FluxSource<T, R> {
 			} else
 			if (!queue.offer(t)) {
 				s.cancel();
-				onError(new IllegalStateException("Queue full?!"));
+				onError(Exceptions.failWithBackpressure("Queue full?!"));
 			} else {
 				drain();
 			}
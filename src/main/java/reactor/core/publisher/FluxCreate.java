@@ -123,7 +123,7 @@ final class FluxCreate<T> extends Flux<T> {
                         REQUESTED.decrementAndGet(this);
                     }
                 } else {
-                    fail(new IllegalStateException("Could not emit value due to lack of request"));
+                    fail(Exceptions.failWithBackpressure("Could not emit value due to lack of request"));
                 }
                 break;
             }
@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Completable;
+import reactor.core.state.Deadline;
+import reactor.core.subscriber.Subscribers;
+import reactor.core.util.BackpressureUtils;
+
+/**
+ * Attaches a deadline to the subscription, cancelling the source and signalling a
+ * {@link TimeoutException} once it passes.
+ * <p>
+ * Unlike {@link FluxTimeout}, the deadline is visible to the upstream operators through
+ * {@link Deadline#find(Object)}: asynchronous boundaries such as {@link FluxPublishOn},
+ * {@link FluxFlatMap} or {@link WorkQueueProcessor} check it before doing work and
+ * drop what is still queued for a subscriber that already gave up.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class FluxDeadline<T> extends FluxSource<T, T> {
+
+	final long           timeout;
+	final TimedScheduler timer;
+
+	public FluxDeadline(Publisher<? extends T> source, long timeout, TimedScheduler timer) {
+		super(source);
+		if (timeout < 0L) {
+			throw new IllegalArgumentException("timeout >= 0 required but it was " + timeout);
+		}
+		this.timeout = timeout;
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		source.subscribe(new DeadlineSubscriber<>(Subscribers.serialize(s), timeout, timer));
+	}
+
+	static final class DeadlineSubscriber<T>
+			implements Subscriber<T>, Subscription, Deadline, Runnable, Receiver, Producer,
+			           Completable {
+
+		static final int ACTIVE     = 0;
+		static final int TERMINATED = 1;
+		static final int EXPIRED    = 2;
+
+		final Subscriber<? super T> actual;
+		final long                  timeout;
+		final TimedScheduler        timer;
+
+		/**
+		 * Absolute time in nanoseconds, as returned by the timer, after which work
+		 * for this subscriber is dropped
+		 */
+		final long deadline;
+
+		Subscription s;
+
+		Cancellation task;
+
+		volatile int state;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<DeadlineSubscriber> STATE =
+				AtomicIntegerFieldUpdater.newUpdater(DeadlineSubscriber.class, "state");
+
+		DeadlineSubscriber(Subscriber<? super T> actual, long timeout, TimedScheduler timer) {
+			this.actual = actual;
+			this.timeout = timeout;
+			this.timer = timer;
+			this.deadline = timer.now(TimeUnit.NANOSECONDS) + timeout;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+
+				actual.onSubscribe(this);
+
+				if (state == ACTIVE) {
+					task = timer.schedule(this, deadline - timer.now(TimeUnit.NANOSECONDS),
+							TimeUnit.NANOSECONDS);
+				}
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (state == ACTIVE) {
+				actual.onNext(t);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (STATE.compareAndSet(this, ACTIVE, TERMINATED)) {
+				dispose();
+				actual.onError(t);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			if (STATE.compareAndSet(this, ACTIVE, TERMINATED)) {
+				dispose();
+				actual.onComplete();
+			}
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			if (STATE.compareAndSet(this, ACTIVE, TERMINATED)) {
+				dispose();
+				s.cancel();
+			}
+		}
+
+		@Override
+		public boolean isExpired() {
+			int st = state;
+			return st == EXPIRED ||
+					(st == ACTIVE && timer.now(TimeUnit.NANOSECONDS) - deadline >= 0L);
+		}
+
+		@Override
+		public void run() {
+			if (STATE.compareAndSet(this, ACTIVE, EXPIRED)) {
+				dispose();
+				s.cancel();
+				actual.onError(new TimeoutException("Deadline of " + timeout + "ns exceeded"));
+			}
+		}
+
+		void dispose() {
+			Cancellation c = task;
+			if (c != null) {
+				c.dispose();
+			}
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return state != ACTIVE;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+	}
+}
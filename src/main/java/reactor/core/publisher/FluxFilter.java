@@ -16,6 +16,7 @@
 package reactor.core.publisher;
 
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.reactivestreams.Publisher;
@@ -55,6 +56,45 @@ final class FluxFilter<T> extends FluxSource<T, T> {
 		return predicate;
 	}
 
+	/**
+	 * Compose the given predicate with this one into a single stage subscribing to the
+	 * same source, instead of stacking another operator and subscriber on top of this one.
+	 *
+	 * @param next the predicate values passing this stage must also satisfy
+	 *
+	 * @return a new FluxFilter testing both predicates in turn
+	 */
+	FluxFilter<T> fuse(Predicate<? super T> next) {
+		return new FluxFilter<>(source, and(predicate, next));
+	}
+
+	/**
+	 * Compose the given mapper after this predicate into a single {@link FluxMapFilter}
+	 * stage subscribing to the same source.
+	 *
+	 * @param next the mapper to apply to the values passing this stage
+	 * @param <R> the result value type
+	 *
+	 * @return a new FluxMapFilter testing then mapping values
+	 */
+	<R> FluxMapFilter<T, R> fuseMap(Function<? super T, ? extends R> next) {
+		return new FluxMapFilter<>(source, FluxMapFilter.filterThenMap(predicate, next));
+	}
+
+	/**
+	 * Compose two predicates, short-circuiting on the first one.
+	 *
+	 * @param first the first predicate
+	 * @param second the predicate tested when the first one passes
+	 * @param <T> the value type
+	 *
+	 * @return the composed predicate
+	 */
+	static <T> Predicate<T> and(Predicate<? super T> first, Predicate<? super T> second) {
+		Objects.requireNonNull(second, "predicate");
+		return t -> first.test(t) && second.test(t);
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super T> s) {
 		if (source instanceof Fuseable) {
@@ -16,6 +16,7 @@
 package reactor.core.publisher;
 
 import java.util.Objects;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 import org.reactivestreams.Publisher;
@@ -56,6 +57,31 @@ final class FluxFilterFuseable<T> extends FluxSource<T, T>
 		return predicate;
 	}
 
+	/**
+	 * Compose the given predicate with this one into a single stage subscribing to the
+	 * same source, instead of stacking another operator and subscriber on top of this one.
+	 *
+	 * @param next the predicate values passing this stage must also satisfy
+	 *
+	 * @return a new FluxFilterFuseable testing both predicates in turn
+	 */
+	FluxFilterFuseable<T> fuse(Predicate<? super T> next) {
+		return new FluxFilterFuseable<>(source, FluxFilter.and(predicate, next));
+	}
+
+	/**
+	 * Compose the given mapper after this predicate into a single {@link
+	 * FluxMapFilterFuseable} stage subscribing to the same source.
+	 *
+	 * @param next the mapper to apply to the values passing this stage
+	 * @param <R> the result value type
+	 *
+	 * @return a new FluxMapFilterFuseable testing then mapping values
+	 */
+	<R> FluxMapFilterFuseable<T, R> fuseMap(Function<? super T, ? extends R> next) {
+		return new FluxMapFilterFuseable<>(source, FluxMapFilter.filterThenMap(predicate, next));
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super T> s) {
 		if (s instanceof ConditionalSubscriber) {
@@ -36,6 +36,7 @@ import reactor.core.flow.Receiver;
 import reactor.core.state.Backpressurable;
 import reactor.core.state.Cancellable;
 import reactor.core.state.Completable;
+import reactor.core.state.Deadline;
 import reactor.core.state.Introspectable;
 import reactor.core.state.Prefetchable;
 import reactor.core.state.Requestable;
@@ -69,20 +70,37 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 
 	final int prefetch;
 
+	final int minPrefetch;
+
 	final Supplier<? extends Queue<R>> innerQueueSupplier;
 
 	public FluxFlatMap(Publisher<? extends T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
 			boolean delayError, int maxConcurrency, Supplier<? extends Queue<R>> mainQueueSupplier, int prefetch, Supplier<? extends Queue<R>> innerQueueSupplier) {
+		this(source, mapper, delayError, maxConcurrency, mainQueueSupplier, prefetch, prefetch, innerQueueSupplier);
+	}
+
+	/**
+	 * Constructs a FluxFlatMap whose inner request windows adapt between {@code
+	 * minPrefetch} and {@code prefetch} when they differ, see {@link AdaptivePrefetch}.
+	 * The inner queues supplied must then accommodate up to {@code prefetch} values.
+	 */
+	public FluxFlatMap(Publisher<? extends T> source, Function<? super T, ? extends Publisher<? extends R>> mapper,
+			boolean delayError, int maxConcurrency, Supplier<? extends Queue<R>> mainQueueSupplier, int minPrefetch,
+			int prefetch, Supplier<? extends Queue<R>> innerQueueSupplier) {
 		super(source);
 		if (prefetch <= 0) {
 			throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
 		}
+		if (minPrefetch <= 0 || minPrefetch > prefetch) {
+			throw new IllegalArgumentException("0 < minPrefetch <= prefetch required but it was " + minPrefetch);
+		}
 		if (maxConcurrency <= 0) {
 			throw new IllegalArgumentException("maxConcurrency > 0 required but it was " + maxConcurrency);
 		}
 		this.mapper = Objects.requireNonNull(mapper, "mapper");
 		this.delayError = delayError;
 		this.prefetch = prefetch;
+		this.minPrefetch = minPrefetch;
 		this.maxConcurrency = maxConcurrency;
 		this.mainQueueSupplier = Objects.requireNonNull(mainQueueSupplier, "mainQueueSupplier");
 		this.innerQueueSupplier = Objects.requireNonNull(innerQueueSupplier, "innerQueueSupplier");
@@ -109,6 +127,7 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 				delayError,
 				maxConcurrency,
 				mainQueueSupplier,
+				minPrefetch,
 				prefetch,
 				innerQueueSupplier));
 	}
@@ -199,7 +218,7 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 	static final class FlatMapMain<T, R> extends SpscFreeListTracker<FlatMapInner<R>>
 			implements Subscriber<T>, Subscription, Receiver, MultiReceiver, Requestable,
 			           Completable, Producer, Cancellable, Backpressurable,
-			           Introspectable {
+			           Introspectable, Deadline {
 
 		final Subscriber<? super R> actual;
 
@@ -213,10 +232,14 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 
 		final int prefetch;
 
+		final int minPrefetch;
+
 		final Supplier<? extends Queue<R>> innerQueueSupplier;
 
 		final int limit;
 
+		final Deadline deadline;
+
 		volatile Queue<R> scalarQueue;
 
 		volatile Throwable error;
@@ -253,14 +276,23 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 		public FlatMapMain(Subscriber<? super R> actual,
 				Function<? super T, ? extends Publisher<? extends R>> mapper, boolean delayError, int maxConcurrency,
 				Supplier<? extends Queue<R>> mainQueueSupplier, int prefetch, Supplier<? extends Queue<R>> innerQueueSupplier) {
+			this(actual, mapper, delayError, maxConcurrency, mainQueueSupplier, prefetch, prefetch, innerQueueSupplier);
+		}
+
+		public FlatMapMain(Subscriber<? super R> actual,
+				Function<? super T, ? extends Publisher<? extends R>> mapper, boolean delayError, int maxConcurrency,
+				Supplier<? extends Queue<R>> mainQueueSupplier, int minPrefetch, int prefetch,
+				Supplier<? extends Queue<R>> innerQueueSupplier) {
 			this.actual = actual;
 			this.mapper = mapper;
 			this.delayError = delayError;
 			this.maxConcurrency = maxConcurrency;
 			this.mainQueueSupplier = mainQueueSupplier;
 			this.prefetch = prefetch;
+			this.minPrefetch = minPrefetch;
 			this.innerQueueSupplier = innerQueueSupplier;
 			this.limit = maxConcurrency - (maxConcurrency >> 2);
+			this.deadline = Deadline.find(actual);
 		}
 
 		@SuppressWarnings("unchecked")
@@ -335,6 +367,11 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 				return;
 			}
 
+			if (deadline != null && deadline.isExpired()) {
+				cancel();
+				return;
+			}
+
 			Publisher<? extends R> p;
 
 			try {
@@ -364,7 +401,7 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 				}
 				emitScalar(v);
 			} else {
-				FlatMapInner<R> inner = new FlatMapInner<>(this, prefetch);
+				FlatMapInner<R> inner = new FlatMapInner<>(this, minPrefetch, prefetch);
 				if (add(inner)) {
 
 					p.subscribe(inner);
@@ -428,7 +465,7 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 					if (!q.offer(v)) {
 						s.cancel();
 
-						Throwable e = new IllegalStateException("Scalar queue full?!");
+						Throwable e = Exceptions.failWithBackpressure("Scalar queue full?!");
 
 						if (Exceptions.addThrowable(ERROR, this, e)) {
 							done = true;
@@ -467,7 +504,7 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 				if (!q.offer(v)) {
 					s.cancel();
 
-					Throwable e = new IllegalStateException("Scalar queue full?!");
+					Throwable e = Exceptions.failWithBackpressure("Scalar queue full?!");
 
 					if (Exceptions.addThrowable(ERROR, this, e)) {
 						done = true;
@@ -833,7 +870,7 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 					if (!q.offer(v)) {
 						inner.cancel();
 
-						Throwable e = new IllegalStateException("Scalar queue full?!");
+						Throwable e = Exceptions.failWithBackpressure("Scalar queue full?!");
 
 						if (Exceptions.addThrowable(ERROR, this, e)) {
 							inner.done = true;
@@ -869,7 +906,7 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 				if (!q.offer(v)) {
 					inner.cancel();
 
-					Throwable e = new IllegalStateException("Scalar queue full?!");
+					Throwable e = Exceptions.failWithBackpressure("Scalar queue full?!");
 
 					if (Exceptions.addThrowable(ERROR, this, e)) {
 						inner.done = true;
@@ -945,6 +982,17 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 		public Object downstream() {
 			return actual;
 		}
+
+		@Override
+		public boolean isExpired() {
+			Deadline d = deadline;
+			return d != null && d.isExpired();
+		}
+
+		@Override
+		public Deadline resolve() {
+			return deadline;
+		}
 	}
 
 	static final class FlatMapInner<R>
@@ -955,7 +1003,9 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 
 		final int prefetch;
 
-		final int limit;
+		int limit;
+
+		AdaptivePrefetch adaptive;
 
 		volatile Subscription s;
 		@SuppressWarnings("rawtypes")
@@ -985,10 +1035,16 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 
 		int index;
 
-		public FlatMapInner(FlatMapMain<?, R> parent, int prefetch) {
+		public FlatMapInner(FlatMapMain<?, R> parent, int minPrefetch, int prefetch) {
 			this.parent = parent;
 			this.prefetch = prefetch;
-			this.limit = prefetch - (prefetch >> 2);
+			if (minPrefetch < prefetch) {
+				this.adaptive = new AdaptivePrefetch(minPrefetch, prefetch);
+				this.limit = adaptive.limit();
+			}
+			else {
+				this.limit = prefetch - (prefetch >> 2);
+			}
 		}
 
 		@Override
@@ -1007,10 +1063,12 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 					else if (m == Fuseable.ASYNC) {
 						sourceMode = ASYNC;
 						queue = f;
+						adaptive = null;
+						limit = prefetch - (prefetch >> 2);
 					}
 					// NONE is just fall-through as the queue will be created on demand
 				}
-				s.request(prefetch);
+				s.request(adaptive != null ? adaptive.prefetch() : prefetch);
 			}
 		}
 
@@ -1044,6 +1102,12 @@ final class FluxFlatMap<T, R> extends FluxSource<T, R> {
 				long p = produced + n;
 				if (p >= limit) {
 					produced = 0L;
+					AdaptivePrefetch ap = adaptive;
+					if (ap != null) {
+						Queue<R> q = queue;
+						p = ap.replenish(p, q != null ? q.size() : 0);
+						limit = ap.limit();
+					}
 					s.request(p);
 				} else {
 					produced = p;
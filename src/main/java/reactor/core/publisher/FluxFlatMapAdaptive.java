@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.queue.QueueSupplier;
+import reactor.core.state.Backpressurable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.ConcurrencyLimit;
+import reactor.core.util.PlatformDependent;
+
+/**
+ * Maps each source value into a {@link Publisher} and merges them like {@link
+ * FluxFlatMap}, but bounds the number of inner {@link Publisher} in flight by a {@link
+ * ConcurrencyLimit} fed with the latency of each inner sequence, from its subscription to
+ * its termination.
+ * <p>
+ * The merge itself is delegated to {@link FluxFlatMap} with an unbounded concurrency,
+ * subscribed to a gate which only requests from the source while the number of inner
+ * sequences in flight is below the current limit.
+ *
+ * @param <T> the source value type
+ * @param <R> the result value type
+ *
+ * @since 2.5
+ */
+final class FluxFlatMapAdaptive<T, R> extends FluxSource<T, R> {
+
+	final Function<? super T, ? extends Publisher<? extends R>> mapper;
+
+	final ConcurrencyLimit limit;
+
+	final int prefetch;
+
+	public FluxFlatMapAdaptive(Publisher<? extends T> source,
+			Function<? super T, ? extends Publisher<? extends R>> mapper,
+			ConcurrencyLimit limit,
+			int prefetch) {
+		super(source);
+		if (prefetch <= 0) {
+			throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+		}
+		this.mapper = Objects.requireNonNull(mapper, "mapper");
+		this.limit = Objects.requireNonNull(limit, "limit");
+		this.prefetch = prefetch;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super R> s) {
+		LimitGate<T> gate = new LimitGate<>(source, limit);
+		Function<T, Publisher<? extends R>> m = t -> new LimitedInner<>(mapper.apply(t), gate);
+
+		new FluxFlatMap<>(gate,
+				m,
+				false,
+				Integer.MAX_VALUE,
+				QueueSupplier.unbounded(PlatformDependent.XS_BUFFER_SIZE),
+				prefetch,
+				QueueSupplier.get(prefetch)).subscribe(s);
+	}
+
+	/**
+	 * @return the current concurrency limit
+	 */
+	@Override
+	public long getCapacity() {
+		return limit.getLimit();
+	}
+
+	/**
+	 * Sits between the source and the merge, requesting source values only while the
+	 * inner sequences in flight are below the limit.
+	 */
+	static final class LimitGate<T>
+			implements Publisher<T>, Subscriber<T>, Subscription, Receiver, Producer, Backpressurable {
+
+		final Publisher<? extends T> source;
+		final ConcurrencyLimit       limit;
+
+		Subscriber<? super T> actual;
+
+		Subscription s;
+
+		/**
+		 * Values emitted whose inner sequence has not terminated yet
+		 */
+		volatile int inFlight;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<LimitGate> IN_FLIGHT =
+				AtomicIntegerFieldUpdater.newUpdater(LimitGate.class, "inFlight");
+
+		/**
+		 * Values requested from the source and not yet received
+		 */
+		volatile long outstanding;
+		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<LimitGate> OUTSTANDING =
+				AtomicLongFieldUpdater.newUpdater(LimitGate.class, "outstanding");
+
+		volatile int wip;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<LimitGate> WIP =
+				AtomicIntegerFieldUpdater.newUpdater(LimitGate.class, "wip");
+
+		volatile boolean done;
+
+		volatile boolean cancelled;
+
+		LimitGate(Publisher<? extends T> source, ConcurrencyLimit limit) {
+			this.source = source;
+			this.limit = limit;
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super T> s) {
+			this.actual = s;
+			source.subscribe(this);
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+				replenish();
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			IN_FLIGHT.incrementAndGet(this);
+			OUTSTANDING.decrementAndGet(this);
+			actual.onNext(t);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			done = true;
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			done = true;
+			actual.onComplete();
+		}
+
+		@Override
+		public void request(long n) {
+			// the merge requests unbounded, the source being driven by replenish()
+			BackpressureUtils.validate(n);
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			s.cancel();
+		}
+
+		void innerTerminated(long latency, int inFlightAtStart, boolean dropped) {
+			limit.onSample(latency, inFlightAtStart, dropped);
+			innerCancelled();
+		}
+
+		void innerCancelled() {
+			IN_FLIGHT.decrementAndGet(this);
+			replenish();
+		}
+
+		void replenish() {
+			if (WIP.getAndIncrement(this) != 0) {
+				return;
+			}
+			int missed = 1;
+			for (; ; ) {
+				if (cancelled || done) {
+					return;
+				}
+				long n = limit.getLimit() - (long) inFlight - outstanding;
+				if (n > 0L) {
+					OUTSTANDING.addAndGet(this, n);
+					s.request(n);
+				}
+
+				missed = WIP.addAndGet(this, -missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+
+		@Override
+		public long getCapacity() {
+			return limit.getLimit();
+		}
+
+		@Override
+		public long getPending() {
+			return inFlight;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+
+	static final class LimitedInner<R> extends FluxSource<R, R> {
+
+		final LimitGate<?> gate;
+
+		LimitedInner(Publisher<? extends R> source, LimitGate<?> gate) {
+			super(source);
+			this.gate = gate;
+		}
+
+		@Override
+		public void subscribe(Subscriber<? super R> s) {
+			source.subscribe(new LimitedInnerSubscriber<>(s, gate));
+		}
+	}
+
+	static final class LimitedInnerSubscriber<R>
+			implements Subscriber<R>, Subscription, Receiver, Producer {
+
+		final Subscriber<? super R> actual;
+		final LimitGate<?>          gate;
+		final long                  start;
+		final int                   inFlightAtStart;
+
+		Subscription s;
+
+		volatile int once;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<LimitedInnerSubscriber> ONCE =
+				AtomicIntegerFieldUpdater.newUpdater(LimitedInnerSubscriber.class, "once");
+
+		LimitedInnerSubscriber(Subscriber<? super R> actual, LimitGate<?> gate) {
+			this.actual = actual;
+			this.gate = gate;
+			this.start = System.nanoTime();
+			this.inFlightAtStart = gate.inFlight;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(R t) {
+			actual.onNext(t);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (ONCE.compareAndSet(this, 0, 1)) {
+				gate.innerTerminated(System.nanoTime() - start, inFlightAtStart, true);
+			}
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (ONCE.compareAndSet(this, 0, 1)) {
+				gate.innerTerminated(System.nanoTime() - start, inFlightAtStart, false);
+			}
+			actual.onComplete();
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+			if (ONCE.compareAndSet(this, 0, 1)) {
+				gate.innerCancelled();
+			}
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+}
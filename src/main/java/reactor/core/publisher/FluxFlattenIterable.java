@@ -203,7 +203,7 @@ final class FluxFlattenIterable<T, R> extends FluxSource<T, R> implements Fuseab
 		public void onNext(T t) {
 			if (fusionMode != Fuseable.ASYNC) {
 				if (!queue.offer(t)) {
-					onError(new IllegalStateException("Queue is full?!"));
+					onError(Exceptions.failWithBackpressure("Queue is full?!"));
 					return;
 				}
 			}
@@ -713,7 +713,7 @@ implements Fuseable, Backpressurable  {
 			Subscriber<? super V> a = actual;
 
 			if (!queue.offer(t)) {
-				onError(new IllegalStateException("The queue is full"));
+				onError(Exceptions.failWithBackpressure("The queue is full"));
 				return;
 			}
 			if (enableOperatorFusion) {
@@ -104,7 +104,7 @@ final class FluxInterval extends Flux<Long> {
 				} else {
 					cancel();
 					
-					s.onError(new IllegalStateException("Could not emit value " + count + " due to lack of requests"));
+					s.onError(Exceptions.failWithBackpressure("Could not emit value " + count + " due to lack of requests"));
 				}
 			}
 		}
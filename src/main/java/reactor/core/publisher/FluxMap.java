@@ -17,6 +17,7 @@ package reactor.core.publisher;
 
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
@@ -61,6 +62,55 @@ final class FluxMap<T, R> extends FluxSource<T, R> {
 		return mapper;
 	}
 
+	/**
+	 * Compose the given mapper after this one into a single stage subscribing to the
+	 * same source, instead of stacking another operator and subscriber on top of this one.
+	 *
+	 * @param next the mapper to apply to the values produced by this stage
+	 * @param <V> the result value type
+	 *
+	 * @return a new FluxMap applying both mappers in turn
+	 */
+	<V> FluxMap<T, V> fuse(Function<? super R, ? extends V> next) {
+		return new FluxMap<>(source, compose(mapper, next));
+	}
+
+	/**
+	 * Compose the given predicate after this mapper into a single {@link FluxMapFilter}
+	 * stage subscribing to the same source.
+	 *
+	 * @param next the predicate the mapped values must satisfy
+	 *
+	 * @return a new FluxMapFilter mapping then testing values
+	 */
+	FluxMapFilter<T, R> fuseFilter(Predicate<? super R> next) {
+		return new FluxMapFilter<>(source, FluxMapFilter.mapThenFilter(mapper, next));
+	}
+
+	/**
+	 * Compose two mappers while preserving the null check that a separate map stage would
+	 * apply to the intermediate value.
+	 *
+	 * @param first the first mapper
+	 * @param second the mapper applied to the result of the first one
+	 * @param <T> the source value type
+	 * @param <R> the intermediate value type
+	 * @param <V> the result value type
+	 *
+	 * @return the composed mapper
+	 */
+	static <T, R, V> Function<T, V> compose(Function<? super T, ? extends R> first,
+			Function<? super R, ? extends V> second) {
+		Objects.requireNonNull(second, "mapper");
+		return t -> {
+			R r = first.apply(t);
+			if (r == null) {
+				throw new NullPointerException("The mapper returned a null value.");
+			}
+			return second.apply(r);
+		};
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super R> s) {
 		if (source instanceof Fuseable) {
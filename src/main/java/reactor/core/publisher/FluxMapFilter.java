@@ -0,0 +1,419 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Fuseable;
+import reactor.core.flow.Fuseable.ConditionalSubscriber;
+import reactor.core.flow.Loopback;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.publisher.FluxMapFilterFuseable.MapFilterFuseableConditionalSubscriber;
+import reactor.core.publisher.FluxMapFilterFuseable.MapFilterFuseableSubscriber;
+import reactor.core.state.Completable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Maps the values of the source publisher via a mapper function, dropping the values
+ * for which it returns null.
+ * <p>
+ * This is the single stage alternating {@link Flux#map} and {@link Flux#filter} calls
+ * are composed into at assembly time. A user mapper returning null still signals a
+ * {@link NullPointerException}, only the composed filters drop values.
+ *
+ * @param <T> the source value type
+ * @param <R> the result value type
+ *
+ * @since 2.5
+ */
+final class FluxMapFilter<T, R> extends FluxSource<T, R> {
+
+	final Function<? super T, ? extends R> mapper;
+
+	public FluxMapFilter(Publisher<? extends T> source, Function<? super T, ? extends R> mapper) {
+		super(source);
+		this.mapper = Objects.requireNonNull(mapper, "mapper");
+	}
+
+	public Function<? super T, ? extends R> mapper() {
+		return mapper;
+	}
+
+	/**
+	 * Compose the given mapper after this stage, applying it to the values this stage
+	 * keeps.
+	 *
+	 * @param next the mapper to apply to the values produced by this stage
+	 * @param <V> the result value type
+	 *
+	 * @return a new FluxMapFilter applying both in turn
+	 */
+	<V> FluxMapFilter<T, V> fuseMap(Function<? super R, ? extends V> next) {
+		return new FluxMapFilter<>(source, andThenMap(mapper, next));
+	}
+
+	/**
+	 * Compose the given predicate after this stage, testing the values this stage keeps.
+	 *
+	 * @param next the predicate values produced by this stage must satisfy
+	 *
+	 * @return a new FluxMapFilter applying both in turn
+	 */
+	FluxMapFilter<T, R> fuseFilter(Predicate<? super R> next) {
+		return new FluxMapFilter<>(source, andThenFilter(mapper, next));
+	}
+
+	/**
+	 * Compose a mapper after a filter.
+	 *
+	 * @param first the predicate values are tested against first
+	 * @param second the mapper applied to the values passing the predicate
+	 * @param <T> the source value type
+	 * @param <R> the result value type
+	 *
+	 * @return a mapper returning null for the values to drop
+	 */
+	static <T, R> Function<T, R> filterThenMap(Predicate<? super T> first,
+			Function<? super T, ? extends R> second) {
+		Objects.requireNonNull(second, "mapper");
+		return t -> first.test(t) ? requireMapped(second.apply(t)) : null;
+	}
+
+	/**
+	 * Compose a filter after a mapper.
+	 *
+	 * @param first the mapper applied first
+	 * @param second the predicate the mapped values are tested against
+	 * @param <T> the source value type
+	 * @param <R> the result value type
+	 *
+	 * @return a mapper returning null for the values to drop
+	 */
+	static <T, R> Function<T, R> mapThenFilter(Function<? super T, ? extends R> first,
+			Predicate<? super R> second) {
+		Objects.requireNonNull(second, "predicate");
+		return t -> {
+			R r = requireMapped(first.apply(t));
+			return second.test(r) ? r : null;
+		};
+	}
+
+	/**
+	 * Compose a mapper after a mapper dropping values.
+	 *
+	 * @param first the mapper returning null for the values to drop
+	 * @param second the mapper applied to the values kept by the first one
+	 * @param <T> the source value type
+	 * @param <R> the intermediate value type
+	 * @param <V> the result value type
+	 *
+	 * @return a mapper returning null for the values to drop
+	 */
+	static <T, R, V> Function<T, V> andThenMap(Function<? super T, ? extends R> first,
+			Function<? super R, ? extends V> second) {
+		Objects.requireNonNull(second, "mapper");
+		return t -> {
+			R r = first.apply(t);
+			return r != null ? requireMapped(second.apply(r)) : null;
+		};
+	}
+
+	/**
+	 * Compose a filter after a mapper dropping values.
+	 *
+	 * @param first the mapper returning null for the values to drop
+	 * @param second the predicate the values kept by the first one are tested against
+	 * @param <T> the source value type
+	 * @param <R> the result value type
+	 *
+	 * @return a mapper returning null for the values to drop
+	 */
+	static <T, R> Function<T, R> andThenFilter(Function<? super T, ? extends R> first,
+			Predicate<? super R> second) {
+		Objects.requireNonNull(second, "predicate");
+		return t -> {
+			R r = first.apply(t);
+			return r != null && second.test(r) ? r : null;
+		};
+	}
+
+	static <R> R requireMapped(R r) {
+		if (r == null) {
+			throw new NullPointerException("The mapper returned a null value.");
+		}
+		return r;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super R> s) {
+		if (source instanceof Fuseable) {
+			if (s instanceof ConditionalSubscriber) {
+				source.subscribe(new MapFilterFuseableConditionalSubscriber<>((ConditionalSubscriber<? super R>) s,
+						mapper));
+				return;
+			}
+			source.subscribe(new MapFilterFuseableSubscriber<>(s, mapper));
+			return;
+		}
+		if (s instanceof ConditionalSubscriber) {
+			source.subscribe(new MapFilterConditionalSubscriber<>((ConditionalSubscriber<? super R>) s, mapper));
+			return;
+		}
+		source.subscribe(new MapFilterSubscriber<>(s, mapper));
+	}
+
+	static final class MapFilterSubscriber<T, R>
+	implements Receiver, Producer, Loopback, Completable, Subscription, ConditionalSubscriber<T> {
+		final Subscriber<? super R> actual;
+
+		final Function<? super T, ? extends R> mapper;
+
+		Subscription s;
+
+		boolean done;
+
+		public MapFilterSubscriber(Subscriber<? super R> actual, Function<? super T, ? extends R> mapper) {
+			this.actual = actual;
+			this.mapper = mapper;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (!tryOnNext(t)) {
+				s.request(1);
+			}
+		}
+
+		@Override
+		public boolean tryOnNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return true;
+			}
+
+			R v;
+
+			try {
+				v = mapper.apply(t);
+			} catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				s.cancel();
+
+				onError(Exceptions.unwrap(e));
+				return true;
+			}
+			if (v != null) {
+				actual.onNext(v);
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			actual.onComplete();
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object connectedInput() {
+			return mapper;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+		}
+	}
+
+	static final class MapFilterConditionalSubscriber<T, R>
+	implements Receiver, Producer, Loopback, Completable, Subscription, ConditionalSubscriber<T> {
+		final ConditionalSubscriber<? super R> actual;
+
+		final Function<? super T, ? extends R> mapper;
+
+		Subscription s;
+
+		boolean done;
+
+		public MapFilterConditionalSubscriber(ConditionalSubscriber<? super R> actual,
+				Function<? super T, ? extends R> mapper) {
+			this.actual = actual;
+			this.mapper = mapper;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+
+			R v;
+
+			try {
+				v = mapper.apply(t);
+			} catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				s.cancel();
+
+				onError(Exceptions.unwrap(e));
+				return;
+			}
+			if (v != null) {
+				actual.onNext(v);
+			} else {
+				s.request(1);
+			}
+		}
+
+		@Override
+		public boolean tryOnNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return true;
+			}
+
+			R v;
+
+			try {
+				v = mapper.apply(t);
+			} catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				s.cancel();
+
+				onError(Exceptions.unwrap(e));
+				return true;
+			}
+			return v != null && actual.tryOnNext(v);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			actual.onComplete();
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object connectedInput() {
+			return mapper;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+		}
+	}
+}
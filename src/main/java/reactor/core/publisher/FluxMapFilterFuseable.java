@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Fuseable;
+import reactor.core.flow.Loopback;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.state.Completable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Maps the values of a {@link Fuseable} source publisher via a mapper function,
+ * dropping the values for which it returns null.
+ *
+ * @param <T> the source value type
+ * @param <R> the result value type
+ *
+ * @see FluxMapFilter
+ * @since 2.5
+ */
+final class FluxMapFilterFuseable<T, R> extends FluxSource<T, R>
+		implements Fuseable {
+
+	final Function<? super T, ? extends R> mapper;
+
+	public FluxMapFilterFuseable(Publisher<? extends T> source, Function<? super T, ? extends R> mapper) {
+		super(source);
+		if (!(source instanceof Fuseable)) {
+			throw new IllegalArgumentException("The source must implement the Fuseable interface for this operator to work");
+		}
+		this.mapper = Objects.requireNonNull(mapper, "mapper");
+	}
+
+	public Function<? super T, ? extends R> mapper() {
+		return mapper;
+	}
+
+	/**
+	 * Compose the given mapper after this stage, applying it to the values this stage
+	 * keeps.
+	 *
+	 * @param next the mapper to apply to the values produced by this stage
+	 * @param <V> the result value type
+	 *
+	 * @return a new FluxMapFilterFuseable applying both in turn
+	 */
+	<V> FluxMapFilterFuseable<T, V> fuseMap(Function<? super R, ? extends V> next) {
+		return new FluxMapFilterFuseable<>(source, FluxMapFilter.andThenMap(mapper, next));
+	}
+
+	/**
+	 * Compose the given predicate after this stage, testing the values this stage keeps.
+	 *
+	 * @param next the predicate values produced by this stage must satisfy
+	 *
+	 * @return a new FluxMapFilterFuseable applying both in turn
+	 */
+	FluxMapFilterFuseable<T, R> fuseFilter(Predicate<? super R> next) {
+		return new FluxMapFilterFuseable<>(source, FluxMapFilter.andThenFilter(mapper, next));
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super R> s) {
+		if (s instanceof ConditionalSubscriber) {
+			source.subscribe(new MapFilterFuseableConditionalSubscriber<>((ConditionalSubscriber<? super R>) s,
+					mapper));
+			return;
+		}
+		source.subscribe(new MapFilterFuseableSubscriber<>(s, mapper));
+	}
+
+	static final class MapFilterFuseableSubscriber<T, R>
+	implements Receiver, Producer, Loopback, Completable, SynchronousSubscription<R>, ConditionalSubscriber<T> {
+		final Subscriber<? super R> actual;
+
+		final Function<? super T, ? extends R> mapper;
+
+		QueueSubscription<T> s;
+
+		boolean done;
+
+		int sourceMode;
+
+		public MapFilterFuseableSubscriber(Subscriber<? super R> actual, Function<? super T, ? extends R> mapper) {
+			this.actual = actual;
+			this.mapper = mapper;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = (QueueSubscription<T>) s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (!tryOnNext(t)) {
+				s.request(1);
+			}
+		}
+
+		@Override
+		public boolean tryOnNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return true;
+			}
+
+			int m = sourceMode;
+
+			if (m == 0) {
+				R v;
+
+				try {
+					v = mapper.apply(t);
+				} catch (Throwable e) {
+					Exceptions.throwIfFatal(e);
+					s.cancel();
+
+					onError(Exceptions.unwrap(e));
+					return true;
+				}
+				if (v != null) {
+					actual.onNext(v);
+					return true;
+				}
+				return false;
+			} else
+			if (m == 2) {
+				actual.onNext(null);
+			}
+			return true;
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			actual.onComplete();
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object connectedInput() {
+			return mapper;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+		}
+
+		@Override
+		public R poll() {
+			return pollMapped(s, mapper, sourceMode);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return s.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			s.clear();
+		}
+
+		@Override
+		public int requestFusion(int requestedMode) {
+			int m = requestMapFusion(s, requestedMode);
+			sourceMode = m;
+			return m;
+		}
+
+		@Override
+		public int size() {
+			return s.size();
+		}
+	}
+
+	static final class MapFilterFuseableConditionalSubscriber<T, R>
+	implements Receiver, Producer, Loopback, Completable, SynchronousSubscription<R>, ConditionalSubscriber<T> {
+		final ConditionalSubscriber<? super R> actual;
+
+		final Function<? super T, ? extends R> mapper;
+
+		QueueSubscription<T> s;
+
+		boolean done;
+
+		int sourceMode;
+
+		public MapFilterFuseableConditionalSubscriber(ConditionalSubscriber<? super R> actual,
+				Function<? super T, ? extends R> mapper) {
+			this.actual = actual;
+			this.mapper = mapper;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = (QueueSubscription<T>) s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+
+			int m = sourceMode;
+
+			if (m == 0) {
+				R v;
+
+				try {
+					v = mapper.apply(t);
+				} catch (Throwable e) {
+					Exceptions.throwIfFatal(e);
+					s.cancel();
+
+					onError(Exceptions.unwrap(e));
+					return;
+				}
+				if (v != null) {
+					actual.onNext(v);
+				} else {
+					s.request(1);
+				}
+			} else
+			if (m == 2) {
+				actual.onNext(null);
+			}
+		}
+
+		@Override
+		public boolean tryOnNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return true;
+			}
+
+			int m = sourceMode;
+
+			if (m == 0) {
+				R v;
+
+				try {
+					v = mapper.apply(t);
+				} catch (Throwable e) {
+					Exceptions.throwIfFatal(e);
+					s.cancel();
+
+					onError(Exceptions.unwrap(e));
+					return true;
+				}
+				return v != null && actual.tryOnNext(v);
+			} else
+			if (m == 2) {
+				actual.onNext(null);
+			}
+			return true;
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			actual.onComplete();
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object connectedInput() {
+			return mapper;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+		}
+
+		@Override
+		public R poll() {
+			return pollMapped(s, mapper, sourceMode);
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return s.isEmpty();
+		}
+
+		@Override
+		public void clear() {
+			s.clear();
+		}
+
+		@Override
+		public int requestFusion(int requestedMode) {
+			int m = requestMapFusion(s, requestedMode);
+			sourceMode = m;
+			return m;
+		}
+
+		@Override
+		public int size() {
+			return s.size();
+		}
+	}
+
+	/**
+	 * Poll the next value kept by the mapper, replenishing the dropped ones when the
+	 * source is asynchronously fused.
+	 *
+	 * @param s the fused source
+	 * @param mapper the mapper returning null for the values to drop
+	 * @param sourceMode the negotiated fusion mode
+	 * @param <T> the source value type
+	 * @param <R> the result value type
+	 *
+	 * @return the next kept value or null if the source has none available
+	 */
+	static <T, R> R pollMapped(QueueSubscription<T> s,
+			Function<? super T, ? extends R> mapper,
+			int sourceMode) {
+		long dropped = 0;
+		for (;;) {
+			T t = s.poll();
+			R v = t != null ? mapper.apply(t) : null;
+
+			if (t == null || v != null) {
+				if (dropped != 0 && sourceMode == ASYNC) {
+					s.request(dropped);
+				}
+				return v;
+			}
+			dropped++;
+		}
+	}
+
+	/**
+	 * Negotiate the fusion mode with the source, refusing to run the mapper behind an
+	 * asynchronous thread barrier.
+	 *
+	 * @param s the fused source
+	 * @param requestedMode the mode requested from downstream
+	 *
+	 * @return the negotiated fusion mode
+	 */
+	static int requestMapFusion(QueueSubscription<?> s, int requestedMode) {
+		if ((requestedMode & Fuseable.THREAD_BARRIER) != 0) {
+			if ((requestedMode & Fuseable.SYNC) != 0) {
+				return s.requestFusion(Fuseable.SYNC);
+			}
+			return Fuseable.NONE;
+		}
+		return s.requestFusion(requestedMode);
+	}
+}
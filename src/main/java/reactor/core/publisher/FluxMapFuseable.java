@@ -17,6 +17,7 @@ package reactor.core.publisher;
 
 import java.util.Objects;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
@@ -66,6 +67,31 @@ final class FluxMapFuseable<T, R> extends FluxSource<T, R>
 		return mapper;
 	}
 
+	/**
+	 * Compose the given mapper after this one into a single fuseable stage subscribing to
+	 * the same source.
+	 *
+	 * @param next the mapper to apply to the values produced by this stage
+	 * @param <V> the result value type
+	 *
+	 * @return a new FluxMapFuseable applying both mappers in turn
+	 */
+	<V> FluxMapFuseable<T, V> fuse(Function<? super R, ? extends V> next) {
+		return new FluxMapFuseable<>(source, FluxMap.compose(mapper, next));
+	}
+
+	/**
+	 * Compose the given predicate after this mapper into a single {@link
+	 * FluxMapFilterFuseable} stage subscribing to the same source.
+	 *
+	 * @param next the predicate the mapped values must satisfy
+	 *
+	 * @return a new FluxMapFilterFuseable mapping then testing values
+	 */
+	FluxMapFilterFuseable<T, R> fuseFilter(Predicate<? super R> next) {
+		return new FluxMapFilterFuseable<>(source, FluxMapFilter.mapThenFilter(mapper, next));
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super R> s) {
 		if (s instanceof ConditionalSubscriber) {
@@ -0,0 +1,633 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Fuseable;
+import reactor.core.flow.MultiReceiver;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.queue.QueueSupplier;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Cancellable;
+import reactor.core.state.Completable;
+import reactor.core.state.Introspectable;
+import reactor.core.state.Prefetchable;
+import reactor.core.state.Requestable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Merges sources individually sorted according to a comparator into a single sorted
+ * sequence, e.g. disk segments or shards.
+ * <p>
+ * Each source is prefetched into its own queue. The head value of every source is kept
+ * in a binary heap of source indexes, so each emission costs O(log n) comparisons for n
+ * sources. A value is only emitted once every source not yet completed has a head value,
+ * and equal values are emitted in the order of their sources.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class FluxMergeOrdered<T> extends Flux<T>
+		implements Introspectable, Backpressurable, MultiReceiver {
+
+	final Publisher<? extends T>[] sources;
+
+	final Comparator<? super T> comparator;
+
+	final Supplier<? extends Queue<T>> queueSupplier;
+
+	final int prefetch;
+
+	public FluxMergeOrdered(Publisher<? extends T>[] sources,
+			Comparator<? super T> comparator,
+			Supplier<? extends Queue<T>> queueSupplier,
+			int prefetch) {
+		if (prefetch <= 0) {
+			throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+		}
+		this.sources = Objects.requireNonNull(sources, "sources");
+		this.comparator = Objects.requireNonNull(comparator, "comparator");
+		this.queueSupplier = Objects.requireNonNull(queueSupplier, "queueSupplier");
+		this.prefetch = prefetch;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		Publisher<? extends T>[] srcs = sources;
+		int n = srcs.length;
+
+		MergeOrderedMain<T> main =
+				new MergeOrderedMain<>(s, comparator, n, queueSupplier, prefetch);
+
+		s.onSubscribe(main);
+
+		main.subscribe(srcs);
+	}
+
+	@Override
+	public long getCapacity() {
+		return prefetch;
+	}
+
+	@Override
+	public Iterator<?> upstreams() {
+		return Arrays.asList(sources).iterator();
+	}
+
+	@Override
+	public long upstreamCount() {
+		return sources.length;
+	}
+
+	static final class MergeOrderedMain<T>
+			implements Subscription, MultiReceiver, Cancellable, Backpressurable,
+			           Completable, Requestable, Introspectable {
+
+		final Subscriber<? super T> actual;
+
+		final MergeOrderedInner<T>[] subscribers;
+
+		final Comparator<? super T> comparator;
+
+		/**
+		 * Head value of each source, null if not polled yet or if the source is done
+		 */
+		final Object[] values;
+
+		/**
+		 * Binary heap of the indexes of the sources having a head value, ordered by
+		 * head value then index, only accessed from the drain loop
+		 */
+		final int[] heap;
+		int heapSize;
+
+		/**
+		 * Indexes of the sources whose head value must be polled before the next
+		 * emission, only accessed from the drain loop
+		 */
+		final int[] missing;
+		int missingCount;
+
+		volatile int wip;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<MergeOrderedMain> WIP =
+				AtomicIntegerFieldUpdater.newUpdater(MergeOrderedMain.class, "wip");
+
+		volatile long requested;
+		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<MergeOrderedMain> REQUESTED =
+				AtomicLongFieldUpdater.newUpdater(MergeOrderedMain.class, "requested");
+
+		volatile Throwable error;
+		@SuppressWarnings("rawtypes")
+		static final AtomicReferenceFieldUpdater<MergeOrderedMain, Throwable> ERROR =
+				AtomicReferenceFieldUpdater.newUpdater(MergeOrderedMain.class,
+						Throwable.class,
+						"error");
+
+		volatile boolean done;
+
+		volatile boolean cancelled;
+
+		MergeOrderedMain(Subscriber<? super T> actual,
+				Comparator<? super T> comparator,
+				int n,
+				Supplier<? extends Queue<T>> queueSupplier,
+				int prefetch) {
+			this.actual = actual;
+			this.comparator = comparator;
+			@SuppressWarnings({"unchecked", "rawtypes"}) MergeOrderedInner<T>[] a = new MergeOrderedInner[n];
+			int[] m = new int[n];
+			for (int i = 0; i < n; i++) {
+				a[i] = new MergeOrderedInner<>(this, prefetch, i, queueSupplier);
+				m[i] = n - 1 - i;
+			}
+			this.subscribers = a;
+			this.values = new Object[n];
+			this.heap = new int[n];
+			this.missing = m;
+			this.missingCount = n;
+		}
+
+		void subscribe(Publisher<? extends T>[] sources) {
+			MergeOrderedInner<T>[] a = subscribers;
+			for (int i = 0; i < a.length; i++) {
+				if (cancelled || error != null) {
+					return;
+				}
+				Publisher<? extends T> p = sources[i];
+				if (p == null) {
+					error(new NullPointerException("The " + i + "th source Publisher is null"));
+					return;
+				}
+				p.subscribe(a[i]);
+			}
+		}
+
+		@Override
+		public void request(long n) {
+			if (BackpressureUtils.validate(n)) {
+				BackpressureUtils.getAndAddCap(REQUESTED, this, n);
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+
+				cancelAll();
+
+				if (WIP.getAndIncrement(this) == 0) {
+					clear();
+				}
+			}
+		}
+
+		void error(Throwable e) {
+			if (Exceptions.addThrowable(ERROR, this, e)) {
+				drain();
+			}
+			else {
+				Exceptions.onErrorDropped(e);
+			}
+		}
+
+		void cancelAll() {
+			for (MergeOrderedInner<T> s : subscribers) {
+				s.cancel();
+			}
+		}
+
+		void clear() {
+			Arrays.fill(values, null);
+			for (MergeOrderedInner<T> s : subscribers) {
+				Queue<T> q = s.queue;
+				if (q != null) {
+					q.clear();
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		void drain() {
+			if (WIP.getAndIncrement(this) != 0) {
+				return;
+			}
+
+			final Subscriber<? super T> a = actual;
+			final MergeOrderedInner<T>[] qs = subscribers;
+			final Object[] vs = values;
+			int missed = 1;
+
+			for (; ; ) {
+
+				long r = requested;
+				long e = 0L;
+
+				for (; ; ) {
+					if (cancelled) {
+						clear();
+						return;
+					}
+
+					if (error != null) {
+						cancelAll();
+						clear();
+
+						Throwable ex = Exceptions.terminate(ERROR, this);
+
+						a.onError(ex);
+
+						return;
+					}
+
+					T v;
+
+					try {
+						if (!refill(qs, vs)) {
+							break;
+						}
+
+						if (heapSize == 0) {
+							done = true;
+							a.onComplete();
+							return;
+						}
+
+						if (e == r) {
+							break;
+						}
+
+						int i = pollHeap();
+						v = (T) vs[i];
+						vs[i] = null;
+						missing[missingCount++] = i;
+					}
+					catch (Throwable ex) {
+						Exceptions.throwIfFatal(ex);
+
+						cancelAll();
+						clear();
+
+						Exceptions.addThrowable(ERROR, this, ex);
+						ex = Exceptions.terminate(ERROR, this);
+
+						a.onError(ex);
+
+						return;
+					}
+
+					a.onNext(v);
+
+					e++;
+				}
+
+				if (e != 0L && r != Long.MAX_VALUE) {
+					REQUESTED.addAndGet(this, -e);
+				}
+
+				missed = WIP.addAndGet(this, -missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+
+		/**
+		 * Poll the head value of the sources consumed last, dropping the sources that
+		 * are done.
+		 *
+		 * @return false if a source not done has no value available yet
+		 */
+		boolean refill(MergeOrderedInner<T>[] qs, Object[] vs) {
+			while (missingCount != 0) {
+				int i = missing[missingCount - 1];
+				MergeOrderedInner<T> inner = qs[i];
+
+				boolean d = inner.done;
+				Queue<T> q = inner.queue;
+				T v = q != null ? q.poll() : null;
+
+				if (v != null) {
+					vs[i] = v;
+					inner.request(1);
+					missingCount--;
+					offerHeap(i);
+				}
+				else if (d) {
+					missingCount--;
+				}
+				else {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@SuppressWarnings("unchecked")
+		boolean less(int i, int j) {
+			int c = comparator.compare((T) values[i], (T) values[j]);
+			return c < 0 || (c == 0 && i < j);
+		}
+
+		void offerHeap(int index) {
+			final int[] h = heap;
+			int k = heapSize++;
+			while (k > 0) {
+				int parent = (k - 1) >>> 1;
+				int p = h[parent];
+				if (!less(index, p)) {
+					break;
+				}
+				h[k] = p;
+				k = parent;
+			}
+			h[k] = index;
+		}
+
+		int pollHeap() {
+			final int[] h = heap;
+			int result = h[0];
+			int n = --heapSize;
+			if (n != 0) {
+				int last = h[n];
+				int k = 0;
+				int half = n >>> 1;
+				while (k < half) {
+					int child = (k << 1) + 1;
+					int c = h[child];
+					int right = child + 1;
+					if (right < n && less(h[right], c)) {
+						child = right;
+						c = h[child];
+					}
+					if (!less(c, last)) {
+						break;
+					}
+					h[k] = c;
+					k = child;
+				}
+				h[k] = last;
+			}
+			return result;
+		}
+
+		@Override
+		public long getCapacity() {
+			return upstreamCount();
+		}
+
+		@Override
+		public long getPending() {
+			return heapSize;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isStarted() {
+			return !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public Throwable getError() {
+			return error;
+		}
+
+		@Override
+		public Iterator<?> upstreams() {
+			return Arrays.asList(subscribers).iterator();
+		}
+
+		@Override
+		public long upstreamCount() {
+			return subscribers.length;
+		}
+
+		@Override
+		public long requestedFromDownstream() {
+			return requested;
+		}
+	}
+
+	static final class MergeOrderedInner<T>
+			implements Subscriber<T>, Backpressurable, Completable, Prefetchable,
+			           Receiver, Producer {
+
+		final MergeOrderedMain<T> parent;
+
+		final int prefetch;
+
+		final int limit;
+
+		final int index;
+
+		final Supplier<? extends Queue<T>> queueSupplier;
+
+		volatile Queue<T> queue;
+
+		volatile Subscription s;
+		@SuppressWarnings("rawtypes")
+		static final AtomicReferenceFieldUpdater<MergeOrderedInner, Subscription> S =
+				AtomicReferenceFieldUpdater.newUpdater(MergeOrderedInner.class,
+						Subscription.class,
+						"s");
+
+		long produced;
+
+		volatile boolean done;
+
+		int sourceMode;
+
+		/** Running with regular, arbitrary source. */
+		static final int NORMAL = 0;
+		/** Running with a source that implements SynchronousSource. */
+		static final int SYNC = 1;
+		/** Running with a source that implements AsynchronousSource. */
+		static final int ASYNC = 2;
+
+		volatile int once;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<MergeOrderedInner> ONCE =
+				AtomicIntegerFieldUpdater.newUpdater(MergeOrderedInner.class, "once");
+
+		MergeOrderedInner(MergeOrderedMain<T> parent,
+				int prefetch,
+				int index,
+				Supplier<? extends Queue<T>> queueSupplier) {
+			this.parent = parent;
+			this.prefetch = prefetch;
+			this.index = index;
+			this.queueSupplier = queueSupplier;
+			this.limit = prefetch - (prefetch >> 2);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.setOnce(S, this, s)) {
+				if (s instanceof Fuseable.QueueSubscription) {
+					Fuseable.QueueSubscription<T> f = (Fuseable.QueueSubscription<T>) s;
+
+					int m = f.requestFusion(Fuseable.ANY);
+
+					if (m == Fuseable.SYNC) {
+						sourceMode = SYNC;
+						queue = f;
+						done = true;
+						parent.drain();
+						return;
+					}
+					else if (m == Fuseable.ASYNC) {
+						sourceMode = ASYNC;
+						queue = f;
+					}
+					else {
+						try {
+							queue = queueSupplier.get();
+						}
+						catch (Throwable e) {
+							Exceptions.throwIfFatal(e);
+							s.cancel();
+							onError(e);
+							return;
+						}
+					}
+				}
+				else {
+					try {
+						queue = queueSupplier.get();
+					}
+					catch (Throwable e) {
+						Exceptions.throwIfFatal(e);
+						s.cancel();
+						onError(e);
+						return;
+					}
+				}
+				s.request(prefetch);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (sourceMode != ASYNC) {
+				if (!queue.offer(t)) {
+					BackpressureUtils.terminate(S, this);
+					onError(Exceptions.failWithBackpressure("Queue is full?!"));
+					return;
+				}
+			}
+			parent.drain();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (sourceMode != ASYNC || ONCE.compareAndSet(this, 0, 1)) {
+				parent.error(t);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			done = true;
+			parent.drain();
+		}
+
+		@Override
+		public long getCapacity() {
+			return prefetch;
+		}
+
+		@Override
+		public long getPending() {
+			return queue != null ? queue.size() : -1;
+		}
+
+		@Override
+		public boolean isStarted() {
+			return !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done && (queue == null || queue.isEmpty());
+		}
+
+		@Override
+		public long expectedFromUpstream() {
+			return produced;
+		}
+
+		@Override
+		public long limit() {
+			return limit;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public Object downstream() {
+			return null;
+		}
+
+		void cancel() {
+			BackpressureUtils.terminate(S, this);
+		}
+
+		void request(long n) {
+			if (sourceMode != SYNC) {
+				long p = produced + n;
+				if (p >= limit) {
+					produced = 0L;
+					s.request(p);
+				}
+				else {
+					produced = p;
+				}
+			}
+		}
+	}
+}
@@ -220,7 +220,7 @@ final class FluxPublish<T, R> extends FluxSource<T, R> implements Fuseable {
 			
 			if (sourceMode != Fuseable.ASYNC) {
 				if (!queue.offer(t)) {
-					onError(new IllegalStateException("Queue full?!"));
+					onError(Exceptions.failWithBackpressure("Queue full?!"));
 					return;
 				}
 			}
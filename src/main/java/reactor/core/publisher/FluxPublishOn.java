@@ -33,6 +33,7 @@ import reactor.core.scheduler.Scheduler.Worker;
 import reactor.core.state.Backpressurable;
 import reactor.core.state.Cancellable;
 import reactor.core.state.Completable;
+import reactor.core.state.Deadline;
 import reactor.core.state.Introspectable;
 import reactor.core.state.Prefetchable;
 import reactor.core.state.Requestable;
@@ -60,6 +61,8 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 	final Supplier<? extends Queue<T>> queueSupplier;
 	
 	final int prefetch;
+
+	final int minPrefetch;
 	
 	public FluxPublishOn(
 			Publisher<? extends T> source, 
@@ -67,16 +70,70 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			boolean delayError,
 			int prefetch,
 			Supplier<? extends Queue<T>> queueSupplier) {
+		this(source, scheduler, delayError, prefetch, prefetch, queueSupplier);
+	}
+
+	/**
+	 * Constructs a FluxPublishOn whose request window adapts between {@code minPrefetch}
+	 * and {@code prefetch} when they differ, see {@link AdaptivePrefetch}. The queues
+	 * supplied must then accommodate up to {@code prefetch} values.
+	 *
+	 * @param source the source Publisher instance
+	 * @param scheduler the scheduler to emit on
+	 * @param delayError true to delay errors after the queued values
+	 * @param minPrefetch the minimum and initial request window
+	 * @param prefetch the maximum request window
+	 * @param queueSupplier the supplier of the queue between the producer and the worker
+	 */
+	public FluxPublishOn(
+			Publisher<? extends T> source,
+			Scheduler scheduler,
+			boolean delayError,
+			int minPrefetch,
+			int prefetch,
+			Supplier<? extends Queue<T>> queueSupplier) {
 		super(source);
 		if (prefetch <= 0) {
 			throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
 		}
+		if (minPrefetch <= 0 || minPrefetch > prefetch) {
+			throw new IllegalArgumentException("0 < minPrefetch <= prefetch required but it was " + minPrefetch);
+		}
 		this.scheduler = Objects.requireNonNull(scheduler, "scheduler");
 		this.delayError = delayError;
 		this.prefetch = prefetch;
+		this.minPrefetch = minPrefetch;
 		this.queueSupplier = Objects.requireNonNull(queueSupplier, "queueSupplier");
 	}
 
+	/**
+	 * Drop the queued work of a publishOn subscriber if the deadline of its downstream
+	 * subscription has passed, the caller then marking itself cancelled.
+	 *
+	 * @param deadline the downstream deadline or null
+	 * @param worker the worker to shut down
+	 * @param s the upstream subscription to cancel
+	 * @param queue the queued work to drop
+	 *
+	 * @return true if the deadline has passed
+	 */
+	static boolean checkDeadline(Deadline deadline, Worker worker, Subscription s, Queue<?> queue) {
+		if (deadline != null && deadline.isExpired()) {
+			worker.shutdown();
+			s.cancel();
+			queue.clear();
+			return true;
+		}
+		return false;
+	}
+
+	static int limit(int prefetch) {
+		if (prefetch != Integer.MAX_VALUE) {
+			return prefetch - (prefetch >> 2);
+		}
+		return Integer.MAX_VALUE;
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super T> s) {
 
@@ -106,6 +163,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			source.subscribe(new PublishOnConditionalSubscriber<>(cs,
 					worker,
 					delayError,
+					minPrefetch,
 					prefetch,
 					queueSupplier));
 			return;
@@ -113,6 +171,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 		source.subscribe(new PublishOnSubscriber<>(s,
 				worker,
 				delayError,
+				minPrefetch,
 				prefetch,
 				queueSupplier));
 	}
@@ -132,7 +191,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 	static final class PublishOnSubscriber<T>
 			implements Subscriber<T>, QueueSubscription<T>, Runnable, Producer, Loopback,
 			           Backpressurable, Prefetchable, Receiver, Cancellable,
-			           Introspectable,
+			           Introspectable, Deadline,
 			   Requestable, Completable {
 		
 		final Subscriber<? super T> actual;
@@ -143,9 +202,13 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 		
 		final int prefetch;
 		
-		final int limit;
+		int limit;
+
+		AdaptivePrefetch adaptive;
 		
 		final Supplier<? extends Queue<T>> queueSupplier;
+
+		final Deadline deadline;
 		
 		Subscription s;
 		
@@ -177,6 +240,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				Subscriber<? super T> actual,
 				Worker worker,
 				boolean delayError,
+				int minPrefetch,
 				int prefetch,
 				Supplier<? extends Queue<T>> queueSupplier) {
 			this.actual = actual;
@@ -184,10 +248,13 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			this.delayError = delayError;
 			this.prefetch = prefetch;
 			this.queueSupplier = queueSupplier;
-			if (prefetch != Integer.MAX_VALUE) {
-				this.limit = prefetch - (prefetch >> 2);
-			} else {
-				this.limit = Integer.MAX_VALUE;
+			this.deadline = Deadline.find(actual);
+			if (minPrefetch < prefetch) {
+				this.adaptive = new AdaptivePrefetch(minPrefetch, prefetch);
+				this.limit = adaptive.limit();
+			}
+			else {
+				this.limit = FluxPublishOn.limit(prefetch);
 			}
 		}
 		
@@ -213,6 +280,8 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 					if (m == Fuseable.ASYNC) {
 						sourceMode = Fuseable.ASYNC;
 						queue = f;
+						adaptive = null;
+						limit = FluxPublishOn.limit(prefetch);
 
 						actual.onSubscribe(this);
 
@@ -247,11 +316,29 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			if (prefetch == Integer.MAX_VALUE) {
 				s.request(Long.MAX_VALUE);
 			}
+			else if (adaptive != null) {
+				s.request(adaptive.prefetch());
+			}
 			else {
 				s.request(prefetch);
 			}
 		}
 
+		/**
+		 * Request more from upstream once {@code n} values have been consumed, adapting
+		 * the request window first if enabled.
+		 *
+		 * @param n the number of values consumed since the last replenishment
+		 */
+		void replenish(long n) {
+			AdaptivePrefetch ap = adaptive;
+			if (ap != null) {
+				n = ap.replenish(n, queue.size());
+				limit = ap.limit();
+			}
+			s.request(n);
+		}
+
 		@Override
 		public void onNext(T t) {
 			if (sourceMode == Fuseable.ASYNC) {
@@ -261,7 +348,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			if (!queue.offer(t)) {
 				s.cancel();
 				
-				error = new IllegalStateException("Queue is full?!");
+				error = Exceptions.failWithBackpressure("Queue is full?!");
 				done = true;
 			}
 			trySchedule();
@@ -307,7 +394,12 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			if (WIP.getAndIncrement(this) != 0) {
 				return;
 			}
-			worker.schedule(this);
+			if (worker.ownsCurrentThread()) {
+				run();
+			}
+			else {
+				worker.schedule(this);
+			}
 		}
 
 		void runSync() {
@@ -323,6 +415,10 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				long r = requested;
 
 				while (e != r) {
+					if (checkDeadline(deadline, worker, s, queue)) {
+						cancelled = true;
+						return;
+					}
 					T v;
 
 					try {
@@ -393,6 +489,10 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				long r = requested;
 
 				while (e != r) {
+					if (checkDeadline(deadline, worker, s, queue)) {
+						cancelled = true;
+						return;
+					}
 					boolean d = done;
 					T v;
 
@@ -425,7 +525,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 						if (r != Long.MAX_VALUE) {
 							r = REQUESTED.addAndGet(this, -e);
 						}
-						s.request(e);
+						replenish(e);
 						e = 0L;
 					}
 				}
@@ -617,6 +717,17 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			return actual;
 		}
 
+		@Override
+		public boolean isExpired() {
+			Deadline d = deadline;
+			return d != null && d.isExpired();
+		}
+
+		@Override
+		public Deadline resolve() {
+			return deadline;
+		}
+
 		@Override
 		public Object upstream() {
 			return s;
@@ -639,7 +750,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				long p = produced + 1;
 				if (p == limit) {
 					produced = 0;
-					s.request(p);
+					replenish(p);
 				}
 				else {
 					produced = p;
@@ -665,7 +776,8 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 
 	static final class PublishOnConditionalSubscriber<T>
 			implements Subscriber<T>, QueueSubscription<T>, Runnable,
-			   Producer, Loopback, Backpressurable, Prefetchable, Receiver, Cancellable, Introspectable, Completable, Requestable {
+			   Producer, Loopback, Backpressurable, Prefetchable, Receiver, Cancellable, Introspectable, Completable, Requestable,
+			   Deadline {
 
 		final ConditionalSubscriber<? super T> actual;
 		
@@ -675,9 +787,13 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 		
 		final int prefetch;
 		
-		final int limit;
+		int limit;
+
+		AdaptivePrefetch adaptive;
 
 		final Supplier<? extends Queue<T>> queueSupplier;
+
+		final Deadline deadline;
 		
 		Subscription s;
 		
@@ -712,6 +828,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 		public PublishOnConditionalSubscriber(ConditionalSubscriber<? super T> actual,
 				Worker worker,
 				boolean delayError,
+				int minPrefetch,
 				int prefetch,
 				Supplier<? extends Queue<T>> queueSupplier) {
 			this.actual = actual;
@@ -719,10 +836,13 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			this.delayError = delayError;
 			this.prefetch = prefetch;
 			this.queueSupplier = queueSupplier;
-			if (prefetch != Integer.MAX_VALUE) {
-				this.limit = prefetch - (prefetch >> 2);
-			} else {
-				this.limit = Integer.MAX_VALUE;
+			this.deadline = Deadline.find(actual);
+			if (minPrefetch < prefetch) {
+				this.adaptive = new AdaptivePrefetch(minPrefetch, prefetch);
+				this.limit = adaptive.limit();
+			}
+			else {
+				this.limit = FluxPublishOn.limit(prefetch);
 			}
 		}
 		
@@ -748,6 +868,8 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 					if (m == Fuseable.ASYNC) {
 						sourceMode = Fuseable.ASYNC;
 						queue = f;
+						adaptive = null;
+						limit = FluxPublishOn.limit(prefetch);
 
 						actual.onSubscribe(this);
 
@@ -783,11 +905,29 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			if (prefetch == Integer.MAX_VALUE) {
 				s.request(Long.MAX_VALUE);
 			}
+			else if (adaptive != null) {
+				s.request(adaptive.prefetch());
+			}
 			else {
 				s.request(prefetch);
 			}
 		}
 
+		/**
+		 * Request more from upstream once {@code n} values have been consumed, adapting
+		 * the request window first if enabled.
+		 *
+		 * @param n the number of values consumed since the last replenishment
+		 */
+		void replenish(long n) {
+			AdaptivePrefetch ap = adaptive;
+			if (ap != null) {
+				n = ap.replenish(n, queue.size());
+				limit = ap.limit();
+			}
+			s.request(n);
+		}
+
 		@Override
 		public void onNext(T t) {
 			if (sourceMode == Fuseable.ASYNC) {
@@ -797,7 +937,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			if (!queue.offer(t)) {
 				s.cancel();
 				
-				error = new IllegalStateException("Queue is full?!");
+				error = Exceptions.failWithBackpressure("Queue is full?!");
 				done = true;
 			}
 			trySchedule();
@@ -844,7 +984,12 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				return;
 			}
 			
-			worker.schedule(this);
+			if (worker.ownsCurrentThread()) {
+				run();
+			}
+			else {
+				worker.schedule(this);
+			}
 		}
 		
 		void runSync() {
@@ -860,6 +1005,10 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				long r = requested;
 				
 				while (e != r) {
+					if (checkDeadline(deadline, worker, s, queue)) {
+						cancelled = true;
+						return;
+					}
 					T v;
 					try {
 						v = q.poll();
@@ -930,6 +1079,10 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				long r = requested;
 				
 				while (emitted != r) {
+					if (checkDeadline(deadline, worker, s, queue)) {
+						cancelled = true;
+						return;
+					}
 					boolean d = done;
 					T v;
 					try {
@@ -960,7 +1113,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 					polled++;
 					
 					if (polled == limit) {
-						s.request(polled);
+						replenish(polled);
 						polled = 0L;
 					}
 				}
@@ -1099,6 +1252,17 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 			return actual;
 		}
 
+		@Override
+		public boolean isExpired() {
+			Deadline d = deadline;
+			return d != null && d.isExpired();
+		}
+
+		@Override
+		public Deadline resolve() {
+			return deadline;
+		}
+
 		@Override
 		public Object upstream() {
 			return s;
@@ -1176,7 +1340,7 @@ final class FluxPublishOn<T> extends FluxSource<T, T> implements Fuseable, Loopb
 				long p = consumed + 1;
 				if (p == limit) {
 					consumed = 0;
-					s.request(p);
+					replenish(p);
 				}
 				else {
 					consumed = p;
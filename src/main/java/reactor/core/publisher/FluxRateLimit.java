@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.scheduler.RateLimiter;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Cancellable;
+import reactor.core.state.Completable;
+import reactor.core.state.Requestable;
+import reactor.core.util.BackpressureUtils;
+
+/**
+ * Forwards the downstream requests to the source only as fast as a {@link RateLimiter}
+ * hands out permits, one permit per element, so that the throughput never exceeds its
+ * rate beyond the configured burst. No element is dropped or buffered: outstanding
+ * demand is retried on the limiter timer when the next permit is due.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class FluxRateLimit<T> extends FluxSource<T, T> {
+
+	final RateLimiter    limiter;
+	final double         permitsPerSecond;
+	final int            burst;
+	final TimedScheduler timer;
+
+	/**
+	 * Rate limit each subscription on its own {@link RateLimiter}.
+	 */
+	public FluxRateLimit(Publisher<? extends T> source,
+			double permitsPerSecond,
+			int burst,
+			TimedScheduler timer) {
+		super(source);
+		this.limiter = null;
+		this.permitsPerSecond = permitsPerSecond;
+		this.burst = burst;
+		this.timer = timer;
+		//validate eagerly
+		RateLimiter.create(permitsPerSecond, burst, timer);
+	}
+
+	/**
+	 * Rate limit all subscriptions on a shared {@link RateLimiter}.
+	 */
+	public FluxRateLimit(Publisher<? extends T> source, RateLimiter limiter) {
+		super(source);
+		this.limiter = Objects.requireNonNull(limiter, "limiter");
+		this.permitsPerSecond = 0d;
+		this.burst = 0;
+		this.timer = limiter.getTimer();
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		RateLimiter l = limiter;
+		if (l == null) {
+			l = RateLimiter.create(permitsPerSecond, burst, timer);
+		}
+		source.subscribe(new RateLimitSubscriber<>(s, l));
+	}
+
+	static final class RateLimitSubscriber<T>
+			implements Subscriber<T>, Subscription, Runnable, Receiver, Producer,
+			           Requestable, Completable, Cancellable {
+
+		final Subscriber<? super T> actual;
+		final RateLimiter           limiter;
+		final TimedScheduler        timer;
+
+		Subscription s;
+
+		volatile Cancellation task;
+
+		volatile boolean done;
+
+		volatile boolean cancelled;
+
+		volatile long requested;
+		@SuppressWarnings("rawtypes")
+		static final AtomicLongFieldUpdater<RateLimitSubscriber> REQUESTED =
+				AtomicLongFieldUpdater.newUpdater(RateLimitSubscriber.class, "requested");
+
+		volatile int wip;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<RateLimitSubscriber> WIP =
+				AtomicIntegerFieldUpdater.newUpdater(RateLimitSubscriber.class, "wip");
+
+		volatile int scheduled;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<RateLimitSubscriber> SCHEDULED =
+				AtomicIntegerFieldUpdater.newUpdater(RateLimitSubscriber.class, "scheduled");
+
+		RateLimitSubscriber(Subscriber<? super T> actual, RateLimiter limiter) {
+			this.actual = actual;
+			this.limiter = limiter;
+			this.timer = limiter.getTimer();
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			actual.onNext(t);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			done = true;
+			dispose();
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			done = true;
+			dispose();
+			actual.onComplete();
+		}
+
+		@Override
+		public void request(long n) {
+			if (BackpressureUtils.validate(n)) {
+				BackpressureUtils.getAndAddCap(REQUESTED, this, n);
+				drain();
+			}
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				dispose();
+				s.cancel();
+			}
+		}
+
+		@Override
+		public void run() {
+			scheduled = 0;
+			drain();
+		}
+
+		void dispose() {
+			Cancellation c = task;
+			if (c != null) {
+				c.dispose();
+			}
+		}
+
+		void drain() {
+			if (WIP.getAndIncrement(this) != 0) {
+				return;
+			}
+			int missed = 1;
+
+			for (; ; ) {
+				if (cancelled || done) {
+					return;
+				}
+
+				long r = requested;
+				if (r != 0L) {
+					long k = limiter.tryAcquire(r);
+					if (k != 0L) {
+						if (r != Long.MAX_VALUE) {
+							REQUESTED.addAndGet(this, -k);
+						}
+						s.request(k);
+					}
+					if (requested != 0L && !done && !cancelled && SCHEDULED.compareAndSet(this, 0, 1)) {
+						task = timer.schedule(this, limiter.nanosUntilAvailable(), TimeUnit.NANOSECONDS);
+					}
+				}
+
+				missed = WIP.addAndGet(this, -missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public long requestedFromDownstream() {
+			return requested;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+	}
+}
@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Completable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Emits, every {@code timespan}, a uniform random sample of at most {@code k} of the
+ * values received during that period, skipping periods without values.
+ * <p>
+ * The sample is maintained with Li's reservoir sampling algorithm L: once the reservoir
+ * is full, the number of values to skip before the next replacement is drawn directly,
+ * so a skipped value only costs a counter decrement and a volatile read, without taking
+ * the lock shared with the timer, whatever the rate. The source is
+ * requested in an unbounded fashion and samples produced while the downstream has no
+ * demand are queued. On completion the sample of the current period is emitted if not
+ * empty.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class FluxReservoir<T> extends FluxSource<T, List<T>> {
+
+	final int            k;
+	final long           timespan;
+	final TimedScheduler timer;
+
+	public FluxReservoir(Publisher<? extends T> source, int k, long timespan, TimedScheduler timer) {
+		super(source);
+		if (k <= 0) {
+			throw new IllegalArgumentException("k > 0 required but it was " + k);
+		}
+		if (timespan <= 0L) {
+			throw new IllegalArgumentException("timespan > 0 required but it was " + timespan);
+		}
+		this.k = k;
+		this.timespan = timespan;
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super List<T>> s) {
+		source.subscribe(new ReservoirSubscriber<>(s, k, timespan, timer));
+	}
+
+	@Override
+	public long getCapacity() {
+		return k;
+	}
+
+	static final class ReservoirSubscriber<T> extends ReadyQueueDrain<List<T>>
+			implements Subscriber<T>, Receiver, Producer, Completable, Backpressurable {
+
+		final int            k;
+		final long           timespan;
+		final TimedScheduler timer;
+
+		Subscription s;
+
+		volatile Cancellation tick;
+
+		/**
+		 * Reservoir state of the current period, guarded by this subscriber's monitor as
+		 * the timer swaps it concurrently
+		 */
+		List<T> sample;
+		double  w;
+
+		/**
+		 * Incremented by the timer, under this subscriber's monitor, when a new period
+		 * starts
+		 */
+		volatile int period;
+
+		/**
+		 * Values left to skip before the next replacement and period they were drawn
+		 * for, only accessed from onNext
+		 */
+		long skip;
+		int  skipPeriod;
+
+		ReservoirSubscriber(Subscriber<? super List<T>> actual,
+				int k,
+				long timespan,
+				TimedScheduler timer) {
+			super(actual);
+			this.k = k;
+			this.timespan = timespan;
+			this.timer = timer;
+			this.sample = new ArrayList<>();
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+
+				if (cancelled) {
+					return;
+				}
+				Cancellation c = timer.schedulePeriodically(this::tick,
+						timespan,
+						timespan,
+						TimeUnit.NANOSECONDS);
+				if (c == Scheduler.REJECTED) {
+					s.cancel();
+					onError(new RejectedExecutionException("The timer rejected the periodic sampling"));
+					return;
+				}
+				tick = c;
+				// a concurrent cancel may have missed the tick
+				if (cancelled) {
+					c.dispose();
+					return;
+				}
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			int p = period;
+			if (p == skipPeriod && skip != 0L) {
+				skip--;
+				return;
+			}
+			synchronized (this) {
+				p = period;
+				if (p != skipPeriod) {
+					skipPeriod = p;
+					skip = 0L;
+				}
+				List<T> b = sample;
+				int n = b.size();
+				if (n < k) {
+					b.add(t);
+					if (n == k - 1) {
+						w = Math.exp(Math.log(random()) / k);
+						skip = skip();
+					}
+				}
+				else {
+					b.set(ThreadLocalRandom.current().nextInt(k), t);
+					w *= Math.exp(Math.log(random()) / k);
+					skip = skip();
+				}
+			}
+		}
+
+		/**
+		 * @return a uniform random number in (0, 1]
+		 */
+		static double random() {
+			return 1d - ThreadLocalRandom.current().nextDouble();
+		}
+
+		/**
+		 * Draw the number of values to skip before the next replacement, must be called
+		 * under this subscriber's monitor.
+		 *
+		 * @return the number of values to skip
+		 */
+		long skip() {
+			double l = Math.log1p(-w);
+			if (l == 0d) {
+				return Long.MAX_VALUE >> 1;
+			}
+			return Math.min((long) Math.floor(Math.log(random()) / l), Long.MAX_VALUE >> 1);
+		}
+
+		/**
+		 * Move the sample of the current period to the ready queue if not empty and
+		 * start a new period, must be called under this subscriber's monitor.
+		 */
+		void flush() {
+			List<T> b = sample;
+			if (!b.isEmpty()) {
+				ready.offer(b);
+				sample = new ArrayList<>();
+			}
+			period++;
+		}
+
+		void tick() {
+			synchronized (this) {
+				// done is set under the monitor so no sample is queued after it
+				if (done) {
+					return;
+				}
+				flush();
+			}
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			synchronized (this) {
+				if (done) {
+					Exceptions.onErrorDropped(t);
+					return;
+				}
+				sample.clear();
+				error = t;
+				done = true;
+			}
+			stopTimer();
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				flush();
+				done = true;
+			}
+			stopTimer();
+			drain();
+		}
+
+		void stopTimer() {
+			Cancellation c = tick;
+			if (c != null) {
+				c.dispose();
+			}
+		}
+
+		@Override
+		void onCancel() {
+			s.cancel();
+			stopTimer();
+			synchronized (this) {
+				sample.clear();
+			}
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public long getCapacity() {
+			return k;
+		}
+
+		@Override
+		public synchronized long getPending() {
+			return sample.size();
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+}
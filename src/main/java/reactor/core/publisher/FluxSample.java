@@ -26,6 +26,7 @@ import org.reactivestreams.Subscription;
 import reactor.core.subscriber.Subscribers;
 import reactor.core.util.BackpressureUtils;
 import reactor.core.util.CancelledSubscription;
+import reactor.core.util.Exceptions;
 
 /**
  * Samples the main source and emits its latest value whenever the other Publisher
@@ -215,7 +216,7 @@ final class FluxSample<T, U> extends FluxSource<T, T> {
 
 				m.cancel();
 
-				m.actual.onError(new IllegalStateException("Can't signal value due to lack of requests"));
+				m.actual.onError(Exceptions.failWithBackpressure("Can't signal value due to lack of requests"));
 			}
 		}
 
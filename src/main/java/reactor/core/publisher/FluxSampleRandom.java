@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Fuseable.ConditionalSubscriber;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.state.Completable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Relays each value independently with the given probability, dropping the others.
+ * <p>
+ * Rather than drawing a random number per value, the number of values to drop before
+ * the next relayed one is drawn from the matching geometric distribution, so a dropped
+ * value only costs a counter decrement and a replenishing request(1), like a filter.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class FluxSampleRandom<T> extends FluxSource<T, T> {
+
+	final double probability;
+
+	public FluxSampleRandom(Publisher<? extends T> source, double probability) {
+		super(source);
+		if (!(probability >= 0d && probability <= 1d)) {
+			throw new IllegalArgumentException("probability in [0, 1] required but it was " + probability);
+		}
+		this.probability = probability;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		source.subscribe(new SampleRandomSubscriber<>(s, probability));
+	}
+
+	static final class SampleRandomSubscriber<T>
+			implements Receiver, Producer, Completable, Subscription, ConditionalSubscriber<T> {
+
+		final Subscriber<? super T> actual;
+
+		/**
+		 * log(1 - probability), 0 when every value is dropped
+		 */
+		final double logOneMinusP;
+
+		Subscription s;
+
+		/**
+		 * Number of values left to drop before relaying one
+		 */
+		long skip;
+
+		boolean done;
+
+		SampleRandomSubscriber(Subscriber<? super T> actual, double probability) {
+			this.actual = actual;
+			this.logOneMinusP = Math.log1p(-probability);
+			this.skip = nextSkip();
+		}
+
+		/**
+		 * Draw the number of values to drop before the next relayed one: the number of
+		 * failures before the first success of Bernoulli trials with the sampling
+		 * probability.
+		 *
+		 * @return the number of values to drop
+		 */
+		long nextSkip() {
+			double l = logOneMinusP;
+			if (l == 0d) {
+				return Long.MAX_VALUE;
+			}
+			double u = 1d - ThreadLocalRandom.current().nextDouble();
+			return (long) (Math.log(u) / l);
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (!tryOnNext(t) && !done) {
+				s.request(1);
+			}
+		}
+
+		@Override
+		public boolean tryOnNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return false;
+			}
+			long k = skip;
+			if (k != 0L) {
+				skip = k - 1;
+				return false;
+			}
+			skip = nextSkip();
+			actual.onNext(t);
+			return true;
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			actual.onComplete();
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Completable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+import reactor.core.util.PlatformDependent;
+
+/**
+ * Emits the aggregate of each window of {@code size} elements, a new window starting
+ * every {@code skip} elements.
+ * <p>
+ * The window aggregate is maintained incrementally by a {@link SlidingAggregator}, so
+ * each element costs O(1) amortized combiner calls whatever the window size. Only full
+ * windows are emitted: elements left in a partial window on completion are dropped.
+ * Elements that do not close a window are replenished one by one, like a filter does.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class FluxSlidingReduce<T> extends FluxSource<T, T> {
+
+	final int               size;
+	final int               skip;
+	final T                 identity;
+	final BinaryOperator<T> combiner;
+	final BinaryOperator<T> inverse;
+
+	public FluxSlidingReduce(Publisher<? extends T> source,
+			int size,
+			int skip,
+			T identity,
+			BinaryOperator<T> combiner,
+			BinaryOperator<T> inverse) {
+		super(source);
+		if (size <= 0) {
+			throw new IllegalArgumentException("size > 0 required but it was " + size);
+		}
+		if (skip <= 0) {
+			throw new IllegalArgumentException("skip > 0 required but it was " + skip);
+		}
+		this.size = size;
+		this.skip = skip;
+		this.identity = Objects.requireNonNull(identity, "identity");
+		this.combiner = Objects.requireNonNull(combiner, "combiner");
+		this.inverse = inverse;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		SlidingAggregator<T> aggregator = new SlidingAggregator<>(identity,
+				combiner,
+				inverse,
+				Math.min(size, PlatformDependent.SMALL_BUFFER_SIZE),
+				false);
+		source.subscribe(new SlidingReduceSubscriber<>(s, size, skip, aggregator));
+	}
+
+	@Override
+	public long getCapacity() {
+		return size;
+	}
+
+	static final class SlidingReduceSubscriber<T>
+			implements Subscriber<T>, Subscription, Receiver, Producer, Completable,
+			           Backpressurable {
+
+		final Subscriber<? super T> actual;
+		final int                   size;
+		final int                   skip;
+		final SlidingAggregator<T>  aggregator;
+
+		Subscription s;
+
+		long index;
+
+		boolean done;
+
+		SlidingReduceSubscriber(Subscriber<? super T> actual,
+				int size,
+				int skip,
+				SlidingAggregator<T> aggregator) {
+			this.actual = actual;
+			this.size = size;
+			this.skip = skip;
+			this.aggregator = aggregator;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			final SlidingAggregator<T> a = aggregator;
+			long i = index++;
+			T v = null;
+			try {
+				if (skip <= size || i % skip < size) {
+					if (a.size() == size) {
+						a.poll();
+					}
+					a.offer(t);
+				}
+				long k = i - (size - 1);
+				if (k >= 0L && k % skip == 0L) {
+					v = a.aggregate();
+					if (skip >= size) {
+						a.clear();
+					}
+				}
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				s.cancel();
+				onError(Exceptions.unwrap(e));
+				return;
+			}
+			if (v != null) {
+				actual.onNext(v);
+			}
+			else {
+				s.request(1);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			aggregator.clear();
+			actual.onError(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			aggregator.clear();
+			actual.onComplete();
+		}
+
+		@Override
+		public void request(long n) {
+			s.request(n);
+		}
+
+		@Override
+		public void cancel() {
+			s.cancel();
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public long getCapacity() {
+			return size;
+		}
+
+		@Override
+		public long getPending() {
+			return aggregator.size();
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Completable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+import reactor.core.util.PlatformDependent;
+
+/**
+ * Emits, every {@code timeshift}, the aggregate of the elements received during the
+ * last {@code timespan}, or the identity if there were none.
+ * <p>
+ * The source is requested in an unbounded fashion. Elements are timestamped with the
+ * timer clock on arrival and evicted from a {@link SlidingAggregator} once older than
+ * {@code timespan}, so each element costs O(1) amortized combiner calls whatever the
+ * number of elements in a window. Aggregates computed while the downstream has no demand
+ * are queued.
+ * <p>
+ * Each element is added under the subscriber monitor, which is otherwise only taken by
+ * the timer once per {@code timeshift}. The lock is thus almost never contended and
+ * costs about one compare-and-swap per element, in exchange for the timer reading a
+ * consistent window.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class FluxSlidingReduceTimed<T> extends FluxSource<T, T> {
+
+	final long              timespan;
+	final long              timeshift;
+	final T                 identity;
+	final BinaryOperator<T> combiner;
+	final TimedScheduler    timer;
+
+	public FluxSlidingReduceTimed(Publisher<? extends T> source,
+			long timespan,
+			long timeshift,
+			T identity,
+			BinaryOperator<T> combiner,
+			TimedScheduler timer) {
+		super(source);
+		if (timespan <= 0L) {
+			throw new IllegalArgumentException("timespan > 0 required but it was " + timespan);
+		}
+		if (timeshift <= 0L) {
+			throw new IllegalArgumentException("timeshift > 0 required but it was " + timeshift);
+		}
+		this.timespan = timespan;
+		this.timeshift = timeshift;
+		this.identity = Objects.requireNonNull(identity, "identity");
+		this.combiner = Objects.requireNonNull(combiner, "combiner");
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		SlidingAggregator<T> aggregator = new SlidingAggregator<>(identity,
+				combiner,
+				null,
+				PlatformDependent.XS_BUFFER_SIZE,
+				true);
+		source.subscribe(new SlidingReduceTimedSubscriber<>(s, timespan, timeshift, aggregator, timer));
+	}
+
+	static final class SlidingReduceTimedSubscriber<T> extends ReadyQueueDrain<T>
+			implements Subscriber<T>, Receiver, Producer, Completable, Backpressurable {
+
+		final long           timespan;
+		final long           timeshift;
+		final TimedScheduler timer;
+
+		/**
+		 * Window state, guarded by this subscriber's monitor as the timer reads it
+		 * concurrently
+		 */
+		final SlidingAggregator<T> aggregator;
+
+		Subscription s;
+
+		volatile Cancellation tick;
+
+		SlidingReduceTimedSubscriber(Subscriber<? super T> actual,
+				long timespan,
+				long timeshift,
+				SlidingAggregator<T> aggregator,
+				TimedScheduler timer) {
+			super(actual);
+			this.timespan = timespan;
+			this.timeshift = timeshift;
+			this.aggregator = aggregator;
+			this.timer = timer;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+				actual.onSubscribe(this);
+
+				if (cancelled) {
+					return;
+				}
+				Cancellation c = timer.schedulePeriodically(this::tick,
+						timeshift,
+						timeshift,
+						TimeUnit.NANOSECONDS);
+				if (c == Scheduler.REJECTED) {
+					s.cancel();
+					onError(new RejectedExecutionException("The timer rejected the periodic aggregation"));
+					return;
+				}
+				tick = c;
+				// a concurrent cancel may have missed the tick
+				if (cancelled) {
+					c.dispose();
+					return;
+				}
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			try {
+				synchronized (this) {
+					long now = timer.now(TimeUnit.NANOSECONDS);
+					evict(now);
+					aggregator.offer(t, now);
+				}
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				s.cancel();
+				onError(Exceptions.unwrap(e));
+			}
+		}
+
+		/**
+		 * Evict the elements older than the timespan, must be called under this
+		 * subscriber's monitor.
+		 *
+		 * @param now the current timer time in nanoseconds
+		 */
+		void evict(long now) {
+			final SlidingAggregator<T> a = aggregator;
+			long limit = now - timespan;
+			while (a.size() != 0 && a.oldestTime() <= limit) {
+				a.poll();
+			}
+		}
+
+		void tick() {
+			try {
+				synchronized (this) {
+					// done is set under the monitor so no aggregate is queued after it
+					if (done) {
+						return;
+					}
+					evict(timer.now(TimeUnit.NANOSECONDS));
+					ready.offer(aggregator.aggregate());
+				}
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				s.cancel();
+				onError(Exceptions.unwrap(e));
+				return;
+			}
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			synchronized (this) {
+				if (done) {
+					Exceptions.onErrorDropped(t);
+					return;
+				}
+				aggregator.clear();
+				error = t;
+				done = true;
+			}
+			stopTimer();
+			drain();
+		}
+
+		@Override
+		public void onComplete() {
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				aggregator.clear();
+				done = true;
+			}
+			stopTimer();
+			drain();
+		}
+
+		void stopTimer() {
+			Cancellation c = tick;
+			if (c != null) {
+				c.dispose();
+			}
+		}
+
+		@Override
+		void onCancel() {
+			s.cancel();
+			stopTimer();
+			synchronized (this) {
+				aggregator.clear();
+			}
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public synchronized long getPending() {
+			return aggregator.size();
+		}
+
+		@Override
+		public Object downstream() {
+			return actual;
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+	}
+}
@@ -268,7 +268,7 @@ final class FluxThrottleTimeout<T, U> extends FluxSource<T, T> {
 							
 							q.clear();
 							
-							Throwable e = new IllegalStateException("Could not emit value due to lack of requests");
+							Throwable e = Exceptions.failWithBackpressure("Could not emit value due to lack of requests");
 							Exceptions.addThrowable(ERROR, this, e);
 							e = Exceptions.terminate(ERROR, this);
 							
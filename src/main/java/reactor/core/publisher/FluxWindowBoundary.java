@@ -335,7 +335,7 @@ final class FluxWindowBoundary<T, U> extends FluxSource<T, Flux<T>> {
 								cancelMain();
 								boundary.cancel();
 								
-								a.onError(new IllegalStateException("Could not create new window due to lack of requests"));
+								a.onError(Exceptions.failWithBackpressure("Could not create new window due to lack of requests"));
 								return;
 							}
 						}
@@ -360,7 +360,7 @@ final class FluxWindowBoundary<T, U> extends FluxSource<T, Flux<T>> {
 			} else {
 				cancel();
 
-				actual.onError(new IllegalStateException("Could not emit buffer due to lack of requests"));
+				actual.onError(Exceptions.failWithBackpressure("Could not emit buffer due to lack of requests"));
 
 				return false;
 			}
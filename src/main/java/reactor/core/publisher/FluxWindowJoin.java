@@ -0,0 +1,546 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.flow.MultiReceiver;
+import reactor.core.flow.Producer;
+import reactor.core.flow.Receiver;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Completable;
+import reactor.core.state.Introspectable;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+
+/**
+ * Joins the values of two sources having the same key and arriving within a time window
+ * of each other, e.g. orders and their fills.
+ * <p>
+ * Each side keeps a hash index of its values by key, timestamped with the timer clock on
+ * arrival. A value arriving on one side is combined with every value of the same key in
+ * the other side index, then added to its own index. Values older than the window are
+ * evicted on every arrival and periodically, in arrival order, so that indexes stay
+ * bounded by the window whatever the number of keys.
+ * <p>
+ * Both sources are requested in an unbounded fashion, since delaying values would shift
+ * their arrival time, and combined values produced while the downstream has no demand
+ * are queued. The sequence completes when both sources are done, or earlier when one
+ * source is done and its index is empty as no more match is possible.
+ *
+ * @param <T> the left source type
+ * @param <U> the right source type
+ * @param <K> the key type
+ * @param <R> the output type
+ *
+ * @since 2.5
+ */
+final class FluxWindowJoin<T, U, K, R> extends FluxSource<T, R> {
+
+	final Publisher<? extends U>                        other;
+	final Function<? super T, ? extends K>              leftKey;
+	final Function<? super U, ? extends K>              rightKey;
+	final long                                          window;
+	final BiFunction<? super T, ? super U, ? extends R> combiner;
+	final TimedScheduler                                timer;
+
+	public FluxWindowJoin(Publisher<? extends T> source,
+			Publisher<? extends U> other,
+			Function<? super T, ? extends K> leftKey,
+			Function<? super U, ? extends K> rightKey,
+			long window,
+			BiFunction<? super T, ? super U, ? extends R> combiner,
+			TimedScheduler timer) {
+		super(source);
+		if (window <= 0L) {
+			throw new IllegalArgumentException("window > 0 required but it was " + window);
+		}
+		this.other = Objects.requireNonNull(other, "other");
+		this.leftKey = Objects.requireNonNull(leftKey, "leftKey");
+		this.rightKey = Objects.requireNonNull(rightKey, "rightKey");
+		this.window = window;
+		this.combiner = Objects.requireNonNull(combiner, "combiner");
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	@Override
+	public long getCapacity() {
+		return -1L;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super R> s) {
+		WindowJoinMain<T, U, K, R> main = new WindowJoinMain<>(s, leftKey, rightKey, window, combiner, timer);
+
+		s.onSubscribe(main);
+
+		if (main.start()) {
+			source.subscribe(main.left);
+			other.subscribe(main.right);
+		}
+	}
+
+	static final class WindowJoinMain<T, U, K, R> extends ReadyQueueDrain<R>
+			implements MultiReceiver, Completable, Backpressurable, Introspectable {
+
+		final Function<? super T, ? extends K>              leftKey;
+		final Function<? super U, ? extends K>              rightKey;
+		final long                                          window;
+		final BiFunction<? super T, ? super U, ? extends R> combiner;
+		final TimedScheduler                                timer;
+
+		final WindowJoinInner<T> left;
+		final WindowJoinInner<U> right;
+
+		/**
+		 * Side indexes and done flags, guarded by this subscriber's monitor as both
+		 * sources and the timer update them concurrently
+		 */
+		final JoinIndex<K, T> leftIndex;
+		final JoinIndex<K, U> rightIndex;
+		boolean leftDone;
+		boolean rightDone;
+
+		volatile Cancellation sweep;
+
+		WindowJoinMain(Subscriber<? super R> actual,
+				Function<? super T, ? extends K> leftKey,
+				Function<? super U, ? extends K> rightKey,
+				long window,
+				BiFunction<? super T, ? super U, ? extends R> combiner,
+				TimedScheduler timer) {
+			super(actual);
+			this.leftKey = leftKey;
+			this.rightKey = rightKey;
+			this.window = window;
+			this.combiner = combiner;
+			this.timer = timer;
+			this.left = new WindowJoinInner<>(this, true);
+			this.right = new WindowJoinInner<>(this, false);
+			this.leftIndex = new JoinIndex<>();
+			this.rightIndex = new JoinIndex<>();
+		}
+
+		/**
+		 * Start the periodic eviction.
+		 *
+		 * @return false if the timer rejected it or this subscriber is already
+		 * terminated
+		 */
+		boolean start() {
+			if (cancelled) {
+				return false;
+			}
+			Cancellation c = timer.schedulePeriodically(this::sweep, window, window, TimeUnit.NANOSECONDS);
+			if (c == Scheduler.REJECTED) {
+				error(new RejectedExecutionException("The timer rejected the periodic eviction"));
+				return false;
+			}
+			sweep = c;
+			// a concurrent cancel may have missed the sweep
+			if (cancelled) {
+				c.dispose();
+				return false;
+			}
+			return true;
+		}
+
+		void nextLeft(T t) {
+			K k;
+			boolean d;
+			try {
+				k = Objects.requireNonNull(leftKey.apply(t), "The leftKey returned a null value");
+				synchronized (this) {
+					if (done) {
+						return;
+					}
+					long now = timer.now(TimeUnit.NANOSECONDS);
+					evict(now);
+					ArrayDeque<JoinEntry<K, U>> matches = rightIndex.get(k);
+					if (matches != null) {
+						for (JoinEntry<K, U> e : matches) {
+							ready.offer(Objects.requireNonNull(combiner.apply(t, e.value),
+									"The combiner returned a null value"));
+						}
+					}
+					if (!rightDone) {
+						leftIndex.add(k, t, now);
+					}
+					d = checkTerminated();
+				}
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				error(Exceptions.unwrap(e));
+				return;
+			}
+			if (d) {
+				stop();
+			}
+			drain();
+		}
+
+		void nextRight(U u) {
+			K k;
+			boolean d;
+			try {
+				k = Objects.requireNonNull(rightKey.apply(u), "The rightKey returned a null value");
+				synchronized (this) {
+					if (done) {
+						return;
+					}
+					long now = timer.now(TimeUnit.NANOSECONDS);
+					evict(now);
+					ArrayDeque<JoinEntry<K, T>> matches = leftIndex.get(k);
+					if (matches != null) {
+						for (JoinEntry<K, T> e : matches) {
+							ready.offer(Objects.requireNonNull(combiner.apply(e.value, u),
+									"The combiner returned a null value"));
+						}
+					}
+					if (!leftDone) {
+						rightIndex.add(k, u, now);
+					}
+					d = checkTerminated();
+				}
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				error(Exceptions.unwrap(e));
+				return;
+			}
+			if (d) {
+				stop();
+			}
+			drain();
+		}
+
+		/**
+		 * Evict the values older than the window from both indexes and check whether a
+		 * match is still possible, must be called under this subscriber's monitor.
+		 *
+		 * @param now the current timer time in nanoseconds
+		 */
+		void evict(long now) {
+			long limit = now - window;
+			leftIndex.evict(limit);
+			rightIndex.evict(limit);
+		}
+
+		/**
+		 * Terminate if no more match is possible, must be called under this subscriber's
+		 * monitor.
+		 *
+		 * @return true if terminated by this call
+		 */
+		boolean checkTerminated() {
+			if ((leftDone && (rightDone || leftIndex.size() == 0)) ||
+					(rightDone && rightIndex.size() == 0)) {
+				leftIndex.clear();
+				rightIndex.clear();
+				done = true;
+				return true;
+			}
+			return false;
+		}
+
+		void sweep() {
+			boolean d;
+			synchronized (this) {
+				if (done || cancelled) {
+					return;
+				}
+				evict(timer.now(TimeUnit.NANOSECONDS));
+				d = checkTerminated();
+			}
+			if (d) {
+				stop();
+				drain();
+			}
+		}
+
+		void complete(boolean fromLeft) {
+			boolean d;
+			synchronized (this) {
+				if (done) {
+					return;
+				}
+				// values of the other side can only match future values of this side
+				if (fromLeft) {
+					leftDone = true;
+					rightIndex.clear();
+				}
+				else {
+					rightDone = true;
+					leftIndex.clear();
+				}
+				d = checkTerminated();
+			}
+			if (d) {
+				stop();
+				drain();
+			}
+		}
+
+		void error(Throwable e) {
+			synchronized (this) {
+				if (done) {
+					Exceptions.onErrorDropped(e);
+					return;
+				}
+				leftIndex.clear();
+				rightIndex.clear();
+				error = e;
+				done = true;
+			}
+			stop();
+			drain();
+		}
+
+		/**
+		 * Cancel both sources and the periodic eviction.
+		 */
+		void stop() {
+			left.cancel();
+			right.cancel();
+			Cancellation c = sweep;
+			if (c != null) {
+				c.dispose();
+			}
+		}
+
+		@Override
+		void onCancel() {
+			stop();
+			synchronized (this) {
+				leftIndex.clear();
+				rightIndex.clear();
+			}
+		}
+
+		@Override
+		public boolean isStarted() {
+			return !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		@Override
+		public Throwable getError() {
+			return error;
+		}
+
+		/**
+		 * @return the number of values held by both side indexes
+		 */
+		@Override
+		public synchronized long getPending() {
+			return leftIndex.size() + rightIndex.size();
+		}
+
+		@Override
+		public Iterator<?> upstreams() {
+			return Arrays.asList(left, right).iterator();
+		}
+
+		@Override
+		public long upstreamCount() {
+			return 2;
+		}
+	}
+
+	static final class WindowJoinInner<V>
+			implements Subscriber<V>, Receiver, Producer, Completable, Backpressurable {
+
+		final WindowJoinMain<?, ?, ?, ?> parent;
+		final boolean                    isLeft;
+
+		volatile Subscription s;
+		@SuppressWarnings("rawtypes")
+		static final AtomicReferenceFieldUpdater<WindowJoinInner, Subscription> S =
+				AtomicReferenceFieldUpdater.newUpdater(WindowJoinInner.class,
+						Subscription.class,
+						"s");
+
+		boolean done;
+
+		WindowJoinInner(WindowJoinMain<?, ?, ?, ?> parent, boolean isLeft) {
+			this.parent = parent;
+			this.isLeft = isLeft;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.setOnce(S, this, s)) {
+				s.request(Long.MAX_VALUE);
+			}
+			else {
+				s.cancel();
+			}
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void onNext(V t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			if (isLeft) {
+				((WindowJoinMain<V, ?, ?, ?>) parent).nextLeft(t);
+			}
+			else {
+				((WindowJoinMain<?, V, ?, ?>) parent).nextRight(t);
+			}
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			parent.error(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			parent.complete(isLeft);
+		}
+
+		void cancel() {
+			BackpressureUtils.terminate(S, this);
+		}
+
+		@Override
+		public boolean isStarted() {
+			return s != null && !done;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return done;
+		}
+
+		/**
+		 * @return the number of values held by the index of this side
+		 */
+		@Override
+		public long getPending() {
+			synchronized (parent) {
+				return isLeft ? parent.leftIndex.size() : parent.rightIndex.size();
+			}
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		@Override
+		public Object downstream() {
+			return parent;
+		}
+	}
+
+	/**
+	 * Values of one side by key, with their arrival time, evicted in arrival order.
+	 * Not thread-safe.
+	 *
+	 * @param <K> the key type
+	 * @param <V> the value type
+	 */
+	static final class JoinIndex<K, V> {
+
+		final Map<K, ArrayDeque<JoinEntry<K, V>>> byKey = new HashMap<>();
+		final ArrayDeque<JoinEntry<K, V>>         byTime = new ArrayDeque<>();
+
+		ArrayDeque<JoinEntry<K, V>> get(K key) {
+			return byKey.get(key);
+		}
+
+		void add(K key, V value, long time) {
+			JoinEntry<K, V> e = new JoinEntry<>(key, value, time);
+			byKey.computeIfAbsent(key, k -> new ArrayDeque<>()).offer(e);
+			byTime.offer(e);
+		}
+
+		/**
+		 * Evict the values that arrived at or before the given time. Per key values are
+		 * in arrival order too, so each evicted value is the head of its key queue.
+		 *
+		 * @param limit the time at or before which values are evicted
+		 */
+		void evict(long limit) {
+			JoinEntry<K, V> e;
+			while ((e = byTime.peek()) != null && e.time <= limit) {
+				byTime.poll();
+				ArrayDeque<JoinEntry<K, V>> q = byKey.get(e.key);
+				q.poll();
+				if (q.isEmpty()) {
+					byKey.remove(e.key);
+				}
+			}
+		}
+
+		int size() {
+			return byTime.size();
+		}
+
+		void clear() {
+			byKey.clear();
+			byTime.clear();
+		}
+	}
+
+	static final class JoinEntry<K, V> {
+
+		final K    key;
+		final V    value;
+		final long time;
+
+		JoinEntry(K key, V value, long time) {
+			this.key = key;
+			this.value = value;
+			this.time = time;
+		}
+	}
+}
@@ -51,6 +51,7 @@ import reactor.core.tuple.Tuple3;
 import reactor.core.tuple.Tuple4;
 import reactor.core.tuple.Tuple5;
 import reactor.core.tuple.Tuple6;
+import reactor.core.util.Histogram;
 import reactor.core.util.Logger;
 import reactor.core.util.PlatformDependent;
 import reactor.core.util.ReactiveStateUtils;
@@ -1133,6 +1134,26 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 		return onAssembly(new MonoDefaultIfEmpty<>(this, defaultV));
 	}
 
+	/**
+	 * Cancel this {@link Mono} and signal a {@link java.util.concurrent.TimeoutException}
+	 * if it has not terminated within the given period from subscription, as measured by
+	 * the given {@link TimedScheduler}.
+	 * <p>
+	 * The deadline is visible to upstream asynchronous operators such as {@link
+	 * #publishOn(Scheduler)}, which drop work still queued on behalf of this subscription
+	 * once it has passed.
+	 *
+	 * @param timeout the maximum duration of the subscription
+	 * @param timer the {@link TimedScheduler} measuring the deadline
+	 *
+	 * @return a {@link Mono} expiring after the given period
+	 *
+	 * @see Flux#deadline(Duration, TimedScheduler)
+	 */
+	public final Mono<T> deadline(Duration timeout, TimedScheduler timer) {
+		return onAssembly(new MonoDeadline<>(this, timeout.toNanos(), timer));
+	}
+
 
 	/**
 	 * Delay the {@link Mono#subscribe(Subscriber) subscription} to this {@link Mono} source until the given
@@ -1448,6 +1469,10 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 	 * @return a filtered {@link Mono}
 	 */
 	public final Mono<T> filter(final Predicate<? super T> tester) {
+		Callable<? extends T> scalar = scalarCallable(this);
+		if (scalar != null) {
+			return onAssembly(new MonoCallableOrEmpty<>(MonoFilter.scalarFilter(scalar, tester), this));
+		}
 		if (this instanceof Fuseable) {
 			return onAssembly(new MonoFilterFuseable<>(this, tester));
 		}
@@ -1537,7 +1562,11 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 	            }
 	            return Flux.just(v);
 	        }
-	        return Flux.onAssembly(new FluxCallable<>((Callable<T>)this));
+	        Callable<T> c = (Callable<T>) scalarCallable(this);
+	        if (c == null) {
+	            c = (Callable<T>) this;
+	        }
+	        return Flux.onAssembly(new FluxCallable<>(c));
 	    }
 		return FluxSource.wrap(this);
 	}
@@ -1571,6 +1600,52 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 		return onAssembly(new MonoHasElements<>(this));
 	}
 
+	/**
+	 * Subscribe to this {@link Mono} again if no value has been produced within the given
+	 * delay, up to {@code maxAttempts} concurrent subscriptions, each started one delay
+	 * after the previous one. The first value produced by any attempt is emitted and the
+	 * other attempts are cancelled. An error or empty completion is only propagated once
+	 * all started attempts have terminated.
+	 * <p>
+	 * Unlike {@link #or(Mono)}, additional subscriptions only happen for slow attempts,
+	 * trimming the tail latency of an idempotent remote call without multiplying its load.
+	 *
+	 * @param delay the time to wait for a value before starting another attempt
+	 * @param maxAttempts the maximum number of subscriptions to this {@link Mono}
+	 * @param timer the {@link TimedScheduler} scheduling the attempts
+	 *
+	 * @return a hedged {@link Mono}
+	 */
+	public final Mono<T> hedge(Duration delay, int maxAttempts, TimedScheduler timer) {
+		return onAssembly(new MonoHedge<>(this, delay.toNanos(), null, 0d, maxAttempts, timer));
+	}
+
+	/**
+	 * Subscribe to this {@link Mono} again if no value has been produced within the given
+	 * percentile of previous attempt latencies, up to {@code maxAttempts} concurrent
+	 * subscriptions. The latency of each winning attempt is recorded into the given
+	 * {@link Histogram} in nanoseconds, so sharing it across subscriptions lets the delay
+	 * adapt to the observed latency distribution.
+	 *
+	 * @param latencies the {@link Histogram} of winning attempt latencies in nanoseconds
+	 * @param percentile the percentile of {@code latencies} to wait for, e.g. 95
+	 * @param minDelay the minimum time to wait, also used until latencies are recorded
+	 * @param maxAttempts the maximum number of subscriptions to this {@link Mono}
+	 * @param timer the {@link TimedScheduler} scheduling the attempts and measuring latency
+	 *
+	 * @return a hedged {@link Mono}
+	 *
+	 * @see #hedge(Duration, int, TimedScheduler)
+	 */
+	public final Mono<T> hedge(Histogram latencies,
+			double percentile,
+			Duration minDelay,
+			int maxAttempts,
+			TimedScheduler timer) {
+		return onAssembly(new MonoHedge<>(this, minDelay.toNanos(),
+				Objects.requireNonNull(latencies, "latencies"), percentile, maxAttempts, timer));
+	}
+
 	/**
 	 * Hides the identity of this {@link Mono} instance.
 	 * 
@@ -1687,6 +1762,10 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 	 * @return a new {@link Mono}
 	 */
 	public final <R> Mono<R> map(Function<? super T, ? extends R> mapper) {
+		Callable<? extends T> scalar = scalarCallable(this);
+		if (scalar != null) {
+			return onAssembly(new MonoCallableOrEmpty<>(MonoMap.scalarMap(scalar, mapper), this));
+		}
 		if (this instanceof Fuseable) {
 			return onAssembly(new MonoMapFuseable<>(this, mapper));
 		}
@@ -1811,6 +1890,10 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 	 */
 	public final Mono<T> otherwise(Function<? super Throwable, ? extends Mono<? extends
 			T>> fallback) {
+		if (this instanceof MonoJust || this instanceof MonoEmpty) {
+			Objects.requireNonNull(fallback, "fallback");
+			return this;
+		}
 		return onAssembly(new MonoOtherwise<>(this, fallback));
 	}
 
@@ -1867,6 +1950,10 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 	 * @see Flux#switchIfEmpty
 	 */
 	public final Mono<T> otherwiseIfEmpty(Mono<? extends T> alternate) {
+		if (this instanceof MonoJust) {
+			Objects.requireNonNull(alternate, "alternate");
+			return this;
+		}
 		return onAssembly(new MonoOtherwiseIfEmpty<>(this, alternate));
 	}
 
@@ -2546,6 +2633,35 @@ public abstract class Mono<T> implements Publisher<T>, Backpressurable, Introspe
 		return this;
 	}
 
+	/**
+	 * Return a {@link Callable} view of the given source if it is a scalar source that
+	 * can be fused into its downstream operator at assembly time, or null otherwise. The
+	 * returned {@link Callable} returns null when the source would complete empty.
+	 *
+	 * @param <T> the value type
+	 * @param source the source to inspect
+	 *
+	 * @return a {@link Callable} view of the source or null
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> Callable<? extends T> scalarCallable(Mono<? extends T> source) {
+		if (source instanceof MonoJust || source instanceof MonoEmpty || source instanceof
+				MonoCallableOrEmpty) {
+			return (Callable<? extends T>) source;
+		}
+		if (source instanceof MonoCallable || source instanceof MonoSupplier) {
+			Callable<? extends T> c = (Callable<? extends T>) source;
+			return () -> {
+				T t = c.call();
+				if (t == null) {
+					throw new NullPointerException("The callable returned null");
+				}
+				return t;
+			};
+		}
+		return null;
+	}
+
 	/**
 	 * Wrap the source into a PublisherOnAssembly or PublisherCallableOnAssembly if {@code
 	 * trackAssembly} is set to true.
@@ -42,13 +42,24 @@ extends Mono<T>
 
 	final Callable<? extends T> callable;
 
+	/**
+	 * The scalar source a fused map or filter was applied to, or the callable itself
+	 */
+	final Object source;
+
 	public MonoCallableOrEmpty(Callable<? extends T> callable) {
 		this.callable = Objects.requireNonNull(callable, "callable");
+		this.source = callable;
+	}
+
+	MonoCallableOrEmpty(Callable<? extends T> callable, Mono<?> source) {
+		this.callable = Objects.requireNonNull(callable, "callable");
+		this.source = source;
 	}
 
 	@Override
 	public Object upstream() {
-		return callable;
+		return source;
 	}
 
 	@Override
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.Objects;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.subscriber.Subscribers;
+
+/**
+ * Attaches a deadline to the subscription, cancelling the source and signalling a
+ * {@link java.util.concurrent.TimeoutException} once it passes.
+ *
+ * @param <T> the value type
+ *
+ * @see FluxDeadline
+ * @since 2.5
+ */
+final class MonoDeadline<T> extends MonoSource<T, T> {
+
+	final long           timeout;
+	final TimedScheduler timer;
+
+	public MonoDeadline(Publisher<? extends T> source, long timeout, TimedScheduler timer) {
+		super(source);
+		if (timeout < 0L) {
+			throw new IllegalArgumentException("timeout >= 0 required but it was " + timeout);
+		}
+		this.timeout = timeout;
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		source.subscribe(new FluxDeadline.DeadlineSubscriber<>(Subscribers.serialize(s),
+				timeout, timer));
+	}
+}
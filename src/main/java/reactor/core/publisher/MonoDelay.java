@@ -101,7 +101,7 @@ final class MonoDelay extends Mono<Long> {
 					s.onError(t);
 				}
 			} else {
-				s.onError(new IllegalStateException("Could not emit value due to lack of requests"));
+				s.onError(Exceptions.failWithBackpressure("Could not emit value due to lack of requests"));
 			}
 		}
 		
@@ -0,0 +1,361 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.queue.QueueSupplier;
+import reactor.core.state.Backpressurable;
+import reactor.core.subscriber.DeferredScalarSubscriber;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.EmptySubscription;
+import reactor.core.util.Exceptions;
+
+/**
+ * Writes a sequence of {@link ByteBuffer} into a file using an {@link
+ * AsynchronousFileChannel} and emits the number of bytes written on completion.
+ * <p>
+ * Up to {@code maxInFlight} writes are outstanding at any time, each at its own file
+ * position. Buffers smaller than {@code batchSize} are coalesced into a single write and
+ * upstream is only replenished when writes complete.
+ *
+ * @since 2.5
+ */
+final class MonoFileWrite extends MonoSource<ByteBuffer, Long> {
+
+	static final OpenOption[] DEFAULT_OPTIONS = {StandardOpenOption.CREATE,
+			StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING};
+
+	final Path         path;
+	final OpenOption[] options;
+	final int          maxInFlight;
+	final int          batchSize;
+	final int          prefetch;
+
+	public MonoFileWrite(Publisher<? extends ByteBuffer> source,
+			Path path,
+			OpenOption[] options,
+			int maxInFlight,
+			int batchSize,
+			int prefetch) {
+		super(source);
+		if (maxInFlight <= 0) {
+			throw new IllegalArgumentException("maxInFlight > 0 required but it was " + maxInFlight);
+		}
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("batchSize > 0 required but it was " + batchSize);
+		}
+		if (prefetch <= 0) {
+			throw new IllegalArgumentException("prefetch > 0 required but it was " + prefetch);
+		}
+		this.path = Objects.requireNonNull(path, "path");
+		this.options = Objects.requireNonNull(options, "options").length == 0 ?
+				DEFAULT_OPTIONS : options;
+		this.maxInFlight = maxInFlight;
+		this.batchSize = batchSize;
+		this.prefetch = prefetch;
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super Long> s) {
+		AsynchronousFileChannel channel;
+		try {
+			channel = AsynchronousFileChannel.open(path, options);
+		}
+		catch (Throwable e) {
+			Exceptions.throwIfFatal(e);
+			EmptySubscription.error(s, e);
+			return;
+		}
+		source.subscribe(new FileWriteSubscriber(s, channel, maxInFlight, batchSize, prefetch));
+	}
+
+	static final class FileWriteSubscriber
+			extends DeferredScalarSubscriber<ByteBuffer, Long>
+			implements CompletionHandler<Integer, FileWriteSubscriber.Batch>, Backpressurable {
+
+		final AsynchronousFileChannel channel;
+		final int                     maxInFlight;
+		final int                     batchSize;
+		final int                     prefetch;
+		final Queue<ByteBuffer>       queue;
+
+		Subscription s;
+
+		/**
+		 * Next file position to write at, only accessed from the drain loop
+		 */
+		long position;
+
+		volatile long written;
+		static final AtomicLongFieldUpdater<FileWriteSubscriber> WRITTEN =
+				AtomicLongFieldUpdater.newUpdater(FileWriteSubscriber.class, "written");
+
+		volatile boolean done;
+
+		volatile boolean cancelled;
+
+		volatile Throwable error;
+		static final AtomicReferenceFieldUpdater<FileWriteSubscriber, Throwable> ERROR =
+				AtomicReferenceFieldUpdater.newUpdater(FileWriteSubscriber.class, Throwable.class, "error");
+
+		volatile int inFlight;
+		static final AtomicIntegerFieldUpdater<FileWriteSubscriber> IN_FLIGHT =
+				AtomicIntegerFieldUpdater.newUpdater(FileWriteSubscriber.class, "inFlight");
+
+		volatile int wip;
+		static final AtomicIntegerFieldUpdater<FileWriteSubscriber> WIP =
+				AtomicIntegerFieldUpdater.newUpdater(FileWriteSubscriber.class, "wip");
+
+		FileWriteSubscriber(Subscriber<? super Long> actual,
+				AsynchronousFileChannel channel,
+				int maxInFlight,
+				int batchSize,
+				int prefetch) {
+			super(actual);
+			this.channel = channel;
+			this.maxInFlight = maxInFlight;
+			this.batchSize = batchSize;
+			this.prefetch = prefetch;
+			this.queue = QueueSupplier.<ByteBuffer>get(prefetch).get();
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.validate(this.s, s)) {
+				this.s = s;
+
+				subscriber.onSubscribe(this);
+
+				s.request(prefetch);
+			}
+		}
+
+		@Override
+		public void onNext(ByteBuffer t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			if (!queue.offer(t)) {
+				s.cancel();
+				onError(Exceptions.failWithOverflow());
+				return;
+			}
+			drain();
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			if (ERROR.compareAndSet(this, null, t)) {
+				done = true;
+				drain();
+			}
+			else {
+				Exceptions.onErrorDropped(t);
+			}
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				super.cancel();
+				s.cancel();
+				if (WIP.getAndIncrement(this) == 0) {
+					queue.clear();
+					close();
+				}
+			}
+		}
+
+		@Override
+		public void completed(Integer result, Batch batch) {
+			ByteBuffer b = batch.buffer;
+			if (b.hasRemaining() && !cancelled) {
+				channel.write(b, batch.position + b.position(), batch, this);
+				return;
+			}
+			WRITTEN.addAndGet(this, b.limit());
+			IN_FLIGHT.decrementAndGet(this);
+			if (!done) {
+				s.request(batch.count);
+			}
+			drain();
+		}
+
+		@Override
+		public void failed(Throwable exc, Batch batch) {
+			IN_FLIGHT.decrementAndGet(this);
+			if (ERROR.compareAndSet(this, null, exc)) {
+				s.cancel();
+				done = true;
+			}
+			else {
+				Exceptions.onErrorDropped(exc);
+			}
+			drain();
+		}
+
+		void drain() {
+			if (WIP.getAndIncrement(this) != 0) {
+				return;
+			}
+
+			int missed = 1;
+			final Queue<ByteBuffer> q = queue;
+
+			for (; ; ) {
+				if (cancelled) {
+					q.clear();
+					close();
+					return;
+				}
+
+				Throwable ex = error;
+				if (ex != null) {
+					q.clear();
+					if (inFlight == 0) {
+						close();
+						subscriber.onError(ex);
+						return;
+					}
+				}
+				else {
+					while (inFlight < maxInFlight) {
+						Batch batch = poll(q);
+						if (batch == null) {
+							break;
+						}
+						IN_FLIGHT.incrementAndGet(this);
+						channel.write(batch.buffer, batch.position, batch, this);
+					}
+
+					if (done && q.isEmpty() && inFlight == 0) {
+						close();
+						if (error == null) {
+							complete(written);
+						}
+						else {
+							subscriber.onError(error);
+						}
+						return;
+					}
+				}
+
+				missed = WIP.addAndGet(this, -missed);
+				if (missed == 0) {
+					break;
+				}
+			}
+		}
+
+		Batch poll(Queue<ByteBuffer> q) {
+			ByteBuffer first = q.poll();
+			if (first == null) {
+				return null;
+			}
+			int count = 1;
+			ByteBuffer b = first;
+			ByteBuffer next = q.peek();
+			if (first.remaining() < batchSize && next != null && first.remaining() + next
+					.remaining() <= batchSize) {
+				int size = first.remaining();
+				b = ByteBuffer.allocate(batchSize);
+				b.put(first.duplicate());
+				while (next != null && size + next.remaining() <= batchSize) {
+					q.poll();
+					size += next.remaining();
+					b.put(next.duplicate());
+					count++;
+					next = q.peek();
+				}
+				b.flip();
+			}
+			else {
+				b = first.slice();
+			}
+			Batch batch = new Batch(b, position, count);
+			position += b.remaining();
+			return batch;
+		}
+
+		void close() {
+			try {
+				channel.close();
+			}
+			catch (IOException e) {
+				Exceptions.onErrorDropped(e);
+			}
+		}
+
+		@Override
+		public long getCapacity() {
+			return prefetch;
+		}
+
+		@Override
+		public long getPending() {
+			return queue.size();
+		}
+
+		@Override
+		public Object upstream() {
+			return s;
+		}
+
+		static final class Batch {
+
+			final ByteBuffer buffer;
+			final long       position;
+			final int        count;
+
+			Batch(ByteBuffer buffer, long position, int count) {
+				this.buffer = buffer;
+				this.position = position;
+				this.count = count;
+			}
+		}
+	}
+}
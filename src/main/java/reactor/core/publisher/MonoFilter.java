@@ -16,6 +16,7 @@
 package reactor.core.publisher;
 
 import java.util.Objects;
+import java.util.concurrent.Callable;
 import java.util.function.Predicate;
 
 import org.reactivestreams.*;
@@ -47,6 +48,25 @@ final class MonoFilter<T> extends MonoSource<T, T> {
 		return predicate;
 	}
 
+	/**
+	 * Compose a scalar source with a predicate so the result can be subscribed to as a
+	 * single {@link MonoCallableOrEmpty} without any intermediate subscriber.
+	 *
+	 * @param source the scalar source, returning null when empty
+	 * @param predicate the predicate to test the value against
+	 * @param <T> the value type
+	 *
+	 * @return the composed {@link Callable}, returning null when empty or filtered out
+	 */
+	static <T> Callable<T> scalarFilter(Callable<? extends T> source,
+			Predicate<? super T> predicate) {
+		Objects.requireNonNull(predicate, "predicate");
+		return () -> {
+			T t = source.call();
+			return t != null && predicate.test(t) ? t : null;
+		};
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super T> s) {
 		if (source instanceof Fuseable) {
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.flow.Cancellation;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.subscriber.DeferredScalarSubscriber;
+import reactor.core.util.BackpressureUtils;
+import reactor.core.util.Exceptions;
+import reactor.core.util.Histogram;
+
+/**
+ * Subscribes to the source again if it has not produced a value within a delay, up to a
+ * number of attempts, emitting the first value produced by any attempt and cancelling the
+ * others.
+ * <p>
+ * The delay is either fixed or derived from a percentile of the {@link Histogram} of
+ * past winning attempt latencies, which this operator records into.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class MonoHedge<T> extends MonoSource<T, T> {
+
+	final long           delay;
+	final Histogram      latencies;
+	final double         percentile;
+	final int            maxAttempts;
+	final TimedScheduler timer;
+
+	public MonoHedge(Mono<? extends T> source,
+			long delay,
+			Histogram latencies,
+			double percentile,
+			int maxAttempts,
+			TimedScheduler timer) {
+		super(source);
+		if (delay < 0L) {
+			throw new IllegalArgumentException("delay >= 0 required but it was " + delay);
+		}
+		if (maxAttempts <= 0) {
+			throw new IllegalArgumentException("maxAttempts > 0 required but it was " + maxAttempts);
+		}
+		if (percentile < 0d || percentile > 100d) {
+			throw new IllegalArgumentException("percentile in [0, 100] required but it was " + percentile);
+		}
+		this.delay = delay;
+		this.latencies = latencies;
+		this.percentile = percentile;
+		this.maxAttempts = maxAttempts;
+		this.timer = Objects.requireNonNull(timer, "timer");
+	}
+
+	@Override
+	public void subscribe(Subscriber<? super T> s) {
+		long d = delay;
+		if (latencies != null && latencies.getCount() != 0L) {
+			d = Math.max(d, latencies.getValueAtPercentile(percentile));
+		}
+		HedgeCoordinator<T> parent = new HedgeCoordinator<>(s, this, d);
+		s.onSubscribe(parent);
+		parent.attempt();
+	}
+
+	static final class HedgeCoordinator<T> extends DeferredScalarSubscriber<T, T>
+			implements Backpressurable {
+
+		final MonoHedge<T> parent;
+		final long         delay;
+
+		final HedgeSubscriber<T>[] attempts;
+
+		/**
+		 * Number of started attempts, only incremented by the serialized attempt() calls
+		 */
+		volatile int started;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<HedgeCoordinator> STARTED =
+				AtomicIntegerFieldUpdater.newUpdater(HedgeCoordinator.class, "started");
+
+		volatile int active;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<HedgeCoordinator> ACTIVE =
+				AtomicIntegerFieldUpdater.newUpdater(HedgeCoordinator.class, "active");
+
+		volatile int once;
+		@SuppressWarnings("rawtypes")
+		static final AtomicIntegerFieldUpdater<HedgeCoordinator> ONCE =
+				AtomicIntegerFieldUpdater.newUpdater(HedgeCoordinator.class, "once");
+
+		volatile Cancellation timeout;
+		@SuppressWarnings("rawtypes")
+		static final AtomicReferenceFieldUpdater<HedgeCoordinator, Cancellation> TIMEOUT =
+				AtomicReferenceFieldUpdater.newUpdater(HedgeCoordinator.class, Cancellation.class, "timeout");
+
+		static final Cancellation CANCELLED = () -> { };
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		HedgeCoordinator(Subscriber<? super T> subscriber, MonoHedge<T> parent, long delay) {
+			super(subscriber);
+			this.parent = parent;
+			this.delay = delay;
+			this.attempts = new HedgeSubscriber[parent.maxAttempts];
+		}
+
+		void attempt() {
+			if (once != 0) {
+				return;
+			}
+			int n = started;
+			if (n == attempts.length) {
+				return;
+			}
+			HedgeSubscriber<T> inner = new HedgeSubscriber<>(this, parent.timer.now(TimeUnit.NANOSECONDS));
+			attempts[n] = inner;
+			ACTIVE.incrementAndGet(this);
+			STARTED.lazySet(this, n + 1);
+
+			if (n + 1 < attempts.length) {
+				Cancellation c = parent.timer.schedule(this::attempt, delay, TimeUnit.NANOSECONDS);
+				Cancellation current = timeout;
+				if (current == CANCELLED || !TIMEOUT.compareAndSet(this, current, c)) {
+					c.dispose();
+				}
+			}
+
+			if (once != 0) {
+				inner.cancel();
+				return;
+			}
+			parent.source.subscribe(inner);
+		}
+
+		void innerNext(HedgeSubscriber<T> inner, T value) {
+			if (ONCE.compareAndSet(this, 0, 1)) {
+				Histogram h = parent.latencies;
+				if (h != null) {
+					h.record(parent.timer.now(TimeUnit.NANOSECONDS) - inner.start);
+				}
+				cancelOthers(inner);
+				complete(value);
+			}
+			else {
+				Exceptions.onNextDropped(value);
+			}
+		}
+
+		/**
+		 * Terminate with the outcome of the last attempt to terminate without value, the
+		 * failures of earlier ones being superseded.
+		 */
+		void innerTerminated(Throwable e) {
+			if (ACTIVE.decrementAndGet(this) == 0 && ONCE.compareAndSet(this, 0, 1)) {
+				cancelOthers(null);
+				if (e != null) {
+					subscriber.onError(e);
+				}
+				else {
+					subscriber.onComplete();
+				}
+			}
+		}
+
+		void cancelOthers(HedgeSubscriber<T> winner) {
+			Cancellation c = TIMEOUT.getAndSet(this, CANCELLED);
+			if (c != null && c != CANCELLED) {
+				c.dispose();
+			}
+			int n = started;
+			for (int i = 0; i < n; i++) {
+				HedgeSubscriber<T> a = attempts[i];
+				if (a != winner) {
+					a.cancel();
+				}
+			}
+		}
+
+		@Override
+		public void cancel() {
+			super.cancel();
+			if (ONCE.compareAndSet(this, 0, 1)) {
+				cancelOthers(null);
+			}
+		}
+
+		@Override
+		public Object upstream() {
+			return parent.source;
+		}
+
+		@Override
+		public long getPending() {
+			return active;
+		}
+
+		@Override
+		public long getCapacity() {
+			return attempts.length;
+		}
+	}
+
+	static final class HedgeSubscriber<T> implements Subscriber<T> {
+
+		final HedgeCoordinator<T> parent;
+		final long                start;
+
+		volatile Subscription s;
+		@SuppressWarnings("rawtypes")
+		static final AtomicReferenceFieldUpdater<HedgeSubscriber, Subscription> S =
+				AtomicReferenceFieldUpdater.newUpdater(HedgeSubscriber.class, Subscription.class, "s");
+
+		boolean done;
+
+		HedgeSubscriber(HedgeCoordinator<T> parent, long start) {
+			this.parent = parent;
+			this.start = start;
+		}
+
+		@Override
+		public void onSubscribe(Subscription s) {
+			if (BackpressureUtils.setOnce(S, this, s)) {
+				s.request(Long.MAX_VALUE);
+			}
+		}
+
+		@Override
+		public void onNext(T t) {
+			if (done) {
+				Exceptions.onNextDropped(t);
+				return;
+			}
+			done = true;
+			parent.innerNext(this, t);
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			if (done) {
+				Exceptions.onErrorDropped(t);
+				return;
+			}
+			done = true;
+			parent.innerTerminated(t);
+		}
+
+		@Override
+		public void onComplete() {
+			if (done) {
+				return;
+			}
+			done = true;
+			parent.innerTerminated(null);
+		}
+
+		void cancel() {
+			BackpressureUtils.terminate(S, this);
+		}
+	}
+}
@@ -16,6 +16,7 @@
 package reactor.core.publisher;
 
 import java.util.Objects;
+import java.util.concurrent.Callable;
 import java.util.function.Function;
 
 import org.reactivestreams.*;
@@ -54,6 +55,33 @@ final class MonoMap<T, R> extends MonoSource<T, R> {
 		return mapper;
 	}
 
+	/**
+	 * Compose a scalar source with a mapper so the result can be subscribed to as a
+	 * single {@link MonoCallableOrEmpty} without any intermediate subscriber.
+	 *
+	 * @param source the scalar source, returning null when empty
+	 * @param mapper the mapper function
+	 * @param <T> the source value type
+	 * @param <R> the result value type
+	 *
+	 * @return the composed {@link Callable}, returning null when empty
+	 */
+	static <T, R> Callable<R> scalarMap(Callable<? extends T> source,
+			Function<? super T, ? extends R> mapper) {
+		Objects.requireNonNull(mapper, "mapper");
+		return () -> {
+			T t = source.call();
+			if (t == null) {
+				return null;
+			}
+			R r = mapper.apply(t);
+			if (r == null) {
+				throw new NullPointerException("The mapper returned a null value.");
+			}
+			return r;
+		};
+	}
+
 	@Override
 	public void subscribe(Subscriber<? super R> s) {
 		if (source instanceof Fuseable) {
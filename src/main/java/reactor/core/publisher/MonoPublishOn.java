@@ -22,6 +22,7 @@ import org.reactivestreams.*;
 
 import reactor.core.flow.Cancellation;
 import reactor.core.scheduler.Scheduler;
+import reactor.core.state.Deadline;
 import reactor.core.util.BackpressureUtils;
 
 /**
@@ -45,11 +46,13 @@ final class MonoPublishOn<T> extends MonoSource<T, T> {
     }
     
     static final class MonoPublishOnSubscriber<T> 
-    implements Subscriber<T>, Subscription, Runnable {
+    implements Subscriber<T>, Subscription, Runnable, Deadline {
         final Subscriber<? super T> actual;
         
         final Scheduler scheduler;
 
+        final Deadline deadline;
+
         Subscription s;
         
         volatile Cancellation future;
@@ -58,6 +61,8 @@ final class MonoPublishOn<T> extends MonoSource<T, T> {
                 AtomicReferenceFieldUpdater.newUpdater(MonoPublishOnSubscriber.class, Cancellation.class, "future");
         
         static final Cancellation CANCELLED = () -> { };
+
+        static final Cancellation INLINE = () -> { };
         
         T value;
         Throwable error;
@@ -65,6 +70,7 @@ final class MonoPublishOn<T> extends MonoSource<T, T> {
         public MonoPublishOnSubscriber(Subscriber<? super T> actual, Scheduler scheduler) {
             this.actual = actual;
             this.scheduler = scheduler;
+            this.deadline = Deadline.find(actual);
         }
         
         @Override
@@ -97,6 +103,12 @@ final class MonoPublishOn<T> extends MonoSource<T, T> {
         
         void schedule() {
             if (future == null) {
+                if (scheduler.ownsCurrentThread()) {
+                    if (FUTURE.compareAndSet(this, null, INLINE)) {
+                        run();
+                    }
+                    return;
+                }
                 Cancellation c = scheduler.schedule(this);
                 if (!FUTURE.compareAndSet(this, null, c)) {
                     c.dispose();
@@ -126,6 +138,10 @@ final class MonoPublishOn<T> extends MonoSource<T, T> {
             if (future == CANCELLED) {
                 return;
             }
+            if (deadline != null && deadline.isExpired()) {
+                value = null;
+                return;
+            }
             T v = value;
             value = null;
             if (v != null) {
@@ -142,5 +158,16 @@ final class MonoPublishOn<T> extends MonoSource<T, T> {
                 actual.onComplete();
             }
         }
+
+        @Override
+        public boolean isExpired() {
+            Deadline d = deadline;
+            return d != null && d.isExpired();
+        }
+
+        @Override
+        public Deadline resolve() {
+            return deadline;
+        }
     }
 }
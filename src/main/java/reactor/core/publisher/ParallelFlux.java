@@ -584,6 +584,51 @@ public abstract class ParallelFlux<T> {
 	 */
 	public abstract int parallelism();
 
+	/**
+	 * Estimate the values at the given quantiles of all 'rails' with one quantiles sketch
+	 * per 'rail', merged on completion, in memory bounded by the sketch size rather than
+	 * by the number of values. The estimated rank error is typically under 1%. The
+	 * returned {@link Flux} completes empty if this {@link ParallelFlux} is empty.
+	 *
+	 * @param comparator the comparator ordering values
+	 * @param fractions the quantiles to estimate, between 0 (minimum) and 1 (maximum)
+	 *
+	 * @return the new Flux instance emitting the estimated values, in the order of the
+	 * fractions
+	 */
+	public final Flux<List<T>> quantiles(Comparator<? super T> comparator, double... fractions) {
+		return quantiles(QuantilesSketch.DEFAULT_SIZE, comparator, fractions);
+	}
+
+	/**
+	 * Estimate the values at the given quantiles of all 'rails' with one quantiles sketch
+	 * per 'rail', merged on completion, in memory bounded by the sketch size rather than
+	 * by the number of values. The returned {@link Flux} completes empty if this {@link
+	 * ParallelFlux} is empty.
+	 *
+	 * @param sketchSize the sketch size, trading memory for accuracy
+	 * @param comparator the comparator ordering values
+	 * @param fractions the quantiles to estimate, between 0 (minimum) and 1 (maximum)
+	 *
+	 * @return the new Flux instance emitting the estimated values, in the order of the
+	 * fractions
+	 */
+	public final Flux<List<T>> quantiles(int sketchSize,
+			Comparator<? super T> comparator,
+			double... fractions) {
+		QuantilesSketch.validate(sketchSize, comparator, fractions);
+		double[] f = fractions.clone();
+		ParallelFlux<QuantilesSketch<T>> railSketches =
+				reduce(() -> new QuantilesSketch<>(sketchSize, comparator), (s, v) -> {
+					s.offer(v);
+					return s;
+				});
+
+		return railSketches.reduce(QuantilesSketch::merge)
+		                   .filter(s -> s.count() != 0L)
+		                   .map(s -> s.quantiles(f));
+	}
+
 	/**
 	 * Reduces all values within a 'rail' and across 'rails' with a reducer function into
 	 * a single sequential value.
@@ -756,6 +801,30 @@ public abstract class ParallelFlux<T> {
 		return merged;
 	}
 
+	/**
+	 * Retains the {@code k} greatest values of all 'rails' according to the comparator,
+	 * with one bounded heap per 'rail' merged on completion, and emits them greatest
+	 * first.
+	 * <p>
+	 * This operator requires a finite source ParallelFlux.
+	 *
+	 * @param k the number of values to retain
+	 * @param comparator the comparator ordering values
+	 *
+	 * @return the new Flux instance emitting the {@code k} greatest values
+	 */
+	public final Flux<List<T>> topK(int k, Comparator<? super T> comparator) {
+		TopKHeap.validate(k, comparator);
+		ParallelFlux<TopKHeap<T>> railHeaps =
+				reduce(() -> new TopKHeap<>(k, comparator), (h, v) -> {
+					h.offer(v);
+					return h;
+				});
+
+		return railHeaps.reduce(TopKHeap::merge)
+		                .map(TopKHeap::toList);
+	}
+
 	/**
 	 * Subscribes an array of Subscribers to this {@link ParallelFlux} and triggers the
 	 * execution chain for all 'rails'.
@@ -140,7 +140,7 @@ final class ParallelUnorderedRunOn<T> extends ParallelFlux<T> {
                 return;
             }
             if (!queue.offer(t)) {
-                onError(new IllegalStateException("Queue is full?!"));
+                onError(Exceptions.failWithBackpressure("Queue is full?!"));
                 return;
             }
             schedule();
@@ -205,7 +205,7 @@ final class ParallelUnorderedSource<T> extends ParallelFlux<T> {
             if (sourceMode == Fuseable.NONE) {
                 if (!queue.offer(t)) {
                     cancel();
-                    onError(new IllegalStateException("Queue is full?"));
+                    onError(Exceptions.failWithBackpressure("Queue is full?"));
                     return;
                 }
             }
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A mergeable quantiles sketch after Karnin, Lang and Liberty (KLL), estimating the
+ * quantiles of a stream of values in memory bounded by its size parameter rather than by
+ * the number of values.
+ * <p>
+ * Values enter level 0. When the sketch is full, the lowest level holding more than its
+ * capacity is sorted and every other value, from a random offset, is promoted to the next
+ * level where it stands for twice as many values. Capacities shrink geometrically towards
+ * the lower levels, so about {@code 3 * k} values are retained and the rank error is in
+ * the order of {@code 1 / k}, typically under 1% for the default size.
+ * <p>
+ * Two sketches with the same size and comparator can be merged, e.g. one per
+ * {@link ParallelFlux} rail. This class is not thread-safe.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class QuantilesSketch<T> {
+
+	/**
+	 * The default sketch size
+	 */
+	static final int DEFAULT_SIZE = 200;
+
+	static final double CAPACITY_RATIO = 2d / 3d;
+
+	final int                   k;
+	final Comparator<? super T> comparator;
+
+	/**
+	 * Values per level, a value at level h standing for 2^h source values
+	 */
+	final List<List<T>> levels;
+
+	int  retained;
+	int  maxRetained;
+	long count;
+
+	QuantilesSketch(int k, Comparator<? super T> comparator) {
+		this.k = k;
+		this.comparator = comparator;
+		this.levels = new ArrayList<>();
+		grow();
+	}
+
+	/**
+	 * Check the {@link QuantilesSketch} parameters on assembly.
+	 *
+	 * @param k the sketch size
+	 * @param comparator the comparator ordering values
+	 * @param fractions the requested quantiles
+	 */
+	static void validate(int k, Comparator<?> comparator, double... fractions) {
+		if (k < 8) {
+			throw new IllegalArgumentException("k >= 8 required but it was " + k);
+		}
+		Objects.requireNonNull(comparator, "comparator");
+		Objects.requireNonNull(fractions, "fractions");
+		for (double f : fractions) {
+			if (!(f >= 0d && f <= 1d)) {
+				throw new IllegalArgumentException("fractions in [0, 1] required but it was " + f);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of values offered to this sketch and the sketches merged into it
+	 */
+	long count() {
+		return count;
+	}
+
+	/**
+	 * Offer a value to the sketch.
+	 *
+	 * @param value the value
+	 */
+	void offer(T value) {
+		levels.get(0).add(value);
+		count++;
+		if (++retained >= maxRetained) {
+			compress();
+		}
+	}
+
+	/**
+	 * Add all the values retained by another sketch to this one.
+	 *
+	 * @param other the other sketch, with the same size and comparator
+	 *
+	 * @return this sketch
+	 */
+	QuantilesSketch<T> merge(QuantilesSketch<T> other) {
+		while (levels.size() < other.levels.size()) {
+			grow();
+		}
+		for (int h = 0; h < other.levels.size(); h++) {
+			levels.get(h).addAll(other.levels.get(h));
+		}
+		retained += other.retained;
+		count += other.count;
+		while (retained >= maxRetained) {
+			compress();
+		}
+		return this;
+	}
+
+	/**
+	 * Estimate the values at the given quantiles.
+	 *
+	 * @param fractions the quantiles, between 0 (minimum) and 1 (maximum)
+	 *
+	 * @return the estimated values, in the order of the fractions, or an empty list if
+	 * no value was offered
+	 */
+	@SuppressWarnings("unchecked")
+	List<T> quantiles(double... fractions) {
+		if (count == 0L) {
+			return new ArrayList<>();
+		}
+		Object[] values = new Object[retained];
+		long[] weights = new long[retained];
+		Integer[] order = new Integer[retained];
+		int n = 0;
+		long total = 0L;
+		for (int h = 0; h < levels.size(); h++) {
+			long w = 1L << h;
+			for (T v : levels.get(h)) {
+				values[n] = v;
+				weights[n] = w;
+				order[n] = n;
+				n++;
+				total += w;
+			}
+		}
+		Arrays.sort(order, (a, b) -> comparator.compare((T) values[a], (T) values[b]));
+
+		List<T> result = new ArrayList<>(fractions.length);
+		for (double f : fractions) {
+			double target = f * total;
+			long cumulative = 0L;
+			int i = 0;
+			for (; i < n - 1; i++) {
+				cumulative += weights[order[i]];
+				if (cumulative >= target) {
+					break;
+				}
+			}
+			result.add((T) values[order[i]]);
+		}
+		return result;
+	}
+
+	void grow() {
+		levels.add(new ArrayList<>());
+		int m = 0;
+		for (int h = 0; h < levels.size(); h++) {
+			m += capacity(h);
+		}
+		maxRetained = m;
+	}
+
+	int capacity(int level) {
+		int depth = levels.size() - level - 1;
+		return (int) Math.ceil(Math.pow(CAPACITY_RATIO, depth) * k) + 1;
+	}
+
+	/**
+	 * Compact the lowest level over capacity, promoting half its values to the next one.
+	 */
+	void compress() {
+		for (int h = 0; h < levels.size(); h++) {
+			List<T> level = levels.get(h);
+			if (level.size() >= capacity(h)) {
+				if (h + 1 == levels.size()) {
+					grow();
+				}
+				List<T> next = levels.get(h + 1);
+				level.sort(comparator);
+
+				int size = level.size();
+				int pairs = size / 2;
+				int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+				for (int i = 0; i < pairs; i++) {
+					next.add(level.get(2 * i + offset));
+				}
+				T leftover = (size & 1) != 0 ? level.get(size - 1) : null;
+				level.clear();
+				if (leftover != null) {
+					level.add(leftover);
+				}
+				retained -= pairs;
+				if (retained < maxRetained) {
+					return;
+				}
+			}
+		}
+	}
+}
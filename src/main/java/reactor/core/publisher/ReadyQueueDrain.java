@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.queue.QueueSupplier;
+import reactor.core.state.Cancellable;
+import reactor.core.state.Requestable;
+import reactor.core.util.BackpressureUtils;
+
+/**
+ * Emission side of operators producing their results from several threads, typically a
+ * source and a periodic timer, and queuing them until the downstream requests them.
+ * <p>
+ * Producers offer results to {@link #ready} then call {@link #drain()}. They set {@link
+ * #error} then {@link #done} after their last offer, so that the drain loop completes
+ * once the queue is empty or signals the error right away. Cancellation goes through
+ * the drain loop, which keeps clearing the queue so that a result offered concurrently
+ * with {@link #cancel()} is dropped too.
+ *
+ * @param <R> the output type
+ */
+abstract class ReadyQueueDrain<R> implements Subscription, Requestable, Cancellable {
+
+	final Subscriber<? super R> actual;
+
+	/**
+	 * Results waiting for downstream demand
+	 */
+	final Queue<R> ready;
+
+	volatile long requested;
+	@SuppressWarnings("rawtypes")
+	static final AtomicLongFieldUpdater<ReadyQueueDrain> REQUESTED =
+			AtomicLongFieldUpdater.newUpdater(ReadyQueueDrain.class, "requested");
+
+	volatile int wip;
+	@SuppressWarnings("rawtypes")
+	static final AtomicIntegerFieldUpdater<ReadyQueueDrain> WIP =
+			AtomicIntegerFieldUpdater.newUpdater(ReadyQueueDrain.class, "wip");
+
+	volatile boolean done;
+	Throwable error;
+
+	volatile boolean cancelled;
+
+	ReadyQueueDrain(Subscriber<? super R> actual) {
+		this.actual = actual;
+		this.ready = QueueSupplier.<R>unbounded().get();
+	}
+
+	@Override
+	public final void request(long n) {
+		if (BackpressureUtils.validate(n)) {
+			BackpressureUtils.getAndAddCap(REQUESTED, this, n);
+			drain();
+		}
+	}
+
+	@Override
+	public final void cancel() {
+		if (!cancelled) {
+			cancelled = true;
+			onCancel();
+			drain();
+		}
+	}
+
+	/**
+	 * Cancel the upstream and release the pending state, called once on cancellation.
+	 */
+	abstract void onCancel();
+
+	final void drain() {
+		if (WIP.getAndIncrement(this) != 0) {
+			return;
+		}
+		int missed = 1;
+		final Queue<R> q = ready;
+		final Subscriber<? super R> a = actual;
+
+		for (; ; ) {
+			long r = requested;
+			long e = 0L;
+
+			while (e != r && !cancelled) {
+				// done is read first: error is set before it and thus visible once d is true
+				boolean d = done;
+				Throwable ex = error;
+				if (ex != null) {
+					q.clear();
+					a.onError(ex);
+					return;
+				}
+				R v = q.poll();
+				if (v == null) {
+					if (d) {
+						a.onComplete();
+						return;
+					}
+					break;
+				}
+				a.onNext(v);
+				e++;
+			}
+
+			if (cancelled) {
+				q.clear();
+			}
+			else {
+				if (done) {
+					Throwable ex = error;
+					if (ex != null) {
+						q.clear();
+						a.onError(ex);
+						return;
+					}
+					if (q.isEmpty()) {
+						a.onComplete();
+						return;
+					}
+				}
+
+				if (e != 0L && r != Long.MAX_VALUE) {
+					REQUESTED.addAndGet(this, -e);
+				}
+			}
+
+			missed = WIP.addAndGet(this, -missed);
+			if (missed == 0) {
+				break;
+			}
+		}
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	@Override
+	public long requestedFromDownstream() {
+		return requested;
+	}
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+
+/**
+ * Maintains the aggregate of a sliding window of values under an associative combiner,
+ * in O(1) amortized combiner calls per value whichever the window size.
+ * <p>
+ * Without an inverse, the window is split in two stacks: the older values carry their
+ * suffix aggregates, so evicting one exposes the aggregate of the remaining older values,
+ * and the newer values fold into a single running aggregate. When the older stack runs
+ * out, the newer values are moved over by recomputing their suffix aggregates once. This
+ * works for any associative combiner, including non invertible ones such as max or min.
+ * <p>
+ * With an inverse, the window keeps a single running aggregate and evicted values are
+ * subtracted from it, e.g. with {@code (a, b) -> a - b} for a sum.
+ * <p>
+ * The values are kept in a power-of-two ring buffer, growing as needed. Timestamps can
+ * be recorded alongside values for time-based windows. This class is not thread-safe.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class SlidingAggregator<T> {
+
+	final T                 identity;
+	final BinaryOperator<T> combiner;
+	final BinaryOperator<T> inverse;
+
+	Object[] values;
+	/**
+	 * Suffix aggregates of the older values, null when an inverse is available
+	 */
+	Object[] suffixes;
+	long[]   times;
+
+	int mask;
+	int head;
+	int size;
+	/**
+	 * Number of older values, starting at head, whose suffix aggregate is computed
+	 */
+	int front;
+
+	/**
+	 * The aggregate of the newer values, or of all values when an inverse is available
+	 */
+	T back;
+
+	SlidingAggregator(T identity,
+			BinaryOperator<T> combiner,
+			BinaryOperator<T> inverse,
+			int capacityHint,
+			boolean timed) {
+		this.identity = Objects.requireNonNull(identity, "identity");
+		this.combiner = Objects.requireNonNull(combiner, "combiner");
+		this.inverse = inverse;
+		int c = Integer.highestOneBit(Math.max(capacityHint, 2) - 1) << 1;
+		this.values = new Object[c];
+		this.suffixes = inverse == null ? new Object[c] : null;
+		this.times = timed ? new long[c] : null;
+		this.mask = c - 1;
+		this.back = identity;
+	}
+
+	/**
+	 * @return the number of values in the window
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Add a value as the newest of the window.
+	 *
+	 * @param value the value to add
+	 */
+	void offer(T value) {
+		if (size == values.length) {
+			grow();
+		}
+		int i = (head + size) & mask;
+		values[i] = value;
+		size++;
+		back = requireValue(combiner.apply(back, value));
+	}
+
+	/**
+	 * Add a timestamped value as the newest of the window.
+	 *
+	 * @param value the value to add
+	 * @param time the value timestamp, not decreasing between calls
+	 */
+	void offer(T value, long time) {
+		if (size == values.length) {
+			grow();
+		}
+		times[(head + size) & mask] = time;
+		offer(value);
+	}
+
+	/**
+	 * @return the timestamp of the oldest value, only valid if the window is not empty
+	 */
+	long oldestTime() {
+		return times[head];
+	}
+
+	/**
+	 * Evict the oldest value of the window, which must not be empty.
+	 */
+	@SuppressWarnings("unchecked")
+	void poll() {
+		int h = head;
+		if (inverse != null) {
+			back = requireValue(inverse.apply(back, (T) values[h]));
+		}
+		else {
+			if (front == 0) {
+				flip();
+			}
+			suffixes[h] = null;
+			front--;
+		}
+		values[h] = null;
+		head = (h + 1) & mask;
+		size--;
+	}
+
+	/**
+	 * @return the aggregate of the window values, the identity if the window is empty
+	 */
+	@SuppressWarnings("unchecked")
+	T aggregate() {
+		if (inverse != null || front == 0) {
+			return back;
+		}
+		T f = (T) suffixes[head];
+		if (front == size) {
+			return f;
+		}
+		return requireValue(combiner.apply(f, back));
+	}
+
+	/**
+	 * Evict all values.
+	 */
+	void clear() {
+		Arrays.fill(values, null);
+		if (suffixes != null) {
+			Arrays.fill(suffixes, null);
+		}
+		head = 0;
+		size = 0;
+		front = 0;
+		back = identity;
+	}
+
+	/**
+	 * Move all the values to the older stack, computing their suffix aggregates from
+	 * the newest one.
+	 */
+	@SuppressWarnings("unchecked")
+	void flip() {
+		final Object[] v = values;
+		final Object[] s = suffixes;
+		final int m = mask;
+		int i = (head + size - 1) & m;
+		T acc = (T) v[i];
+		s[i] = acc;
+		for (int k = size - 1; k > 0; k--) {
+			i = (i - 1) & m;
+			acc = requireValue(combiner.apply((T) v[i], acc));
+			s[i] = acc;
+		}
+		front = size;
+		back = identity;
+	}
+
+	void grow() {
+		int c = values.length;
+		values = unroll(values, c);
+		if (suffixes != null) {
+			suffixes = unroll(suffixes, c);
+		}
+		if (times != null) {
+			long[] t = new long[c << 1];
+			System.arraycopy(times, head, t, 0, c - head);
+			System.arraycopy(times, 0, t, c - head, head);
+			times = t;
+		}
+		head = 0;
+		mask = (c << 1) - 1;
+	}
+
+	Object[] unroll(Object[] a, int c) {
+		Object[] b = new Object[c << 1];
+		System.arraycopy(a, head, b, 0, c - head);
+		System.arraycopy(a, 0, b, c - head, head);
+		return b;
+	}
+
+	static <T> T requireValue(T value) {
+		return Objects.requireNonNull(value, "The combiner returned a null value");
+	}
+}
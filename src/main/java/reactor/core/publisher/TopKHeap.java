@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.publisher;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import reactor.core.util.PlatformDependent;
+
+/**
+ * Retains the {@code k} greatest values offered, according to a comparator, in a
+ * min-heap of at most {@code k} values: a value smaller than the current minimum is
+ * rejected in a single comparison and memory stays bounded whatever the number of values.
+ * <p>
+ * Two instances with the same {@code k} and comparator can be merged, e.g. one per
+ * {@link ParallelFlux} rail. This class is not thread-safe.
+ *
+ * @param <T> the value type
+ *
+ * @since 2.5
+ */
+final class TopKHeap<T> {
+
+	final int                   k;
+	final Comparator<? super T> comparator;
+	final PriorityQueue<T>      heap;
+
+	TopKHeap(int k, Comparator<? super T> comparator) {
+		this.k = k;
+		this.comparator = comparator;
+		this.heap = new PriorityQueue<>(Math.min(k, PlatformDependent.SMALL_BUFFER_SIZE), comparator);
+	}
+
+	/**
+	 * Check the {@link TopKHeap} parameters on assembly.
+	 *
+	 * @param k the number of values to retain
+	 * @param comparator the comparator ordering values
+	 */
+	static void validate(int k, Comparator<?> comparator) {
+		if (k <= 0) {
+			throw new IllegalArgumentException("k > 0 required but it was " + k);
+		}
+		Objects.requireNonNull(comparator, "comparator");
+	}
+
+	/**
+	 * Offer a value, retained if it is among the {@code k} greatest seen so far.
+	 *
+	 * @param value the value
+	 */
+	void offer(T value) {
+		PriorityQueue<T> h = heap;
+		if (h.size() < k) {
+			h.offer(value);
+		}
+		else if (comparator.compare(value, h.peek()) > 0) {
+			h.poll();
+			h.offer(value);
+		}
+	}
+
+	/**
+	 * Offer all the values retained by another instance to this one.
+	 *
+	 * @param other the other instance
+	 *
+	 * @return this instance
+	 */
+	TopKHeap<T> merge(TopKHeap<T> other) {
+		for (T v : other.heap) {
+			offer(v);
+		}
+		return this;
+	}
+
+	/**
+	 * @return the retained values, greatest first
+	 */
+	List<T> toList() {
+		List<T> list = new ArrayList<>(heap);
+		list.sort(comparator.reversed());
+		return list;
+	}
+}
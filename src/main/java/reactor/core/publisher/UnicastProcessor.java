@@ -290,7 +290,7 @@ public final class UnicastProcessor<T>
 		}
 
 		if (!queue.offer(t)) {
-			onError(new IllegalStateException("The queue is full"));
+			onError(Exceptions.failWithBackpressure("The queue is full"));
 			return;
 		}
 		drain();
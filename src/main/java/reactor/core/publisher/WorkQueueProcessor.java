@@ -35,6 +35,7 @@ import reactor.core.queue.Slot;
 import reactor.core.state.Backpressurable;
 import reactor.core.state.Cancellable;
 import reactor.core.state.Completable;
+import reactor.core.state.Deadline;
 import reactor.core.state.Introspectable;
 import reactor.core.state.Requestable;
 import reactor.core.util.BackpressureUtils;
@@ -693,6 +694,8 @@ public final class WorkQueueProcessor<E> extends EventLoopProcessor<E> {
 
 		private final Subscriber<? super T> subscriber;
 
+		private final Deadline deadline;
+
 		private final Runnable waiter = new Runnable() {
 			@Override
 			public void run() {
@@ -713,6 +716,7 @@ public final class WorkQueueProcessor<E> extends EventLoopProcessor<E> {
 				WorkQueueProcessor<T> processor) {
 			this.processor = processor;
 			this.subscriber = subscriber;
+			this.deadline = Deadline.find(subscriber);
 
 			this.barrier = processor.ringBuffer.newBarrier();
 		}
@@ -809,6 +813,12 @@ public final class WorkQueueProcessor<E> extends EventLoopProcessor<E> {
 								throw Exceptions.CancelException.INSTANCE;
 							}
 
+							if (deadline != null && deadline.isExpired()) {
+								//leave the event to the other subscribers
+								halt();
+								throw Exceptions.CancelException.INSTANCE;
+							}
+
 							subscriber.onNext(event.value);
 
 							processedSequence = true;
@@ -19,6 +19,7 @@ import java.util.concurrent.locks.LockSupport;
 
 import reactor.core.util.Exceptions;
 import reactor.core.util.Sequence;
+import reactor.core.util.VarHandleSupport;
 import reactor.core.util.WaitStrategy;
 
 /**
@@ -28,6 +29,9 @@ import reactor.core.util.WaitStrategy;
  * <p> * <p>Note on {@code RingBufferProducer.getCursor()}:  With this sequencer the cursor value is updated after the call
  * to {@code RingBufferProducer.next()}, to determine the highest available sequence that can be read, then
  * {@code RingBufferProducer.getHighestPublishedSequence(long, long)} should be used.
+ *
+ * <p>Slot availability flags go through {@link VarHandleSupport}, which uses release/acquire
+ * accesses on Java 9+ runtimes.
  */
 final class NotFunMultiProducer extends RingBufferProducer
 {
@@ -266,7 +270,7 @@ final class NotFunMultiProducer extends RingBufferProducer
 
     private void setAvailableBufferValue(int index, int flag)
     {
-        availableBuffer[index] = flag;
+        VarHandleSupport.setRelease(availableBuffer, index, flag);
     }
 
     /**
@@ -277,7 +281,7 @@ final class NotFunMultiProducer extends RingBufferProducer
     {
         int index = calculateIndex(sequence);
         int flag = calculateAvailabilityFlag(sequence);
-        return availableBuffer[index] == flag;
+        return VarHandleSupport.getAcquire(availableBuffer, index) == flag;
     }
 
     @Override
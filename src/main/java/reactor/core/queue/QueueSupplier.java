@@ -85,6 +85,24 @@ public final class QueueSupplier<T> implements Supplier<Queue<T>> {
 		return new QueueSupplier<>(batchSize, waiting, multiproducer);
 	}
 
+	/**
+	 * Returns a bounded, single-producer single-consumer {@link Queue} starting with a
+	 * small array and growing in chunks up to the given capacity, trading a few extra
+	 * allocations for a much smaller footprint when few elements are ever queued.
+	 *
+	 * @param capacity the maximum number of queued elements, rounded up to the next power
+	 * of 2
+	 * @param <T> the reified {@link Queue} generic type
+	 *
+	 * @return a bounded {@link Queue} {@link Supplier}
+	 */
+	public static <T> Supplier<Queue<T>> growable(int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+		}
+		return () -> new SpscGrowableArrayQueue<>(GROWABLE_INITIAL_CAPACITY, capacity);
+	}
+
 	/**
 	 * @param x the int to test
 	 *
@@ -175,6 +193,11 @@ public final class QueueSupplier<T> implements Supplier<Queue<T>> {
 			return WAITING_XSRB_SUPPLIER;
 		}
 	}
+	/**
+	 * Number of slots initially allocated by {@link #growable(int)} queues
+	 */
+	static final int GROWABLE_INITIAL_CAPACITY = 8;
+
 	final long    batchSize;
 	final boolean waiting;
 	final boolean multiproducer;
@@ -204,6 +227,9 @@ public final class QueueSupplier<T> implements Supplier<Queue<T>> {
 							RingBuffer .createMultiProducer((int) batchSize),
 					-1L);
 		}
+		else if (PlatformDependent.GROWABLE_QUEUES && batchSize > GROWABLE_INITIAL_CAPACITY) {
+			return new SpscGrowableArrayQueue<>(GROWABLE_INITIAL_CAPACITY, (int)batchSize);
+		}
 		else{
 			return new SpscArrayQueue<>((int)batchSize);
 		}
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.queue;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, array-backed single-producer, single-consumer queue starting with a small
+ * array and linking larger ones (doubling up to the capacity) as it fills up, so that
+ * queues which only ever hold a few elements stay small.
+ * <p>
+ * Like {@link SpscLinkedArrayQueue}, a full array is linked to the next one with a
+ * marker at the producer offset, each array using its own mask. Once an array of the
+ * full capacity is reached it is reused in place like {@link SpscArrayQueue}.
+ *
+ * @param <T> the value type
+ */
+final class SpscGrowableArrayQueue<T> extends AbstractQueue<T> {
+
+    static final Object NEXT = new Object();
+
+    final int capacity;
+
+    final int maxLinkSize;
+
+    volatile long producerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<SpscGrowableArrayQueue> PRODUCER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(SpscGrowableArrayQueue.class, "producerIndex");
+    AtomicReferenceArray<Object> producerArray;
+
+    volatile long consumerIndex;
+    @SuppressWarnings("rawtypes")
+    static final AtomicLongFieldUpdater<SpscGrowableArrayQueue> CONSUMER_INDEX =
+            AtomicLongFieldUpdater.newUpdater(SpscGrowableArrayQueue.class, "consumerIndex");
+    AtomicReferenceArray<Object> consumerArray;
+
+    public SpscGrowableArrayQueue(int initialCapacity, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity > 0 required but it was " + capacity);
+        }
+        this.capacity = QueueSupplier.ceilingNextPowerOfTwo(capacity);
+        this.maxLinkSize = Math.max(2, this.capacity);
+        int c = QueueSupplier.ceilingNextPowerOfTwo(Math.max(2, Math.min(initialCapacity, maxLinkSize)));
+        this.producerArray = this.consumerArray = new AtomicReferenceArray<>(c + 1);
+    }
+
+    @Override
+    public boolean offer(T e) {
+        Objects.requireNonNull(e);
+
+        long pi = producerIndex;
+        if (pi - consumerIndex >= capacity) {
+            return false;
+        }
+
+        AtomicReferenceArray<Object> a = producerArray;
+        int m = a.length() - 2;
+
+        int offset = (int)pi & m;
+
+        // at full size the capacity check above guarantees a free slot: wrap in place
+        // like SpscArrayQueue instead of linking a new array
+        if (m + 1 != maxLinkSize && a.get((int)(pi + 1) & m) != null) {
+            int c = Math.min((m + 1) << 1, maxLinkSize);
+
+            AtomicReferenceArray<Object> b = new AtomicReferenceArray<>(c + 1);
+            producerArray = b;
+            b.lazySet((int)pi & (c - 1), e);
+            a.lazySet(m + 1, b);
+            a.lazySet(offset, NEXT);
+        } else {
+            a.lazySet(offset, e);
+        }
+        PRODUCER_INDEX.lazySet(this, pi + 1);
+
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T poll() {
+        long ci = consumerIndex;
+        AtomicReferenceArray<Object> a = consumerArray;
+        int m = a.length() - 2;
+
+        int offset = (int)ci & m;
+
+        Object o = a.get(offset);
+
+        if (o == null) {
+            return null;
+        }
+        if (o == NEXT) {
+            AtomicReferenceArray<Object> b = (AtomicReferenceArray<Object>)a.get(m + 1);
+            a.lazySet(m + 1, null);
+            a = b;
+            consumerArray = b;
+            offset = (int)ci & (b.length() - 2);
+            o = b.get(offset);
+        }
+        a.lazySet(offset, null);
+        CONSUMER_INDEX.lazySet(this, ci + 1);
+
+        return (T)o;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T peek() {
+        long ci = consumerIndex;
+        AtomicReferenceArray<Object> a = consumerArray;
+        int m = a.length() - 2;
+
+        Object o = a.get((int)ci & m);
+
+        if (o == null) {
+            return null;
+        }
+        if (o == NEXT) {
+            a = (AtomicReferenceArray<Object>)a.get(m + 1);
+            o = a.get((int)ci & (a.length() - 2));
+        }
+
+        return (T)o;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return producerIndex == consumerIndex;
+    }
+
+    @Override
+    public int size() {
+        long ci = consumerIndex;
+        for (;;) {
+            long pi = producerIndex;
+            long ci2 = consumerIndex;
+            if (ci == ci2) {
+                return (int)(pi - ci);
+            }
+            ci = ci2;
+        }
+    }
+
+    @Override
+    public void clear() {
+        while (poll() != null && !isEmpty());
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        throw new UnsupportedOperationException();
+    }
+}
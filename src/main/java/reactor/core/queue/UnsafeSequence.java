@@ -22,21 +22,6 @@ import reactor.core.util.PlatformDependent;
 import reactor.core.util.Sequence;
 import sun.misc.Unsafe;
 
-class LhsPadding
-{
-    protected long p1, p2, p3, p4, p5, p6, p7;
-}
-
-class Value extends LhsPadding
-{
-    protected volatile long value;
-}
-
-class RhsPadding extends Value
-{
-    protected long p9, p10, p11, p12, p13, p14, p15;
-}
-
 /**
  * <p>Concurrent sequence class used for tracking the progress of
  * the ring buffer and event processors.  Support a number
@@ -115,7 +115,7 @@ final class ElasticScheduler implements Scheduler {
             return e.executor;
         }
         
-        result = Executors.newSingleThreadExecutor(factory);
+        result = new SingleThreadExecutor(factory);
         all.offer(result);
         if (shutdown) {
             all.remove(result);
@@ -236,6 +236,11 @@ final class ElasticScheduler implements Scheduler {
             return ct;
         }
 
+        @Override
+        public boolean ownsCurrentThread() {
+            return !shutdown && SingleThreadExecutor.isCurrentThread(executor);
+        }
+
         @Override
         public void shutdown() {
             if (shutdown) {
@@ -0,0 +1,373 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.scheduler;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.function.Function;
+
+import reactor.core.flow.Cancellation;
+import reactor.core.flow.Receiver;
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Introspectable;
+
+/**
+ * Decorates a {@link Scheduler} and its {@link Scheduler.Worker}s to record task
+ * latency, run time, pending tasks and active workers into a {@link SchedulerMetrics}.
+ */
+class InstrumentedScheduler implements Scheduler, Receiver, Introspectable, Backpressurable {
+
+	final Scheduler        actual;
+	final SchedulerMetrics metrics;
+
+	InstrumentedScheduler(Scheduler actual, SchedulerMetrics metrics) {
+		this.actual = Objects.requireNonNull(actual, "actual");
+		this.metrics = Objects.requireNonNull(metrics, "metrics");
+	}
+
+	@Override
+	public Cancellation schedule(Runnable task) {
+		InstrumentedTask t = new InstrumentedTask(task, metrics, null, System.nanoTime(), 0L);
+		metrics.taskSubmitted();
+		try {
+			return t.scheduled(actual.schedule(t));
+		}
+		catch (RuntimeException e) {
+			t.rejected();
+			throw e;
+		}
+	}
+
+	@Override
+	public Worker createWorker() {
+		Worker w = actual.createWorker();
+		metrics.workerCreated();
+		return new InstrumentedWorker(w, metrics);
+	}
+
+	@Override
+	public boolean ownsCurrentThread() {
+		return actual.ownsCurrentThread();
+	}
+
+	@Override
+	public void start() {
+		actual.start();
+	}
+
+	@Override
+	public void shutdown() {
+		actual.shutdown();
+	}
+
+	@Override
+	public Object upstream() {
+		return actual;
+	}
+
+	@Override
+	public String getName() {
+		return metrics.getName();
+	}
+
+	@Override
+	public long getPending() {
+		return metrics.getPendingTasks();
+	}
+
+	@Override
+	public String toString() {
+		return metrics.toString();
+	}
+
+	static class InstrumentedWorker implements Worker {
+
+		final Worker           actual;
+		final SchedulerMetrics metrics;
+
+		OpenHashSet<InstrumentedTask> tasks;
+
+		volatile boolean shutdown;
+
+		InstrumentedWorker(Worker actual, SchedulerMetrics metrics) {
+			this.actual = actual;
+			this.metrics = metrics;
+			this.tasks = new OpenHashSet<>();
+		}
+
+		@Override
+		public Cancellation schedule(Runnable task) {
+			return track(new InstrumentedTask(task, metrics, this, System.nanoTime(), 0L),
+					t -> actual.schedule(t));
+		}
+
+		@Override
+		public boolean ownsCurrentThread() {
+			return actual.ownsCurrentThread();
+		}
+
+		final Cancellation track(InstrumentedTask t,
+				Function<InstrumentedTask, Cancellation> scheduler) {
+			if (shutdown) {
+				return REJECTED;
+			}
+			synchronized (this) {
+				if (shutdown) {
+					return REJECTED;
+				}
+				tasks.add(t);
+			}
+			metrics.taskSubmitted();
+			try {
+				return t.scheduled(scheduler.apply(t));
+			}
+			catch (RuntimeException e) {
+				t.rejected();
+				throw e;
+			}
+		}
+
+		final void remove(InstrumentedTask t) {
+			if (shutdown) {
+				return;
+			}
+			synchronized (this) {
+				if (!shutdown) {
+					tasks.remove(t);
+				}
+			}
+		}
+
+		@Override
+		public void shutdown() {
+			if (shutdown) {
+				return;
+			}
+			OpenHashSet<InstrumentedTask> set;
+			synchronized (this) {
+				if (shutdown) {
+					return;
+				}
+				shutdown = true;
+				set = tasks;
+				tasks = null;
+			}
+			metrics.workerShutdown();
+			actual.shutdown();
+			set.forEach(InstrumentedTask::abandon);
+		}
+	}
+
+	static final class InstrumentedTask implements Runnable, Cancellation {
+
+		final Runnable           task;
+		final SchedulerMetrics   metrics;
+		final InstrumentedWorker parent;
+		final long               period;
+
+		/**
+		 * Next expected start in nanoseconds, only mutated by the running thread
+		 */
+		long dueTime;
+
+		Cancellation cancel;
+
+		volatile int state;
+		static final AtomicIntegerFieldUpdater<InstrumentedTask> STATE =
+				AtomicIntegerFieldUpdater.newUpdater(InstrumentedTask.class, "state");
+
+		static final int PENDING   = 0;
+		static final int STARTED   = 1;
+		static final int CANCELLED = 2;
+
+		InstrumentedTask(Runnable task,
+				SchedulerMetrics metrics,
+				InstrumentedWorker parent,
+				long dueTime,
+				long period) {
+			this.task = task;
+			this.metrics = metrics;
+			this.parent = parent;
+			this.dueTime = dueTime;
+			this.period = period;
+		}
+
+		Cancellation scheduled(Cancellation c) {
+			if (c == REJECTED) {
+				rejected();
+				return REJECTED;
+			}
+			cancel = c;
+			return this;
+		}
+
+		void rejected() {
+			if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+				metrics.taskRejected();
+				if (parent != null) {
+					parent.remove(this);
+				}
+			}
+		}
+
+		void abandon() {
+			if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+				metrics.taskCancelled();
+			}
+		}
+
+		@Override
+		public void run() {
+			long start = System.nanoTime();
+			if (state == PENDING && STATE.compareAndSet(this, PENDING, STARTED)) {
+				if (parent != null && period == 0L) {
+					parent.remove(this);
+				}
+				metrics.taskStarted(start - dueTime, true);
+			}
+			else if (period != 0L && state == STARTED) {
+				metrics.taskStarted(start - dueTime, false);
+			}
+			else {
+				return;
+			}
+			dueTime += period;
+			try {
+				task.run();
+			}
+			finally {
+				metrics.taskFinished(System.nanoTime() - start);
+			}
+		}
+
+		@Override
+		public void dispose() {
+			if (STATE.compareAndSet(this, PENDING, CANCELLED)) {
+				metrics.taskCancelled();
+			}
+			else if (period != 0L) {
+				state = CANCELLED;
+			}
+			if (parent != null) {
+				parent.remove(this);
+			}
+			Cancellation c = cancel;
+			if (c != null) {
+				c.dispose();
+			}
+		}
+	}
+
+	static final class InstrumentedTimedScheduler extends InstrumentedScheduler
+			implements TimedScheduler {
+
+		final TimedScheduler actualTimed;
+
+		InstrumentedTimedScheduler(TimedScheduler actual, SchedulerMetrics metrics) {
+			super(actual, metrics);
+			this.actualTimed = actual;
+		}
+
+		@Override
+		public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+			InstrumentedTask t = new InstrumentedTask(task,
+					metrics,
+					null,
+					System.nanoTime() + Math.max(0L, unit.toNanos(delay)),
+					0L);
+			metrics.taskSubmitted();
+			try {
+				return t.scheduled(actualTimed.schedule(t, delay, unit));
+			}
+			catch (RuntimeException e) {
+				t.rejected();
+				throw e;
+			}
+		}
+
+		@Override
+		public Cancellation schedulePeriodically(Runnable task,
+				long initialDelay,
+				long period,
+				TimeUnit unit) {
+			InstrumentedTask t = new InstrumentedTask(task,
+					metrics,
+					null,
+					System.nanoTime() + Math.max(0L, unit.toNanos(initialDelay)),
+					Math.max(1L, unit.toNanos(period)));
+			metrics.taskSubmitted();
+			try {
+				return t.scheduled(actualTimed.schedulePeriodically(t, initialDelay, period, unit));
+			}
+			catch (RuntimeException e) {
+				t.rejected();
+				throw e;
+			}
+		}
+
+		@Override
+		public long now(TimeUnit unit) {
+			return actualTimed.now(unit);
+		}
+
+		@Override
+		public TimedWorker createWorker() {
+			TimedWorker w = actualTimed.createWorker();
+			metrics.workerCreated();
+			return new InstrumentedTimedWorker(w, metrics);
+		}
+	}
+
+	static final class InstrumentedTimedWorker extends InstrumentedWorker
+			implements TimedScheduler.TimedWorker {
+
+		final TimedScheduler.TimedWorker actualTimed;
+
+		InstrumentedTimedWorker(TimedScheduler.TimedWorker actual, SchedulerMetrics metrics) {
+			super(actual, metrics);
+			this.actualTimed = actual;
+		}
+
+		@Override
+		public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+			return track(new InstrumentedTask(task,
+					metrics,
+					this,
+					System.nanoTime() + Math.max(0L, unit.toNanos(delay)),
+					0L), t -> actualTimed.schedule(t, delay, unit));
+		}
+
+		@Override
+		public Cancellation schedulePeriodically(Runnable task,
+				long initialDelay,
+				long period,
+				TimeUnit unit) {
+			return track(new InstrumentedTask(task,
+					metrics,
+					this,
+					System.nanoTime() + Math.max(0L, unit.toNanos(initialDelay)),
+					Math.max(1L, unit.toNanos(period))),
+					t -> actualTimed.schedulePeriodically(t, initialDelay, period, unit));
+		}
+
+		@Override
+		public long now(TimeUnit unit) {
+			return actualTimed.now(unit);
+		}
+	}
+}
@@ -66,7 +66,7 @@ final class ParallelScheduler implements Scheduler, Completable {
     void init(int n) {
         ExecutorService[] a = new ExecutorService[n];
         for (int i = 0; i < n; i++) {
-            a[i] = Executors.newSingleThreadExecutor(factory);
+            a[i] = new SingleThreadExecutor(factory);
         }
         EXECUTORS.lazySet(this, a);
     }
@@ -98,7 +98,7 @@ final class ParallelScheduler implements Scheduler, Completable {
             if (b == null) {
                 b = new ExecutorService[n];
                 for (int i = 0; i < n; i++) {
-                    b[i] = Executors.newSingleThreadExecutor(factory);
+                    b[i] = new SingleThreadExecutor(factory);
                 }
             }
             
@@ -144,6 +144,16 @@ final class ParallelScheduler implements Scheduler, Completable {
         return () -> f.cancel(true);
     }
 
+    @Override
+    public boolean ownsCurrentThread() {
+        for (ExecutorService exec : executors) {
+            if (SingleThreadExecutor.isCurrentThread(exec)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Worker createWorker() {
         return new ParallelWorker(pick());
@@ -194,6 +204,11 @@ final class ParallelScheduler implements Scheduler, Completable {
             return pw;
         }
 
+        @Override
+        public boolean ownsCurrentThread() {
+            return !shutdown && SingleThreadExecutor.isCurrentThread(exec);
+        }
+
         @Override
         public void shutdown() {
             if (shutdown) {
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.scheduler;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Introspectable;
+
+/**
+ * A token bucket refilled at a constant rate on the clock of a {@link TimedScheduler},
+ * holding up to {@code burst} permits, as used by {@link
+ * reactor.core.publisher.Flux#rateLimit(RateLimiter)} to shape its requests.
+ * <p>
+ * Permits are acquired without locking or blocking. A single {@link RateLimiter} can be
+ * shared by several sequences to respect a global quota, e.g. the rate limit of a remote
+ * API called from many places.
+ *
+ * @since 2.5
+ */
+public final class RateLimiter implements Introspectable, Backpressurable {
+
+	/**
+	 * Create a new {@link RateLimiter} starting with a full bucket.
+	 *
+	 * @param permitsPerSecond the refill rate
+	 * @param burst the maximum number of permits that can be acquired at once after an
+	 * idle period
+	 * @param timer the {@link TimedScheduler} whose clock measures the refill
+	 *
+	 * @return a new {@link RateLimiter}
+	 */
+	public static RateLimiter create(double permitsPerSecond, int burst, TimedScheduler timer) {
+		return new RateLimiter(permitsPerSecond, burst, timer);
+	}
+
+	final TimedScheduler timer;
+	final long           interval;
+	final int            burst;
+
+	/**
+	 * Time at which the bucket is empty, permits being available for each {@code
+	 * interval} elapsed since
+	 */
+	volatile long emptyTime;
+	static final AtomicLongFieldUpdater<RateLimiter> EMPTY_TIME =
+			AtomicLongFieldUpdater.newUpdater(RateLimiter.class, "emptyTime");
+
+	RateLimiter(double permitsPerSecond, int burst, TimedScheduler timer) {
+		if (!(permitsPerSecond > 0d) || permitsPerSecond > 1_000_000_000d) {
+			throw new IllegalArgumentException("permitsPerSecond in ]0, 1e9] required but it was " + permitsPerSecond);
+		}
+		if (burst <= 0) {
+			throw new IllegalArgumentException("burst > 0 required but it was " + burst);
+		}
+		this.timer = Objects.requireNonNull(timer, "timer");
+		this.interval = Math.max(1L, Math.round(1_000_000_000d / permitsPerSecond));
+		this.burst = burst;
+		this.emptyTime = timer.now(TimeUnit.NANOSECONDS) - burst * interval;
+	}
+
+	/**
+	 * Acquire up to {@code n} permits if available.
+	 *
+	 * @param n the number of permits wanted
+	 *
+	 * @return the number of permits acquired, between 0 and {@code n}
+	 */
+	public long tryAcquire(long n) {
+		if (n <= 0L) {
+			return 0L;
+		}
+		for (; ; ) {
+			long now = timer.now(TimeUnit.NANOSECONDS);
+			long e = emptyTime;
+			long base = Math.max(e, now - burst * interval);
+			long available = (now - base) / interval;
+			if (available <= 0L) {
+				return 0L;
+			}
+			long k = Math.min(n, available);
+			if (EMPTY_TIME.compareAndSet(this, e, base + k * interval)) {
+				return k;
+			}
+		}
+	}
+
+	/**
+	 * @return the delay in nanoseconds until the next permit is available, 0 if a permit
+	 * can be acquired now
+	 */
+	public long nanosUntilAvailable() {
+		long now = timer.now(TimeUnit.NANOSECONDS);
+		long base = Math.max(emptyTime, now - burst * interval);
+		return Math.max(0L, base + interval - now);
+	}
+
+	/**
+	 * @return the {@link TimedScheduler} whose clock measures the refill
+	 */
+	public TimedScheduler getTimer() {
+		return timer;
+	}
+
+	/**
+	 * @return the interval in nanoseconds between two permits
+	 */
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * @return the maximum number of permits the bucket holds
+	 */
+	@Override
+	public long getCapacity() {
+		return burst;
+	}
+
+	/**
+	 * @return the number of permits currently available
+	 */
+	@Override
+	public long getPending() {
+		long now = timer.now(TimeUnit.NANOSECONDS);
+		return (now - Math.max(emptyTime, now - burst * interval)) / interval;
+	}
+}
@@ -73,6 +73,17 @@ public interface Scheduler {
 	default void shutdown() {
 		
 	}
+
+	/**
+	 * Returns true if the calling thread is one of the threads this Scheduler executes
+	 * its tasks on. An operator already running on such a thread may execute its work
+	 * inline instead of going through {@link #schedule(Runnable)}.
+	 *
+	 * @return true if the calling thread belongs to this Scheduler
+	 */
+	default boolean ownsCurrentThread() {
+		return false;
+	}
 	
 	/**
 	 * A worker representing an asynchronous boundary that executes tasks in
@@ -94,6 +105,17 @@ public interface Scheduler {
 		 * release any resources associated with it.
 		 */
 		void shutdown();
+
+		/**
+		 * Returns true if the calling thread is the thread this worker executes its
+		 * tasks on. An operator with no task pending on this worker and already running
+		 * on that thread may execute its work inline instead of scheduling it.
+		 *
+		 * @return true if the calling thread is the thread of this worker
+		 */
+		default boolean ownsCurrentThread() {
+			return false;
+		}
 	}
 	
 	/**
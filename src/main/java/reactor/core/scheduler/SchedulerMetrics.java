@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.scheduler;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Introspectable;
+import reactor.core.util.Histogram;
+
+/**
+ * Activity recorded by a {@link Scheduler} decorated with {@link
+ * Schedulers#instrument(Scheduler, SchedulerMetrics)}: enqueue-to-start latency and run
+ * time histograms (in nanoseconds), pending and running tasks and live workers.
+ * <p>
+ * A single {@link SchedulerMetrics} can be shared by several instrumented schedulers to
+ * aggregate their activity.
+ *
+ * @since 2.5
+ */
+public final class SchedulerMetrics implements Introspectable, Backpressurable {
+
+	final String name;
+
+	final Histogram taskLatency  = new Histogram();
+	final Histogram taskDuration = new Histogram();
+
+	volatile long pendingTasks;
+	static final AtomicLongFieldUpdater<SchedulerMetrics> PENDING_TASKS =
+			AtomicLongFieldUpdater.newUpdater(SchedulerMetrics.class, "pendingTasks");
+
+	volatile long activeTasks;
+	static final AtomicLongFieldUpdater<SchedulerMetrics> ACTIVE_TASKS =
+			AtomicLongFieldUpdater.newUpdater(SchedulerMetrics.class, "activeTasks");
+
+	volatile long activeWorkers;
+	static final AtomicLongFieldUpdater<SchedulerMetrics> ACTIVE_WORKERS =
+			AtomicLongFieldUpdater.newUpdater(SchedulerMetrics.class, "activeWorkers");
+
+	volatile long completedTasks;
+	static final AtomicLongFieldUpdater<SchedulerMetrics> COMPLETED_TASKS =
+			AtomicLongFieldUpdater.newUpdater(SchedulerMetrics.class, "completedTasks");
+
+	volatile long rejectedTasks;
+	static final AtomicLongFieldUpdater<SchedulerMetrics> REJECTED_TASKS =
+			AtomicLongFieldUpdater.newUpdater(SchedulerMetrics.class, "rejectedTasks");
+
+	/**
+	 * Create a new {@link SchedulerMetrics} identified by the given name.
+	 *
+	 * @param name the metrics name, usually matching the instrumented scheduler
+	 */
+	public SchedulerMetrics(String name) {
+		this.name = Objects.requireNonNull(name, "name");
+	}
+
+	/**
+	 * @return the delay in nanoseconds between a task submission (or its due time for
+	 * delayed tasks) and the start of its execution
+	 */
+	public Histogram getTaskLatency() {
+		return taskLatency;
+	}
+
+	/**
+	 * @return the execution time in nanoseconds of the tasks
+	 */
+	public Histogram getTaskDuration() {
+		return taskDuration;
+	}
+
+	/**
+	 * @return the number of submitted tasks not yet started nor cancelled
+	 */
+	public long getPendingTasks() {
+		return pendingTasks;
+	}
+
+	/**
+	 * @return the number of tasks currently running
+	 */
+	public long getActiveTasks() {
+		return activeTasks;
+	}
+
+	/**
+	 * @return the number of workers created and not yet shut down
+	 */
+	public long getActiveWorkers() {
+		return activeWorkers;
+	}
+
+	/**
+	 * @return the number of task executions that have finished
+	 */
+	public long getCompletedTasks() {
+		return completedTasks;
+	}
+
+	/**
+	 * @return the number of tasks rejected by a shut down scheduler or worker
+	 */
+	public long getRejectedTasks() {
+		return rejectedTasks;
+	}
+
+	@Override
+	public long getPending() {
+		return pendingTasks;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public String toString() {
+		return "SchedulerMetrics{" +
+				"name='" + name + '\'' +
+				", pendingTasks=" + pendingTasks +
+				", activeTasks=" + activeTasks +
+				", activeWorkers=" + activeWorkers +
+				", completedTasks=" + completedTasks +
+				", rejectedTasks=" + rejectedTasks +
+				", taskLatency=" + taskLatency +
+				", taskDuration=" + taskDuration +
+				'}';
+	}
+
+	void taskSubmitted() {
+		PENDING_TASKS.getAndIncrement(this);
+	}
+
+	void taskRejected() {
+		PENDING_TASKS.getAndDecrement(this);
+		REJECTED_TASKS.getAndIncrement(this);
+	}
+
+	void taskCancelled() {
+		PENDING_TASKS.getAndDecrement(this);
+	}
+
+	void taskStarted(long latency, boolean pending) {
+		if (pending) {
+			PENDING_TASKS.getAndDecrement(this);
+		}
+		ACTIVE_TASKS.getAndIncrement(this);
+		taskLatency.record(latency);
+	}
+
+	void taskFinished(long duration) {
+		ACTIVE_TASKS.getAndDecrement(this);
+		COMPLETED_TASKS.getAndIncrement(this);
+		taskDuration.record(duration);
+	}
+
+	void workerCreated() {
+		ACTIVE_WORKERS.getAndIncrement(this);
+	}
+
+	void workerShutdown() {
+		ACTIVE_WORKERS.getAndDecrement(this);
+	}
+}
@@ -128,6 +128,41 @@ public class Schedulers {
 		return ImmediateScheduler.instance();
 	}
 
+	/**
+	 * Decorate a {@link Scheduler} and its {@link Scheduler.Worker}s to record
+	 * enqueue-to-start latency, run time, pending tasks and active workers into the
+	 * given {@link SchedulerMetrics}.
+	 * <p>
+	 * Instrumentation is opt-in and adds a task wrapper and a few atomic updates per
+	 * scheduled task. Lifecycle methods are delegated to the original {@link Scheduler}.
+	 *
+	 * @param scheduler the {@link Scheduler} to instrument
+	 * @param metrics the {@link SchedulerMetrics} to record into
+	 *
+	 * @return an instrumented {@link Scheduler}
+	 */
+	public static Scheduler instrument(Scheduler scheduler, SchedulerMetrics metrics) {
+		if (scheduler instanceof TimedScheduler) {
+			return instrument((TimedScheduler) scheduler, metrics);
+		}
+		return new InstrumentedScheduler(scheduler, metrics);
+	}
+
+	/**
+	 * Decorate a {@link TimedScheduler} and its {@link TimedScheduler.TimedWorker}s to
+	 * record enqueue-to-start latency, run time, pending tasks and active workers into
+	 * the given {@link SchedulerMetrics}. The latency of delayed and periodic tasks is
+	 * measured from their due time.
+	 *
+	 * @param scheduler the {@link TimedScheduler} to instrument
+	 * @param metrics the {@link SchedulerMetrics} to record into
+	 *
+	 * @return an instrumented {@link TimedScheduler}
+	 */
+	public static TimedScheduler instrument(TimedScheduler scheduler, SchedulerMetrics metrics) {
+		return new InstrumentedScheduler.InstrumentedTimedScheduler(scheduler, metrics);
+	}
+
 	/**
 	 * {@link Scheduler} that hosts a fixed pool of single-threaded Event Loop based
 	 * workers and is suited for non blocking work.
@@ -651,6 +686,11 @@ public class Schedulers {
 			return cached.createWorker();
 		}
 
+		@Override
+		public boolean ownsCurrentThread() {
+			return cached.ownsCurrentThread();
+		}
+
 		@Override
 		public void start() {
 			cached.start();
@@ -53,7 +53,7 @@ final class SingleScheduler implements Scheduler {
     }
     
     private void init() {
-        EXECUTORS.lazySet(this, Executors.newSingleThreadExecutor(factory));
+        EXECUTORS.lazySet(this, new SingleThreadExecutor(factory));
     }
     
     public boolean isStarted() {
@@ -73,7 +73,7 @@ final class SingleScheduler implements Scheduler {
             }
 
             if (b == null) {
-                b = Executors.newSingleThreadExecutor(factory);
+                b = new SingleThreadExecutor(factory);
             }
             
             if (EXECUTORS.compareAndSet(this, a, b)) {
@@ -104,6 +104,11 @@ final class SingleScheduler implements Scheduler {
         }
     }
 
+    @Override
+    public boolean ownsCurrentThread() {
+        return SingleThreadExecutor.isCurrentThread(executor);
+    }
+
     @Override
     public Worker createWorker() {
         return new SingleWorker(executor);
@@ -154,6 +159,11 @@ final class SingleScheduler implements Scheduler {
             return pw;
         }
 
+        @Override
+        public boolean ownsCurrentThread() {
+            return !shutdown && SingleThreadExecutor.isCurrentThread(exec);
+        }
+
         @Override
         public void shutdown() {
             if (shutdown) {
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.scheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A single-threaded {@link ThreadPoolExecutor} remembering the thread it runs its tasks
+ * on, so that Schedulers and Workers backed by it can tell whether the caller is
+ * already executing on that thread.
+ */
+final class SingleThreadExecutor extends ThreadPoolExecutor {
+
+    volatile Thread thread;
+
+    SingleThreadExecutor(ThreadFactory factory) {
+        super(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), factory);
+    }
+
+    /**
+     * @param exec the executor to check
+     * @return true if the given executor is a {@link SingleThreadExecutor} whose thread
+     * is the calling thread
+     */
+    static boolean isCurrentThread(ExecutorService exec) {
+        return exec instanceof SingleThreadExecutor && ((SingleThreadExecutor) exec).thread == Thread.currentThread();
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (thread != t) {
+            thread = t;
+        }
+    }
+}
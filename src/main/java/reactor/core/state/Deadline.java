@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.state;
+
+import reactor.core.flow.Producer;
+
+/**
+ * A subscriber giving up on its subscription after a given point in time. Upstream
+ * components doing work on behalf of such subscriber can look it up with {@link
+ * #find(Object)} and check {@link #isExpired()} before processing an element, dropping
+ * work nobody is waiting for anymore.
+ * <p>
+ * Asynchronous boundaries look the deadline up once per subscription and relay it to
+ * their own upstream by implementing this interface and returning it from {@link
+ * #resolve()}, which bounds every lookup to the operators between two boundaries.
+ */
+public interface Deadline {
+
+	/**
+	 * Maximum number of {@link Producer#downstream()} hops walked by {@link #find(Object)}
+	 */
+	int MAX_HOPS = 64;
+
+	/**
+	 * Find the closest {@link Deadline} in the downstream chain of the given component,
+	 * following {@link Producer#downstream()} links up to the first component which
+	 * either is a {@link Deadline} or is not a {@link Producer}.
+	 *
+	 * @param downstream the component to start looking from, usually a {@link
+	 * org.reactivestreams.Subscriber}
+	 *
+	 * @return the closest {@link Deadline} or null if none is found
+	 */
+	static Deadline find(Object downstream) {
+		Object o = downstream;
+		for (int i = 0; i < MAX_HOPS && o != null; i++) {
+			if (o instanceof Deadline) {
+				return ((Deadline) o).resolve();
+			}
+			if (!(o instanceof Producer)) {
+				return null;
+			}
+			Object next = ((Producer) o).downstream();
+			if (next == o) {
+				return null;
+			}
+			o = next;
+		}
+		return null;
+	}
+
+	/**
+	 * Check the deadline without acting on it, the owner of the deadline being in charge
+	 * of terminating its subscription once it passes.
+	 *
+	 * @return true if the deadline has passed and pending work can be dropped
+	 */
+	boolean isExpired();
+
+	/**
+	 * Return the {@link Deadline} to check on behalf of this component, a relay
+	 * returning the one it found downstream.
+	 *
+	 * @return the {@link Deadline} to check or null if there is none
+	 */
+	default Deadline resolve() {
+		return this;
+	}
+}
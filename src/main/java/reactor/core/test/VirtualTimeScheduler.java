@@ -0,0 +1,350 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.test;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import reactor.core.flow.Cancellation;
+import reactor.core.scheduler.TimedScheduler;
+import reactor.core.state.Backpressurable;
+import reactor.core.util.Exceptions;
+
+/**
+ * A {@link TimedScheduler} whose clock only moves when instructed to, e.g. via {@link
+ * #advanceTimeBy(Duration)}. Due tasks are executed on the thread advancing the clock
+ * (or scheduling a non-delayed task), in due time order and in FIFO order for tasks due
+ * at the same time.
+ * <p>
+ * This allows time-based operators such as {@link reactor.core.publisher.Flux#interval}
+ * or {@link reactor.core.publisher.Mono#delay} to be driven deterministically, replaying
+ * hours of virtual time in a few milliseconds. Time-aware {@link
+ * reactor.core.publisher.Flux} operators can pick it up with {@link
+ * reactor.core.publisher.Flux#useTimer(TimedScheduler)}.
+ *
+ * <pre>
+ * {@code
+ * VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+ * TestSubscriber<Long> ts = TestSubscriber.subscribe(Flux.interval(Duration.ofHours(1), vts));
+ * vts.advanceTimeBy(Duration.ofDays(1));
+ * ts.assertValueCount(24);
+ * }
+ * </pre>
+ *
+ * @since 2.5
+ */
+public class VirtualTimeScheduler implements TimedScheduler, Backpressurable {
+
+	/**
+	 * Create a new {@link VirtualTimeScheduler} whose clock starts at 0.
+	 *
+	 * @return a new {@link VirtualTimeScheduler}
+	 */
+	public static VirtualTimeScheduler create() {
+		return new VirtualTimeScheduler();
+	}
+
+	final PriorityBlockingQueue<TimedTask> queue = new PriorityBlockingQueue<>();
+
+	volatile long nanoTime;
+
+	volatile long targetTime;
+	static final AtomicLongFieldUpdater<VirtualTimeScheduler> TARGET_TIME =
+			AtomicLongFieldUpdater.newUpdater(VirtualTimeScheduler.class, "targetTime");
+
+	volatile long counter;
+	static final AtomicLongFieldUpdater<VirtualTimeScheduler> COUNTER =
+			AtomicLongFieldUpdater.newUpdater(VirtualTimeScheduler.class, "counter");
+
+	volatile int wip;
+	static final AtomicIntegerFieldUpdater<VirtualTimeScheduler> WIP =
+			AtomicIntegerFieldUpdater.newUpdater(VirtualTimeScheduler.class, "wip");
+
+	volatile boolean shutdown;
+
+	protected VirtualTimeScheduler() {
+	}
+
+	/**
+	 * Execute the tasks due at the current virtual time, without moving the clock.
+	 */
+	public void advanceTime() {
+		drain();
+	}
+
+	/**
+	 * Move the virtual clock forward by the given amount and execute all tasks due
+	 * until then, including tasks scheduled by those tasks.
+	 *
+	 * @param delayTime the amount of virtual time to move forward
+	 */
+	public void advanceTimeBy(Duration delayTime) {
+		advanceTimeBy(delayTime.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Move the virtual clock forward by the given amount and execute all tasks due
+	 * until then, including tasks scheduled by those tasks.
+	 *
+	 * @param delayTime the amount of virtual time to move forward
+	 * @param unit the unit of the amount
+	 */
+	public void advanceTimeBy(long delayTime, TimeUnit unit) {
+		if (delayTime < 0L) {
+			throw new IllegalArgumentException("delayTime >= 0 required but it was " + delayTime);
+		}
+		long delta = unit.toNanos(delayTime);
+		for (; ; ) {
+			long t = targetTime;
+			long u = t + delta;
+			if (u < 0L) {
+				u = Long.MAX_VALUE;
+			}
+			if (TARGET_TIME.compareAndSet(this, t, u)) {
+				break;
+			}
+		}
+		drain();
+	}
+
+	/**
+	 * Move the virtual clock forward to the given absolute time and execute all tasks
+	 * due until then. Does nothing if the clock is already past the given time.
+	 *
+	 * @param targetTime the absolute virtual time to reach
+	 * @param unit the unit of the time value
+	 */
+	public void advanceTimeTo(long targetTime, TimeUnit unit) {
+		long target = unit.toNanos(targetTime);
+		for (; ; ) {
+			long t = this.targetTime;
+			if (t >= target || TARGET_TIME.compareAndSet(this, t, target)) {
+				break;
+			}
+		}
+		drain();
+	}
+
+	@Override
+	public long now(TimeUnit unit) {
+		return unit.convert(nanoTime, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public Cancellation schedule(Runnable task) {
+		return schedule(task, 0L, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+		return enqueue(new TimedTask(this, null, task, delay, 0L, unit));
+	}
+
+	@Override
+	public Cancellation schedulePeriodically(Runnable task,
+			long initialDelay,
+			long period,
+			TimeUnit unit) {
+		return enqueue(new TimedTask(this, null, task, initialDelay, Math.max(1L, period), unit));
+	}
+
+	@Override
+	public TimedWorker createWorker() {
+		return new VirtualTimeWorker(this);
+	}
+
+	@Override
+	public void start() {
+		shutdown = false;
+	}
+
+	@Override
+	public void shutdown() {
+		shutdown = true;
+		queue.clear();
+	}
+
+	/**
+	 * @return the number of scheduled tasks not yet executed or cancelled, including
+	 * periodic tasks
+	 */
+	@Override
+	public long getPending() {
+		return queue.size();
+	}
+
+	Cancellation enqueue(TimedTask task) {
+		if (shutdown) {
+			return REJECTED;
+		}
+		queue.offer(task);
+		drain();
+		return task;
+	}
+
+	long nextSequence() {
+		return COUNTER.getAndIncrement(this);
+	}
+
+	void drain() {
+		if (WIP.getAndIncrement(this) != 0) {
+			return;
+		}
+		int missed = 1;
+		for (; ; ) {
+			long target = targetTime;
+			for (; ; ) {
+				TimedTask t = queue.peek();
+				if (t == null || t.time > target) {
+					break;
+				}
+				t = queue.poll();
+				if (t == null) {
+					break;
+				}
+				if (t.time > nanoTime) {
+					nanoTime = t.time;
+				}
+				t.run();
+			}
+			if (nanoTime < target) {
+				nanoTime = target;
+			}
+
+			missed = WIP.addAndGet(this, -missed);
+			if (missed == 0) {
+				break;
+			}
+		}
+	}
+
+	static final class TimedTask implements Runnable, Cancellation, Comparable<TimedTask> {
+
+		final VirtualTimeScheduler parent;
+		final VirtualTimeWorker    worker;
+		final Runnable             task;
+		final long                 period;
+
+		long time;
+		long sequence;
+
+		volatile boolean cancelled;
+
+		TimedTask(VirtualTimeScheduler parent,
+				VirtualTimeWorker worker,
+				Runnable task,
+				long delay,
+				long period,
+				TimeUnit unit) {
+			this.parent = parent;
+			this.worker = worker;
+			this.task = Objects.requireNonNull(task, "task");
+			this.period = unit.toNanos(period);
+			long now = parent.nanoTime;
+			long due = now + Math.max(0L, unit.toNanos(delay));
+			this.time = due < now ? Long.MAX_VALUE : due;
+			this.sequence = parent.nextSequence();
+		}
+
+		@Override
+		public void run() {
+			if (cancelled || (worker != null && worker.shutdown)) {
+				return;
+			}
+			try {
+				task.run();
+			}
+			catch (Throwable e) {
+				Exceptions.throwIfFatal(e);
+				Exceptions.onErrorDropped(e);
+			}
+			if (period != 0L && !cancelled && !parent.shutdown) {
+				time += period;
+				sequence = parent.nextSequence();
+				parent.queue.offer(this);
+			}
+		}
+
+		@Override
+		public void dispose() {
+			if (!cancelled) {
+				cancelled = true;
+				parent.queue.remove(this);
+			}
+		}
+
+		@Override
+		public int compareTo(TimedTask o) {
+			int c = Long.compare(time, o.time);
+			return c != 0 ? c : Long.compare(sequence, o.sequence);
+		}
+	}
+
+	static final class VirtualTimeWorker implements TimedWorker {
+
+		final VirtualTimeScheduler parent;
+
+		volatile boolean shutdown;
+
+		VirtualTimeWorker(VirtualTimeScheduler parent) {
+			this.parent = parent;
+		}
+
+		@Override
+		public Cancellation schedule(Runnable task) {
+			return schedule(task, 0L, TimeUnit.NANOSECONDS);
+		}
+
+		@Override
+		public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+			if (shutdown) {
+				return REJECTED;
+			}
+			return parent.enqueue(new TimedTask(parent, this, task, delay, 0L, unit));
+		}
+
+		@Override
+		public Cancellation schedulePeriodically(Runnable task,
+				long initialDelay,
+				long period,
+				TimeUnit unit) {
+			if (shutdown) {
+				return REJECTED;
+			}
+			return parent.enqueue(new TimedTask(parent,
+					this,
+					task,
+					initialDelay,
+					Math.max(1L, period),
+					unit));
+		}
+
+		@Override
+		public long now(TimeUnit unit) {
+			return parent.now(unit);
+		}
+
+		@Override
+		public void shutdown() {
+			shutdown = true;
+		}
+	}
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.util;
+
+import java.time.Duration;
+
+import reactor.core.state.Backpressurable;
+import reactor.core.state.Introspectable;
+
+/**
+ * An algorithm adjusting a concurrency limit from the latency and outcome of the
+ * operations it admits, as used by {@link reactor.core.publisher.Flux#flatMap(java.util.function.Function,
+ * ConcurrencyLimit, int)} to bound its in-flight inner sequences.
+ * <p>
+ * Implementations must be thread-safe. A single instance can be shared by several
+ * sequences calling the same backend, to converge on a limit for that backend as a
+ * whole.
+ *
+ * @since 2.5
+ */
+public abstract class ConcurrencyLimit implements Introspectable, Backpressurable {
+
+	/**
+	 * Additive increase, multiplicative decrease: the limit grows by one after each
+	 * successful operation observed while saturated, and is multiplied by {@code
+	 * backoffRatio} after a failure or an operation slower than {@code timeout}.
+	 *
+	 * @param initialLimit the starting limit
+	 * @param minLimit the lowest limit
+	 * @param maxLimit the highest limit
+	 * @param backoffRatio the factor in ]0, 1[ applied to the limit on failure
+	 * @param timeout the latency above which an operation counts as a failure
+	 *
+	 * @return a new AIMD {@link ConcurrencyLimit}
+	 */
+	public static ConcurrencyLimit aimd(int initialLimit,
+			int minLimit,
+			int maxLimit,
+			double backoffRatio,
+			Duration timeout) {
+		return new Aimd(initialLimit, minLimit, maxLimit, backoffRatio, timeout.toNanos());
+	}
+
+	/**
+	 * Additive increase, multiplicative decrease from 1 to {@code maxLimit}, backing off
+	 * by 10% on failure.
+	 *
+	 * @param initialLimit the starting limit
+	 * @param maxLimit the highest limit
+	 *
+	 * @return a new AIMD {@link ConcurrencyLimit}
+	 *
+	 * @see #aimd(int, int, int, double, Duration)
+	 */
+	public static ConcurrencyLimit aimd(int initialLimit, int maxLimit) {
+		return new Aimd(initialLimit, 1, maxLimit, 0.9d, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Latency gradient (Vegas-like): the limit follows the ratio between the lowest
+	 * observed latency and the current latency, plus a queue allowance of the square
+	 * root of the limit, so that it shrinks as soon as queueing inflates latency.
+	 *
+	 * @param initialLimit the starting limit
+	 * @param minLimit the lowest limit
+	 * @param maxLimit the highest limit
+	 *
+	 * @return a new gradient {@link ConcurrencyLimit}
+	 */
+	public static ConcurrencyLimit gradient(int initialLimit, int minLimit, int maxLimit) {
+		return new Gradient(initialLimit, minLimit, maxLimit);
+	}
+
+	final int minLimit;
+	final int maxLimit;
+
+	protected ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+		if (minLimit <= 0) {
+			throw new IllegalArgumentException("minLimit > 0 required but it was " + minLimit);
+		}
+		if (maxLimit < minLimit) {
+			throw new IllegalArgumentException("maxLimit >= minLimit required but it was " + maxLimit);
+		}
+		if (initialLimit < minLimit || initialLimit > maxLimit) {
+			throw new IllegalArgumentException("initialLimit in [minLimit, maxLimit] required but it was " + initialLimit);
+		}
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+	}
+
+	/**
+	 * @return the current number of operations allowed in flight
+	 */
+	public abstract int getLimit();
+
+	/**
+	 * Record the outcome of an operation.
+	 *
+	 * @param latency the operation latency in nanoseconds
+	 * @param inFlight the number of operations in flight when it started
+	 * @param dropped true if the operation failed
+	 */
+	public abstract void onSample(long latency, int inFlight, boolean dropped);
+
+	/**
+	 * @return the lowest limit
+	 */
+	public final int getMinLimit() {
+		return minLimit;
+	}
+
+	/**
+	 * @return the highest limit
+	 */
+	public final int getMaxLimit() {
+		return maxLimit;
+	}
+
+	/**
+	 * @return the current limit
+	 */
+	@Override
+	public long getCapacity() {
+		return getLimit();
+	}
+
+	@Override
+	public String toString() {
+		return getName() + "{limit=" + getLimit() + ", min=" + minLimit + ", max=" + maxLimit + "}";
+	}
+
+	final int clamp(double limit) {
+		return (int) Math.max(minLimit, Math.min(maxLimit, limit));
+	}
+
+	static final class Aimd extends ConcurrencyLimit {
+
+		final double backoffRatio;
+		final long   timeout;
+
+		volatile int limit;
+
+		Aimd(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long timeout) {
+			super(initialLimit, minLimit, maxLimit);
+			if (backoffRatio <= 0d || backoffRatio >= 1d) {
+				throw new IllegalArgumentException("backoffRatio in ]0, 1[ required but it was " + backoffRatio);
+			}
+			if (timeout <= 0L) {
+				throw new IllegalArgumentException("timeout > 0 required but it was " + timeout);
+			}
+			this.backoffRatio = backoffRatio;
+			this.timeout = timeout;
+			this.limit = initialLimit;
+		}
+
+		@Override
+		public int getLimit() {
+			return limit;
+		}
+
+		@Override
+		public synchronized void onSample(long latency, int inFlight, boolean dropped) {
+			int l = limit;
+			if (dropped || latency > timeout) {
+				limit = clamp(l * backoffRatio);
+			}
+			else if (inFlight >= l) {
+				limit = clamp(l + 1);
+			}
+		}
+	}
+
+	static final class Gradient extends ConcurrencyLimit {
+
+		static final double SMOOTHING = 0.2d;
+
+		/**
+		 * Guarded by this limit's monitor
+		 */
+		double estimate;
+		long   minLatency = Long.MAX_VALUE;
+
+		volatile int limit;
+
+		Gradient(int initialLimit, int minLimit, int maxLimit) {
+			super(initialLimit, minLimit, maxLimit);
+			this.estimate = initialLimit;
+			this.limit = initialLimit;
+		}
+
+		@Override
+		public int getLimit() {
+			return limit;
+		}
+
+		@Override
+		public synchronized void onSample(long latency, int inFlight, boolean dropped) {
+			double e = estimate;
+			double next;
+			if (dropped) {
+				next = e / 2d;
+			}
+			else {
+				long l = Math.max(1L, latency);
+				if (l < minLatency) {
+					minLatency = l;
+				}
+				// only grow when the limit is actually being used
+				if (inFlight < e / 2d) {
+					return;
+				}
+				double gradient = Math.max(0.5d, Math.min(1d, (double) minLatency / l));
+				next = e * gradient + Math.sqrt(e);
+			}
+			e = Math.max(minLimit, Math.min(maxLimit, e * (1d - SMOOTHING) + next * SMOOTHING));
+			estimate = e;
+			limit = clamp(e);
+		}
+	}
+}
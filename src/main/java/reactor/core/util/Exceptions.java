@@ -129,6 +129,17 @@ public enum Exceptions {
 				InsufficientCapacityException.INSTANCE;
 	}
 
+	/**
+	 * Return a new {@link BackpressureException}, whose stack trace is only captured if
+	 * {@link PlatformDependent#TRACE_BACKPRESSURE} is set.
+	 *
+	 * @param message the detail message
+	 * @return a new {@link BackpressureException}
+	 */
+	public static BackpressureException failWithBackpressure(String message) {
+		return new BackpressureException(message);
+	}
+
 	/**
 	 * @param elements the invalid requested demand
 	 * @return a new {@link IllegalArgumentException} with a cause message abiding to reactive stream specification.
@@ -354,4 +365,23 @@ public enum Exceptions {
 		}
 
 	}
+
+	/**
+	 * An {@link IllegalStateException} signalling a backpressure violation, such as a value that can't be emitted
+	 * due to lack of requests or can't be queued in a full queue.
+	 */
+	public static final class BackpressureException extends IllegalStateException {
+
+		private static final long serialVersionUID = 2491425227432776146L;
+
+		BackpressureException(String message) {
+			super(message);
+		}
+
+		@Override
+		public synchronized Throwable fillInStackTrace() {
+			return PlatformDependent.TRACE_BACKPRESSURE ? super.fillInStackTrace() : this;
+		}
+
+	}
 }
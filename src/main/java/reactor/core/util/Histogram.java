@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package reactor.core.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * A lock-free, fixed-footprint histogram of positive {@code long} values, typically
+ * nanosecond latencies.
+ * <p>
+ * Values are recorded in log-linear buckets in the spirit of HdrHistogram : each
+ * power-of-two range is split into {@link #SUB_BUCKETS} linear sub-buckets, bounding
+ * the relative error of any reported value to about 3% while {@link #record(long)}
+ * costs a couple of atomic increments and no allocation.
+ *
+ * @since 2.5
+ */
+public final class Histogram {
+
+	static final int PRECISION_BITS = 5;
+
+	/**
+	 * Number of linear sub-buckets per power-of-two magnitude
+	 */
+	public static final int SUB_BUCKETS = 1 << PRECISION_BITS;
+
+	static final int BUCKETS = (64 - PRECISION_BITS) * SUB_BUCKETS;
+
+	final AtomicLongArray counts;
+
+	volatile long count;
+	static final AtomicLongFieldUpdater<Histogram> COUNT =
+			AtomicLongFieldUpdater.newUpdater(Histogram.class, "count");
+
+	volatile long sum;
+	static final AtomicLongFieldUpdater<Histogram> SUM =
+			AtomicLongFieldUpdater.newUpdater(Histogram.class, "sum");
+
+	volatile long max;
+	static final AtomicLongFieldUpdater<Histogram> MAX =
+			AtomicLongFieldUpdater.newUpdater(Histogram.class, "max");
+
+	public Histogram() {
+		this.counts = new AtomicLongArray(BUCKETS);
+	}
+
+	/**
+	 * Record a value, negative values being recorded as 0.
+	 *
+	 * @param value the value to record
+	 */
+	public void record(long value) {
+		if (value < 0L) {
+			value = 0L;
+		}
+		counts.getAndIncrement(indexOf(value));
+		SUM.getAndAdd(this, value);
+		COUNT.getAndIncrement(this);
+
+		long m = max;
+		while (value > m) {
+			if (MAX.compareAndSet(this, m, value)) {
+				break;
+			}
+			m = max;
+		}
+	}
+
+	/**
+	 * @return the number of recorded values
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return the highest recorded value or 0 if nothing has been recorded
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return the arithmetic mean of the recorded values or 0 if nothing has been
+	 * recorded
+	 */
+	public double getMean() {
+		long c = count;
+		return c == 0L ? 0d : (double) sum / c;
+	}
+
+	/**
+	 * Return the highest value equivalent to the given percentile of the recorded
+	 * values, within the histogram precision.
+	 *
+	 * @param percentile the percentile to compute, between 0 and 100
+	 *
+	 * @return the value at the given percentile or 0 if nothing has been recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0d || percentile > 100d) {
+			throw new IllegalArgumentException("percentile between 0 and 100 required but it was " + percentile);
+		}
+		long c = count;
+		if (c == 0L) {
+			return 0L;
+		}
+		long target = Math.max(1L, (long) Math.ceil(percentile / 100d * c));
+		long m = max;
+		long seen = 0L;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= target) {
+				return Math.min(highestEquivalentValue(i), m);
+			}
+		}
+		return m;
+	}
+
+	/**
+	 * Clear all recorded values. Values recorded concurrently with a reset might be
+	 * partially retained.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.lazySet(i, 0L);
+		}
+		COUNT.lazySet(this, 0L);
+		SUM.lazySet(this, 0L);
+		MAX.lazySet(this, 0L);
+	}
+
+	@Override
+	public String toString() {
+		return "{count=" + count +
+				", mean=" + (long) getMean() +
+				", p50=" + getValueAtPercentile(50d) +
+				", p99=" + getValueAtPercentile(99d) +
+				", max=" + max + "}";
+	}
+
+	static int indexOf(long value) {
+		int magnitude = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - PRECISION_BITS);
+		return magnitude * SUB_BUCKETS + (int) (value >>> magnitude);
+	}
+
+	static long highestEquivalentValue(int index) {
+		int magnitude = Math.max(0, index / SUB_BUCKETS - 1);
+		long base = index - magnitude * SUB_BUCKETS;
+		return ((base + 1L) << magnitude) - 1L;
+	}
+}
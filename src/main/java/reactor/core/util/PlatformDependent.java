@@ -48,6 +48,13 @@ public enum PlatformDependent {
 	 */
 	public static final  boolean TRACE_NOCAPACITY                =
 			Boolean.parseBoolean(System.getProperty("reactor.trace.nocapacity", "false"));
+
+	/**
+	 * Capture the stack trace of backpressure violation errors, e.g. values that can't be emitted due to lack of
+	 * requests or can't be queued in a full queue. Off by default as those are raised on overload paths.
+	 */
+	public static final  boolean TRACE_BACKPRESSURE              =
+			Boolean.parseBoolean(System.getProperty("reactor.trace.backpressure", "false"));
 	/**
 	 * An allocation friendly default of available slots in a given container, e.g. slow publishers and or fast/few
 	 * subscribers
@@ -85,6 +92,13 @@ public enum PlatformDependent {
 	 */
 	public static final  boolean TRACEABLE_RING_BUFFER_PROCESSOR =
 			Boolean.parseBoolean(System.getProperty("reactor.ringbuffer.trace", "true"));
+	/**
+	 * Whether the bounded single-producer queues from {@link reactor.core.queue.QueueSupplier#get(long)} start small
+	 * and grow up to their capacity instead of being allocated upfront. Can be enabled using the {@code
+	 * reactor.queue.growable} system property.
+	 */
+	public static final  boolean GROWABLE_QUEUES                 =
+			Boolean.parseBoolean(System.getProperty("reactor.queue.growable", "false"));
 	/**
 	 * Default number of processors available to the runtime on init (min 4)
 	 * @see Runtime#availableProcessors()
@@ -104,6 +118,13 @@ public enum PlatformDependent {
 				// ignore
 			}
 		}
+		if (VarHandleSupport.isSupported()) {
+			AtomicReferenceFieldUpdater<U, W> updater =
+					VarHandleSupport.newAtomicReferenceFieldUpdater(tclass, fieldName);
+			if (updater != null) {
+				return updater;
+			}
+		}
 		return AtomicReferenceFieldUpdater.newUpdater(tclass, (Class<W>)Object.class, fieldName);
 	}
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.util;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Access to {@code java.lang.invoke.VarHandle} based field updaters and array element
+ * accesses, overridden in the Java 9+ variant of this class shipped in the multi-release
+ * jar. On Java 8 no alternative to {@code sun.misc.Unsafe} or reflection is available.
+ */
+public enum VarHandleSupport {
+	;
+
+	/**
+	 * @return true if {@code VarHandle} based updaters are available
+	 */
+	static boolean isSupported() {
+		return false;
+	}
+
+	/**
+	 * @param tclass the class holding the volatile field
+	 * @param fieldName the field name
+	 * @param <U> the holder type
+	 * @param <W> the field type
+	 *
+	 * @return a new {@code VarHandle} based updater or null if not supported
+	 */
+	static <U, W> AtomicReferenceFieldUpdater<U, W> newAtomicReferenceFieldUpdater(
+			Class<U> tclass, String fieldName) {
+		return null;
+	}
+
+	/**
+	 * Store an element with release semantics, a plain store on Java 8.
+	 *
+	 * @param array the target array
+	 * @param index the element index
+	 * @param value the value to store
+	 */
+	public static void setRelease(int[] array, int index, int value) {
+		array[index] = value;
+	}
+
+	/**
+	 * Load an element with acquire semantics, a plain load on Java 8.
+	 *
+	 * @param array the source array
+	 * @param index the element index
+	 *
+	 * @return the element value
+	 */
+	public static int getAcquire(int[] array, int index) {
+		return array[index];
+	}
+}
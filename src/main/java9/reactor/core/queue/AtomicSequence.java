@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.queue;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.LongSupplier;
+
+import reactor.core.state.Introspectable;
+import reactor.core.util.Sequence;
+
+/**
+ * <p>Concurrent sequence class used for tracking the progress of
+ * the ring buffer and event processors.  Support a number
+ * of concurrent operations including CAS and order writes.
+ *
+ * <p>Also attempts to be more efficient with regards to false
+ * sharing by adding padding around the volatile field.
+ *
+ * <p>Java 9+ variant using {@link VarHandle} release and volatile accesses, matching
+ * {@code UnsafeSequence} without requiring {@code sun.misc.Unsafe}.
+ */
+final class AtomicSequence extends RhsPadding implements LongSupplier, Sequence, Introspectable
+{
+
+    private static final VarHandle VALUE;
+
+    static
+    {
+        try
+        {
+            VALUE = MethodHandles.lookup().findVarHandle(Value.class, "value", long.class);
+        }
+        catch (final ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * Create a sequence with a specified initial value.
+     *
+     * @param initialValue The initial value for this sequence.
+     */
+    AtomicSequence(final long initialValue)
+    {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    @Override
+    public long getAsLong()
+    {
+        return value;
+    }
+
+    @Override
+    public void set(final long value)
+    {
+        VALUE.setRelease(this, value);
+    }
+
+    @Override
+    public void setVolatile(final long value)
+    {
+        VALUE.setVolatile(this, value);
+    }
+
+    @Override
+    public boolean compareAndSet(final long expectedValue, final long newValue)
+    {
+        return VALUE.compareAndSet(this, expectedValue, newValue);
+    }
+
+    @Override
+    public long incrementAndGet()
+    {
+        return addAndGet(1L);
+    }
+
+    @Override
+    public long addAndGet(final long increment)
+    {
+        return (long) VALUE.getAndAdd(this, increment) + increment;
+    }
+
+    @Override
+    public String toString()
+    {
+        return Long.toString(getAsLong());
+    }
+
+    @Override
+    public int getMode() {
+        return TRACE_ONLY;
+    }
+}
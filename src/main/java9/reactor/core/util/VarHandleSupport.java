@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Java 9+ variant of {@code VarHandleSupport} creating field updaters from {@link
+ * VarHandle}s, which keep {@code sun.misc.Unsafe} level performance on runtimes where
+ * {@code Unsafe} access is restricted.
+ */
+public enum VarHandleSupport {
+	;
+
+	static final VarHandle INT_ARRAY = MethodHandles.arrayElementVarHandle(int[].class);
+
+	static boolean isSupported() {
+		return true;
+	}
+
+	static <U, W> AtomicReferenceFieldUpdater<U, W> newAtomicReferenceFieldUpdater(
+			Class<U> tclass, String fieldName) {
+		try {
+			return new VarHandleAtomicReferenceFieldUpdater<>(tclass, fieldName);
+		}
+		catch (Throwable e) {
+			return null;
+		}
+	}
+
+	public static void setRelease(int[] array, int index, int value) {
+		INT_ARRAY.setRelease(array, index, value);
+	}
+
+	public static int getAcquire(int[] array, int index) {
+		return (int) INT_ARRAY.getAcquire(array, index);
+	}
+
+	static final class VarHandleAtomicReferenceFieldUpdater<U, M> extends AtomicReferenceFieldUpdater<U, M> {
+
+		final VarHandle handle;
+
+		VarHandleAtomicReferenceFieldUpdater(Class<U> tClass, String fieldName)
+				throws ReflectiveOperationException {
+			Field field = tClass.getDeclaredField(fieldName);
+			if (!Modifier.isVolatile(field.getModifiers())) {
+				throw new IllegalArgumentException("Must be volatile");
+			}
+			handle = MethodHandles.privateLookupIn(tClass, MethodHandles.lookup())
+			                      .findVarHandle(tClass, fieldName, field.getType());
+		}
+
+		@Override
+		public boolean compareAndSet(U obj, M expect, M update) {
+			return handle.compareAndSet(obj, expect, update);
+		}
+
+		@Override
+		public boolean weakCompareAndSet(U obj, M expect, M update) {
+			return handle.weakCompareAndSetPlain(obj, expect, update);
+		}
+
+		@Override
+		public void set(U obj, M newValue) {
+			handle.setVolatile(obj, newValue);
+		}
+
+		@Override
+		public void lazySet(U obj, M newValue) {
+			handle.setRelease(obj, newValue);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public M getAndSet(U obj, M newValue) {
+			return (M) handle.getAndSet(obj, newValue);
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public M get(U obj) {
+			return (M) handle.getVolatile(obj);
+		}
+	}
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.buffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteBufferPoolTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void bufferSizeInvalid() {
+		ByteBufferPool.create(0);
+	}
+
+	@Test
+	public void releasedBuffersAreReused() {
+		ByteBufferPool pool = ByteBufferPool.create(64);
+
+		for (int i = 0; i < 1000; i++) {
+			PooledByteBuffer b = pool.allocate();
+			Assert.assertEquals(0, b.buffer().position());
+			Assert.assertEquals(64, b.buffer().capacity());
+			b.buffer().putInt(i);
+			Assert.assertTrue(b.release());
+		}
+
+		Assert.assertEquals(1, pool.getAllocated());
+	}
+
+	@Test
+	public void buffersSpillToArenaAcrossThreads() throws Exception {
+		ByteBufferPool pool = ByteBufferPool.create(16, 256, true);
+		PooledByteBuffer[] buffers = new PooledByteBuffer[100];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = pool.allocate();
+		}
+		for (PooledByteBuffer b : buffers) {
+			b.release();
+		}
+		Assert.assertTrue(pool.getPending() > 0);
+
+		Thread t = new Thread(() -> {
+			for (int i = 0; i < 50; i++) {
+				pool.allocate();
+			}
+		});
+		t.start();
+		t.join();
+
+		Assert.assertEquals(100, pool.getAllocated());
+	}
+
+	@Test
+	public void retainDefersRecycling() {
+		ByteBufferPool pool = ByteBufferPool.create(8);
+		PooledByteBuffer b = pool.allocate();
+
+		b.retain();
+		Assert.assertFalse(b.release());
+		Assert.assertEquals(1, b.refCnt());
+		Assert.assertTrue(b.release());
+		Assert.assertEquals(0, b.refCnt());
+
+		try {
+			b.buffer();
+			Assert.fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException expected) {
+			// ok
+		}
+		try {
+			b.release();
+			Assert.fail("Expected IllegalStateException");
+		}
+		catch (IllegalStateException expected) {
+			// ok
+		}
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoProcessor;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class AsyncCacheTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxSizeInvalid() {
+		AsyncCache.create(Mono::just, 0L);
+	}
+
+	@Test
+	public void concurrentMissesShareASingleLoad() {
+		AtomicInteger loads = new AtomicInteger();
+		MonoProcessor<String> backend = MonoProcessor.create();
+		AsyncCache<Integer, String> cache = AsyncCache.create(k -> {
+			loads.incrementAndGet();
+			return backend;
+		}, 10);
+
+		TestSubscriber<String> ts1 = TestSubscriber.subscribe(cache.get(1));
+		TestSubscriber<String> ts2 = TestSubscriber.subscribe(cache.get(1));
+		ts1.assertNoValues();
+		ts2.assertNoValues();
+
+		backend.onNext("one");
+
+		ts1.assertValues("one").assertComplete();
+		ts2.assertValues("one").assertComplete();
+		TestSubscriber.subscribe(cache.get(1)).assertValues("one");
+
+		Assert.assertEquals(1, loads.get());
+		Assert.assertEquals(1, cache.stats().getMissCount());
+		Assert.assertEquals(2, cache.stats().getHitCount());
+		Assert.assertEquals(1, cache.stats().getLoadSuccessCount());
+		Assert.assertEquals(1, cache.stats().getLoadLatency().getCount());
+	}
+
+	@Test
+	public void failedLoadsAreNotCached() {
+		AtomicInteger loads = new AtomicInteger();
+		AsyncCache<Integer, String> cache = AsyncCache.create(k -> {
+			if (loads.incrementAndGet() == 1) {
+				return Mono.error(new IllegalStateException("boom"));
+			}
+			return Mono.just("ok");
+		}, 10);
+
+		TestSubscriber.subscribe(cache.get(1)).assertError(IllegalStateException.class);
+		TestSubscriber.subscribe(cache.get(1)).assertValues("ok");
+
+		Assert.assertEquals(2, loads.get());
+		Assert.assertEquals(1, cache.stats().getLoadFailureCount());
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsed() {
+		AtomicInteger loads = new AtomicInteger();
+		AsyncCache<Integer, Integer> cache = AsyncCache.create(k -> {
+			loads.incrementAndGet();
+			return Mono.just(k);
+		}, 2);
+
+		cache.get(1).subscribe();
+		cache.get(2).subscribe();
+		cache.get(1).subscribe();
+		cache.get(3).subscribe();
+
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals((Integer) 1, cache.getIfPresent(1));
+		Assert.assertNull(cache.getIfPresent(2));
+		Assert.assertEquals(1, cache.stats().getEvictionCount());
+		Assert.assertEquals(3, loads.get());
+	}
+
+	@Test
+	public void boundedByWeight() {
+		AsyncCache<String, String> cache = AsyncCache.create(Mono::just, 10,
+				(k, v) -> v.length(), null, null);
+
+		cache.get("aaaa").subscribe();
+		cache.get("bbbb").subscribe();
+		Assert.assertEquals(8, cache.getPending());
+
+		cache.get("cccc").subscribe();
+		Assert.assertEquals(8, cache.getPending());
+		Assert.assertNull(cache.getIfPresent("aaaa"));
+	}
+
+	@Test
+	public void entriesExpireAfterTtl() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		AtomicInteger loads = new AtomicInteger();
+		AsyncCache<Integer, Integer> cache = AsyncCache.create(k -> Mono.just(loads.incrementAndGet()),
+				10, Duration.ofMinutes(1), vts);
+
+		TestSubscriber.subscribe(cache.get(1)).assertValues(1);
+		vts.advanceTimeBy(Duration.ofSeconds(59));
+		TestSubscriber.subscribe(cache.get(1)).assertValues(1);
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(1, cache.stats().getExpirationCount());
+
+		TestSubscriber.subscribe(cache.get(1)).assertValues(2);
+	}
+
+	@Test
+	public void invalidateDuringLoadDoesNotCache() {
+		MonoProcessor<String> backend = MonoProcessor.create();
+		AsyncCache<Integer, String> cache = AsyncCache.create(k -> backend, 10);
+
+		TestSubscriber<String> ts = TestSubscriber.subscribe(cache.get(1));
+		cache.invalidate(1);
+		backend.onNext("one");
+
+		ts.assertValues("one");
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(0, cache.getPending());
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+import reactor.core.tuple.Tuple;
+
+public class BatchLoaderTest {
+
+	@Test
+	public void batchesBySize() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		List<List<Integer>> calls = new ArrayList<>();
+		BatchLoader<Integer, String> loader = BatchLoader.create(keys -> {
+			calls.add(keys);
+			return Flux.fromIterable(keys).map(k -> Tuple.of(k, "v" + k));
+		}, 3, Duration.ofSeconds(1), vts);
+
+		TestSubscriber<String> ts1 = TestSubscriber.subscribe(loader.load(1));
+		TestSubscriber<String> ts2 = TestSubscriber.subscribe(loader.load(2));
+		TestSubscriber<String> ts3 = TestSubscriber.subscribe(loader.load(1));
+
+		ts1.assertNoValues();
+		Assert.assertEquals(2, loader.getPending());
+
+		TestSubscriber<String> ts4 = TestSubscriber.subscribe(loader.load(3));
+
+		ts1.assertValues("v1").assertComplete();
+		ts2.assertValues("v2").assertComplete();
+		ts3.assertValues("v1").assertComplete();
+		ts4.assertValues("v3").assertComplete();
+		Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2, 3)), calls);
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void batchesByDelay() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		BatchLoader<Integer, String> loader = BatchLoader.create(keys ->
+				Flux.fromIterable(keys).map(k -> Tuple.of(k, "v" + k)), 100, Duration.ofMillis(1), vts);
+
+		TestSubscriber<String> ts1 = TestSubscriber.subscribe(loader.load(1));
+		TestSubscriber<String> ts2 = TestSubscriber.subscribe(loader.load(2));
+		ts1.assertNoValues();
+
+		vts.advanceTimeBy(Duration.ofMillis(1));
+
+		ts1.assertValues("v1").assertComplete();
+		ts2.assertValues("v2").assertComplete();
+		Assert.assertEquals(1, loader.getBatchCount());
+	}
+
+	@Test
+	public void missingKeysCompleteEmptyAndErrorsFailTheBatch() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		BatchLoader<Integer, String> loader = BatchLoader.create(keys ->
+				keys.contains(0) ? Flux.error(new IllegalStateException("boom")) :
+						Flux.just(Tuple.of(1, "v1")), 2, Duration.ofMillis(1), vts);
+
+		TestSubscriber<String> ts1 = TestSubscriber.subscribe(loader.load(1));
+		TestSubscriber<String> ts2 = TestSubscriber.subscribe(loader.load(2));
+		ts1.assertValues("v1").assertComplete();
+		ts2.assertNoValues().assertComplete();
+
+		TestSubscriber<String> ts3 = TestSubscriber.subscribe(loader.load(0));
+		loader.flush();
+		ts3.assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void nullValueCompletesEmpty() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		BatchLoader<Integer, String> loader = BatchLoader.create(keys ->
+				Flux.fromIterable(keys).map(k -> Tuple.of(k, k == 1 ? null : "v" + k)), 2,
+				Duration.ofSeconds(1), vts);
+
+		TestSubscriber<String> ts1 = TestSubscriber.subscribe(loader.load(1));
+		TestSubscriber<String> ts2 = TestSubscriber.subscribe(loader.load(2));
+
+		ts1.assertNoValues().assertComplete();
+		ts2.assertValues("v2").assertComplete();
+		Assert.assertEquals(0, vts.getPending());
+	}
+}
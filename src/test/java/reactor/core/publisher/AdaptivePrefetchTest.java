@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptivePrefetchTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxBelowMin() {
+		new AdaptivePrefetch(16, 8);
+	}
+
+	@Test
+	public void growsWhileDrainedUpToMax() {
+		AdaptivePrefetch ap = new AdaptivePrefetch(8, 32);
+
+		Assert.assertEquals(8, ap.prefetch());
+		Assert.assertEquals(6, ap.limit());
+
+		Assert.assertEquals(6 + 8, ap.replenish(6, 0));
+		Assert.assertEquals(16, ap.prefetch());
+		Assert.assertEquals(12, ap.limit());
+
+		Assert.assertEquals(12 + 16, ap.replenish(12, 0));
+		Assert.assertEquals(32, ap.prefetch());
+
+		Assert.assertEquals(24, ap.replenish(24, 0));
+		Assert.assertEquals(32, ap.prefetch());
+	}
+
+	@Test
+	public void shrinksWhileBacklogDownToMin() {
+		AdaptivePrefetch ap = new AdaptivePrefetch(8, 32);
+		ap.replenish(6, 0);
+		ap.replenish(12, 0);
+
+		Assert.assertEquals(24 - 16, ap.replenish(24, 8));
+		Assert.assertEquals(16, ap.prefetch());
+		Assert.assertEquals(12, ap.limit());
+
+		Assert.assertEquals(12 - 8, ap.replenish(12, 4));
+		Assert.assertEquals(8, ap.prefetch());
+
+		Assert.assertEquals(6, ap.replenish(6, 2));
+		Assert.assertEquals(8, ap.prefetch());
+	}
+
+	@Test
+	public void partialBacklogKeepsWindow() {
+		AdaptivePrefetch ap = new AdaptivePrefetch(8, 32);
+		ap.replenish(6, 0);
+
+		Assert.assertEquals(12, ap.replenish(12, 2));
+		Assert.assertEquals(16, ap.prefetch());
+	}
+}
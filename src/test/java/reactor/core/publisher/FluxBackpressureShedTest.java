@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class FluxBackpressureShedTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void intervalInvalid() {
+		Flux.just(1).onBackpressureShed(Duration.ofMillis(5), Duration.ZERO);
+	}
+
+	@Test
+	public void fastSubscriberSeesEverything() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 1000)
+		    .onBackpressureShed(Duration.ofMillis(5), Duration.ofMillis(100))
+		    .subscribe(ts);
+
+		ts.assertValueCount(1000)
+		  .assertComplete();
+	}
+
+	@Test
+	public void shortBurstIsBuffered() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		List<Integer> dropped = new ArrayList<>();
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+
+		up.onBackpressureShed(Duration.ofMillis(5), Duration.ofMillis(100), dropped::add, vts)
+		  .subscribe(ts);
+
+		for (int i = 0; i < 10; i++) {
+			up.onNext(i);
+		}
+		vts.advanceTimeBy(Duration.ofMillis(50));
+
+		ts.request(10);
+		ts.assertValues(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		Assert.assertTrue(dropped.isEmpty());
+	}
+
+	@Test
+	public void sustainedDelayIsShed() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		List<Integer> dropped = new ArrayList<>();
+		List<Integer> received = new ArrayList<>();
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+
+		up.onBackpressureShed(Duration.ofMillis(5), Duration.ofMillis(100), dropped::add, vts)
+		  .doOnNext(received::add)
+		  .subscribe(ts);
+
+		// two values arrive every 10ms, value / 2 being their arrival tick, while the
+		// consumer only takes one
+		for (int tick = 0; tick < 200; tick++) {
+			up.onNext(tick * 2);
+			up.onNext(tick * 2 + 1);
+			vts.advanceTimeBy(Duration.ofMillis(10));
+			ts.request(1);
+		}
+
+		Assert.assertFalse("expected values to be shed", dropped.isEmpty());
+		int lastTick = received.get(received.size() - 1) / 2;
+		// without shedding the last value would have waited 100 ticks, CoDel ramps up its
+		// drop rate gradually to reach the arrival excess
+		Assert.assertTrue("queueing delay not bounded: " + (199 - lastTick) + " ticks", 199 - lastTick < 60);
+		Assert.assertTrue(dropped.size() + received.size() <= 400);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscriber;
+import reactor.core.buffer.ByteBufferPool;
+import reactor.core.buffer.PooledByteBuffer;
+import reactor.core.test.TestSubscriber;
+import reactor.core.util.EmptySubscription;
+
+public class FluxBufferBytesTest {
+
+	static ByteBuffer bytes(String s) {
+		return ByteBuffer.wrap(s.getBytes(StandardCharsets.UTF_8));
+	}
+
+	static String drain(PooledByteBuffer b) {
+		ByteBuffer bb = b.buffer();
+		byte[] a = new byte[bb.remaining()];
+		bb.get(a);
+		b.release();
+		return new String(a, StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void aggregatesAndSplits() {
+		ByteBufferPool pool = ByteBufferPool.create(4);
+		long allocated = 0L;
+
+		for (int i = 0; i < 10; i++) {
+			List<String> chunks = new ArrayList<>();
+			ByteBuffer big = bytes("fghijk");
+
+			Flux.just(bytes("ab"), bytes("cde"), big, bytes("l"))
+			    .bufferBytes(pool)
+			    .map(FluxBufferBytesTest::drain)
+			    .subscribe(chunks::add);
+
+			Assert.assertEquals(Arrays.asList("abcd", "efgh", "ijkl"), chunks);
+			Assert.assertEquals(0, big.position());
+			if (i == 0) {
+				allocated = pool.getAllocated();
+			}
+		}
+
+		Assert.assertEquals(allocated, pool.getAllocated());
+	}
+
+	@Test
+	public void lastPartialBufferIsFlushed() {
+		ByteBufferPool pool = ByteBufferPool.create(8);
+		TestSubscriber<String> ts = TestSubscriber.create();
+
+		Flux.just(bytes("abc"), bytes("de"))
+		    .bufferBytes(pool)
+		    .map(FluxBufferBytesTest::drain)
+		    .subscribe(ts);
+
+		ts.assertValues("abcde")
+		  .assertComplete();
+	}
+
+	@Test
+	public void backpressured() {
+		ByteBufferPool pool = ByteBufferPool.create(2);
+		TestSubscriber<PooledByteBuffer> ts = TestSubscriber.create(0);
+
+		Flux.range(0, 100)
+		    .map(i -> bytes("x"))
+		    .bufferBytes(pool)
+		    .subscribe(ts);
+
+		ts.assertNoValues();
+
+		ts.request(10);
+		ts.assertValueCount(10)
+		  .assertNotComplete();
+
+		ts.request(Long.MAX_VALUE);
+		ts.assertValueCount(50)
+		  .assertComplete();
+	}
+
+	@Test
+	public void errorReleasesPendingBuffers() {
+		ByteBufferPool pool = ByteBufferPool.create(4);
+		TestSubscriber<PooledByteBuffer> ts = TestSubscriber.create(0);
+
+		Flux.just(bytes("abcdefgh"), bytes("ij"))
+		    .concatWith(Flux.error(new IllegalStateException("boom")))
+		    .bufferBytes(pool)
+		    .subscribe(ts);
+
+		ts.request(1);
+
+		ts.assertValueCount(1)
+		  .assertError(IllegalStateException.class);
+		ts.assertValuesWith(PooledByteBuffer::release);
+
+		Assert.assertEquals(1, pool.getAllocated());
+		pool.allocate();
+		Assert.assertEquals(1, pool.getAllocated());
+	}
+
+	@Test
+	public void cancelReleasesPendingBuffers() {
+		ByteBufferPool pool = ByteBufferPool.create(4);
+		TestSubscriber<PooledByteBuffer> ts = TestSubscriber.create(0);
+		DirectProcessor<ByteBuffer> up = DirectProcessor.create();
+
+		up.bufferBytes(pool)
+		  .subscribe(ts);
+
+		ts.request(1);
+		up.onNext(bytes("ab"));
+		ts.assertNoValues();
+
+		ts.cancel();
+
+		Assert.assertFalse("upstream not cancelled", up.hasDownstreams());
+		Assert.assertEquals(1, pool.getAllocated());
+		pool.allocate();
+		Assert.assertEquals(1, pool.getAllocated());
+	}
+
+	@Test
+	public void valuesAfterCancelAreNotBuffered() {
+		ByteBufferPool pool = ByteBufferPool.create(4);
+		TestSubscriber<PooledByteBuffer> ts = TestSubscriber.create();
+		List<Subscriber<? super ByteBuffer>> upstream = new ArrayList<>();
+
+		new FluxBufferBytes(s -> {
+			upstream.add(s);
+			s.onSubscribe(EmptySubscription.INSTANCE);
+		}, pool, 8).subscribe(ts);
+
+		upstream.get(0).onNext(bytes("ab"));
+		ts.cancel();
+		upstream.get(0).onNext(bytes("cdefgh"));
+		upstream.get(0).onComplete();
+
+		ts.assertNoValues()
+		  .assertNotComplete();
+		Assert.assertEquals(1, pool.getAllocated());
+		pool.allocate();
+		Assert.assertEquals(1, pool.getAllocated());
+	}
+}
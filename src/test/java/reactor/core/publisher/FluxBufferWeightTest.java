@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class FluxBufferWeightTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxWeightInvalid() {
+		Flux.just("a").bufferByWeight(0L, String::length);
+	}
+
+	@Test
+	public void emitsWhenWeightReached() {
+		TestSubscriber<List<String>> ts = TestSubscriber.create();
+
+		Flux.just("aa", "bb", "c", "ddd", "eeeeeeee", "f")
+		    .bufferByWeight(4L, String::length)
+		    .subscribe(ts);
+
+		ts.assertValues(Arrays.asList("aa", "bb"),
+				Arrays.asList("c", "ddd"),
+				Collections.singletonList("eeeeeeee"),
+				Collections.singletonList("f"))
+		  .assertComplete();
+	}
+
+	@Test
+	public void backpressured() {
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create(0);
+		AtomicLong requested = new AtomicLong();
+
+		Flux.range(1, 1000)
+		    .doOnRequest(requested::addAndGet)
+		    .bufferByWeight(10L, i -> 1L)
+		    .subscribe(ts);
+
+		ts.assertNoValues();
+		Assert.assertEquals(0L, requested.get());
+
+		ts.request(2);
+		ts.assertValueCount(2)
+		  .assertNotComplete();
+		Assert.assertTrue(requested.get() < 1000L);
+
+		ts.request(Long.MAX_VALUE);
+		ts.assertValueCount(100)
+		  .assertComplete();
+	}
+
+	@Test
+	public void weigherFailure() {
+		TestSubscriber<List<String>> ts = TestSubscriber.create();
+
+		Flux.just("a", "b")
+		    .bufferByWeight(10L, s -> {
+			    throw new IllegalStateException("boom");
+		    })
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void timeoutFlushesPartialBuffer() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<String> up = DirectProcessor.create();
+		TestSubscriber<List<String>> ts = TestSubscriber.create();
+
+		up.bufferByWeightTimeout(100L, String::length, Duration.ofMillis(50), vts)
+		  .subscribe(ts);
+
+		up.onNext("a");
+		vts.advanceTimeBy(Duration.ofMillis(30));
+		up.onNext("b");
+		ts.assertNoValues();
+
+		vts.advanceTimeBy(Duration.ofMillis(20));
+		ts.assertValues(Arrays.asList("a", "b"));
+
+		up.onNext("c");
+		vts.advanceTimeBy(Duration.ofMillis(49));
+		ts.assertValueCount(1);
+
+		up.onComplete();
+		ts.assertValues(Arrays.asList("a", "b"), Collections.singletonList("c"))
+		  .assertComplete();
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertValueCount(2);
+	}
+
+	@Test
+	public void weightFlushCancelsTimeout() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<String> up = DirectProcessor.create();
+		TestSubscriber<List<String>> ts = TestSubscriber.create();
+
+		up.bufferByWeightTimeout(2L, String::length, Duration.ofMillis(50), vts)
+		  .subscribe(ts);
+
+		up.onNext("aa");
+		ts.assertValues(Collections.singletonList("aa"));
+		Assert.assertEquals(0, vts.getPending());
+
+		up.onNext("b");
+		vts.advanceTimeBy(Duration.ofMillis(50));
+		ts.assertValues(Collections.singletonList("aa"), Collections.singletonList("b"));
+	}
+}
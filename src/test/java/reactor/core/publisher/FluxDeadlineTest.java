@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.flow.Cancellation;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.core.state.Deadline;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class FluxDeadlineTest {
+
+	/**
+	 * A virtual clock holding delayed tasks back until {@link #runDelayed()}, so that
+	 * expiration can first be observed by the operators checking the deadline
+	 */
+	static final class StalledTimer extends VirtualTimeScheduler {
+
+		final List<Runnable> delayed = new ArrayList<>();
+
+		@Override
+		public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+			if (delay > 0L) {
+				delayed.add(task);
+				return () -> delayed.remove(task);
+			}
+			return super.schedule(task, delay, unit);
+		}
+
+		void runDelayed() {
+			for (Runnable task : new ArrayList<>(delayed)) {
+				task.run();
+			}
+			delayed.clear();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void negativeTimeout() {
+		Flux.never().deadline(Duration.ofSeconds(-1), VirtualTimeScheduler.create());
+	}
+
+	@Test
+	public void expiresWithTimeout() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> dp = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		dp.deadline(Duration.ofSeconds(1), vts)
+		  .subscribe(ts);
+
+		dp.onNext(1);
+		vts.advanceTimeBy(Duration.ofMillis(999));
+		ts.assertValues(1)
+		  .assertNotTerminated();
+
+		vts.advanceTimeBy(Duration.ofMillis(1));
+		ts.assertValues(1)
+		  .assertError(TimeoutException.class);
+		Assert.assertFalse(dp.hasDownstreams());
+	}
+
+	@Test
+	public void completesBeforeDeadline() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.just(1, 2)
+		    .deadline(Duration.ofSeconds(1), vts)
+		    .subscribe(ts);
+
+		vts.advanceTimeBy(Duration.ofSeconds(2));
+
+		ts.assertValues(1, 2)
+		  .assertComplete();
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void monoExpiresWithTimeout() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.<Integer>never()
+		    .deadline(Duration.ofSeconds(1), vts)
+		    .subscribe(ts);
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+
+		ts.assertNoValues()
+		  .assertError(TimeoutException.class);
+	}
+
+	@Test
+	public void findThroughOperators() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		FluxDeadline.DeadlineSubscriber<Integer> d =
+				new FluxDeadline.DeadlineSubscriber<>(ts, 1L, VirtualTimeScheduler.create());
+
+		Assert.assertSame(d, Deadline.find(new FluxMap.MapSubscriber<Integer, Integer>(d, v -> v)));
+		Assert.assertNull(Deadline.find(new FluxMap.MapSubscriber<Integer, Integer>(ts, v -> v)));
+		Assert.assertNull(Deadline.find(null));
+
+		Scheduler immediate = Schedulers.fromExecutor(Runnable::run);
+		Assert.assertSame(d, Deadline.find(new FluxMap.MapSubscriber<Integer, Integer>(
+				new MonoPublishOn.MonoPublishOnSubscriber<>(d, immediate), v -> v)));
+		Assert.assertNull(Deadline.find(new MonoPublishOn.MonoPublishOnSubscriber<>(ts,
+				immediate)));
+	}
+
+	@Test
+	public void publishOnDropsExpiredWork() {
+		StalledTimer timer = new StalledTimer();
+		List<Runnable> tasks = new ArrayList<>();
+		AtomicInteger mapped = new AtomicInteger();
+		DirectProcessor<Integer> dp = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		dp.publishOn(Schedulers.fromExecutor(tasks::add))
+		  .map(v -> {
+			  mapped.incrementAndGet();
+			  return v;
+		  })
+		  .deadline(Duration.ofSeconds(1), timer)
+		  .subscribe(ts);
+
+		dp.onNext(1);
+		dp.onNext(2);
+		dp.onNext(3);
+		timer.advanceTimeBy(Duration.ofSeconds(2));
+
+		ts.assertNotTerminated();
+
+		for (Runnable task : tasks) {
+			task.run();
+		}
+
+		Assert.assertEquals(0, mapped.get());
+		Assert.assertFalse(dp.hasDownstreams());
+		ts.assertNotTerminated();
+
+		timer.runDelayed();
+		ts.assertNoValues()
+		  .assertError(TimeoutException.class);
+	}
+
+	@Test
+	public void flatMapStopsMappingAfterDeadline() {
+		StalledTimer timer = new StalledTimer();
+		AtomicInteger mapped = new AtomicInteger();
+		DirectProcessor<Integer> dp = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		dp.flatMap(v -> {
+			mapped.incrementAndGet();
+			return Flux.just(v);
+		})
+		  .deadline(Duration.ofSeconds(1), timer)
+		  .subscribe(ts);
+
+		dp.onNext(1);
+		timer.advanceTimeBy(Duration.ofSeconds(2));
+		dp.onNext(2);
+
+		Assert.assertEquals(1, mapped.get());
+		Assert.assertFalse(dp.hasDownstreams());
+		ts.assertValues(1)
+		  .assertNotTerminated();
+
+		timer.runDelayed();
+		ts.assertValues(1)
+		  .assertError(TimeoutException.class);
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+
+public class FluxFilterTest {
+
+	@Test
+	public void consecutiveFiltersAreFused() {
+		Flux<Integer> source = Flux.range(1, 20)
+		                           .hide();
+		Flux<Integer> f = source.filter(v -> v % 2 == 0)
+		                        .filter(v -> v % 3 == 0);
+
+		Assert.assertTrue(f instanceof FluxFilter);
+		Assert.assertSame(source, ((FluxFilter<?>) f).source);
+
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		f.subscribe(ts);
+
+		ts.assertValues(6, 12, 18)
+		  .assertComplete();
+	}
+
+	@Test
+	public void consecutiveFuseableFiltersAreFused() {
+		Flux<Integer> source = Flux.range(1, 18);
+		Flux<Integer> f = source.filter(v -> v % 2 == 0)
+		                        .filter(v -> v % 3 == 0)
+		                        .filter(v -> v > 6);
+
+		Assert.assertTrue(f instanceof FluxFilterFuseable);
+		Assert.assertSame(source, ((FluxFilterFuseable<?>) f).source);
+
+		TestSubscriber<Integer> ts = TestSubscriber.create(1);
+		f.subscribe(ts);
+
+		ts.assertValues(12)
+		  .assertNotComplete();
+
+		ts.request(1);
+
+		ts.assertValues(12, 18)
+		  .assertComplete();
+	}
+
+	@Test
+	public void fusedFiltersShortCircuit() {
+		int[] calls = {0};
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 10)
+		    .filter(v -> v > 8)
+		    .filter(v -> {
+			    calls[0]++;
+			    return true;
+		    })
+		    .subscribe(ts);
+
+		ts.assertValues(9, 10)
+		  .assertComplete();
+		Assert.assertEquals(2, calls[0]);
+	}
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+import reactor.core.util.ConcurrencyLimit;
+
+public class FluxFlatMapAdaptiveTest {
+
+	@Test
+	public void inFlightBoundedByLimit() {
+		ConcurrencyLimit limit = ConcurrencyLimit.aimd(3, 1, 3, 0.5d, Duration.ofSeconds(10));
+		List<MonoProcessor<Integer>> inners = new ArrayList<>();
+		AtomicInteger requested = new AtomicInteger();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(0, 10)
+		    .doOnRequest(n -> requested.addAndGet((int) n))
+		    .flatMap(i -> {
+			    MonoProcessor<Integer> p = MonoProcessor.create();
+			    inners.add(p);
+			    return p;
+		    }, limit, 4)
+		    .subscribe(ts);
+
+		Assert.assertEquals(3, inners.size());
+		Assert.assertEquals(3, requested.get());
+
+		inners.get(0).onNext(0);
+		Assert.assertEquals(4, inners.size());
+
+		for (int i = 1; i < 10; i++) {
+			inners.get(i).onNext(i);
+		}
+
+		ts.assertValueCount(10)
+		  .assertComplete();
+		Assert.assertEquals(10, requested.get());
+	}
+
+	@Test
+	public void failuresShrinkTheLimit() {
+		ConcurrencyLimit limit = ConcurrencyLimit.aimd(8, 1, 8, 0.5d, Duration.ofSeconds(10));
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(0, 4)
+		    .flatMap(i -> Flux.<Integer>error(new IllegalStateException("boom")), limit, 4)
+		    .subscribe(ts);
+
+		ts.assertError(IllegalStateException.class);
+		Assert.assertEquals(4, limit.getLimit());
+	}
+
+	@Test
+	public void mergesAllValues() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(0, 1000)
+		    .flatMap(i -> Flux.range(i, 2), ConcurrencyLimit.gradient(4, 1, 64), 8)
+		    .subscribe(ts);
+
+		ts.assertValueCount(2000)
+		  .assertComplete();
+	}
+}
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -395,6 +396,49 @@ public class FluxFlatMapTest {
 		.assertComplete();
 	}
 
+	@Test
+	public void adaptivePrefetchGrowsForFastConsumer() {
+		AtomicLong maxRequest = new AtomicLong();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 10)
+		    .flatMap(v -> Flux.range(1, 1000)
+		                      .hide()
+		                      .doOnRequest(n -> maxRequest.accumulateAndGet(n, Math::max)),
+				    4, 4, 128)
+		    .subscribe(ts);
+
+		ts.assertValueCount(10_000)
+		  .assertNoError()
+		  .assertComplete();
+
+		Assert.assertTrue(maxRequest.get() > 4);
+		Assert.assertTrue(maxRequest.get() <= 128);
+	}
+
+	@Test
+	public void adaptivePrefetchWithSlowConsumer() {
+		AtomicLong requested = new AtomicLong();
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+
+		Flux.just(1)
+		    .hide()
+		    .flatMap(v -> Flux.range(1, 1000)
+		                      .hide()
+		                      .doOnRequest(requested::addAndGet),
+				    1, 2, 64)
+		    .subscribe(ts);
+
+		for (int i = 1; i <= 100; i++) {
+			ts.request(10);
+			Assert.assertTrue(requested.get() - i * 10 <= 64);
+		}
+
+		ts.assertValueCount(1000)
+		  .assertNoError()
+		  .assertComplete();
+	}
+
 	@Test
 	public void syncFusionArray() {
 		TestSubscriber<Integer> ts = TestSubscriber.create();
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.flow.Fuseable;
+import reactor.core.test.TestSubscriber;
+
+public class FluxMapFilterTest {
+
+	@Test
+	public void alternatingMapsAndFiltersAreFused() {
+		Flux<Integer> source = Flux.range(1, 10)
+		                           .hide();
+		Flux<String> f = source.map(v -> v + 1)
+		                       .map(v -> v * 2)
+		                       .filter(v -> v % 4 == 0)
+		                       .map(String::valueOf);
+
+		Assert.assertTrue(f instanceof FluxMapFilter);
+		Assert.assertSame(source, ((FluxMapFilter<?, ?>) f).source);
+
+		TestSubscriber<String> ts = TestSubscriber.create();
+		f.subscribe(ts);
+
+		ts.assertValues("4", "8", "12", "16", "20")
+		  .assertComplete();
+	}
+
+	@Test
+	public void alternatingFuseableMapsAndFiltersAreFused() {
+		Flux<Integer> source = Flux.range(1, 10);
+		Flux<Integer> f = source.filter(v -> v % 2 == 0)
+		                        .map(v -> v * 10)
+		                        .filter(v -> v != 40);
+
+		Assert.assertTrue(f instanceof FluxMapFilterFuseable);
+		Assert.assertSame(source, ((FluxMapFilterFuseable<?, ?>) f).source);
+
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		f.subscribe(ts);
+
+		ts.assertValues(20, 60, 80, 100)
+		  .assertComplete();
+	}
+
+	@Test
+	public void droppedValuesAreReplenished() {
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+
+		Flux.range(1, 10)
+		    .hide()
+		    .map(v -> v * 10)
+		    .filter(v -> v % 20 == 0)
+		    .subscribe(ts);
+
+		ts.request(2);
+		ts.assertValues(20, 40)
+		  .assertNotTerminated();
+
+		ts.request(3);
+		ts.assertValues(20, 40, 60, 80, 100)
+		  .assertComplete();
+	}
+
+	@Test
+	public void conditionalDownstream() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		new FluxMapFilter<Integer, Integer>(Flux.range(1, 6).hide(),
+				FluxMapFilter.mapThenFilter(v -> v * 10, v -> v != 30))
+				.subscribe(new FluxFilter.FilterSubscriber<>(ts, v -> v != 50));
+
+		ts.assertValues(10, 20, 40, 60)
+		  .assertComplete();
+	}
+
+	@Test
+	public void syncFusion() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		ts.requestedFusionMode(Fuseable.ANY);
+
+		Flux.range(1, 10)
+		    .map(v -> v * 10)
+		    .filter(v -> v % 20 == 0)
+		    .map(v -> v + 1)
+		    .subscribe(ts);
+
+		ts.assertFusionMode(Fuseable.SYNC)
+		  .assertValues(21, 41, 61, 81, 101)
+		  .assertComplete();
+	}
+
+	@Test
+	public void asyncFusionReplenishesDroppedValues() {
+		UnicastProcessor<Integer> up = UnicastProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		ts.requestedFusionMode(Fuseable.ANY);
+
+		up.map(v -> v * 10)
+		  .filter(v -> v % 20 == 0)
+		  .subscribe(ts);
+
+		for (int i = 1; i <= 6; i++) {
+			up.onNext(i);
+		}
+		up.onComplete();
+
+		ts.assertFusionMode(Fuseable.ASYNC)
+		  .assertValues(20, 40, 60)
+		  .assertComplete();
+	}
+
+	@Test
+	public void mapperReturningNullFailsAfterFilter() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 3)
+		    .filter(v -> v != 1)
+		    .map(v -> v == 3 ? null : v)
+		    .subscribe(ts);
+
+		ts.assertValues(2)
+		  .assertError(NullPointerException.class);
+	}
+
+	@Test
+	public void predicateFailureAfterMap() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 3)
+		    .hide()
+		    .map(v -> v + 1)
+		    .filter(v -> {
+			    throw new IllegalStateException("boom");
+		    })
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+	}
+}
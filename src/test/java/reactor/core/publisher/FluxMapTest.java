@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+
+public class FluxMapTest {
+
+	@Test
+	public void consecutiveMapsAreFused() {
+		Flux<Integer> source = Flux.range(1, 5)
+		                           .hide();
+		Flux<String> f = source.map(v -> v + 1)
+		                       .map(v -> v * 2)
+		                       .map(String::valueOf);
+
+		Assert.assertTrue(f instanceof FluxMap);
+		Assert.assertSame(source, ((FluxMap<?, ?>) f).source);
+
+		TestSubscriber<String> ts = TestSubscriber.create();
+		f.subscribe(ts);
+
+		ts.assertValues("4", "6", "8", "10", "12")
+		  .assertComplete();
+	}
+
+	@Test
+	public void consecutiveFuseableMapsAreFused() {
+		Flux<Integer> source = Flux.range(1, 5);
+		Flux<Integer> f = source.map(v -> v + 1)
+		                        .map(v -> v * 2);
+
+		Assert.assertTrue(f instanceof FluxMapFuseable);
+		Assert.assertSame(source, ((FluxMapFuseable<?, ?>) f).source);
+
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		f.subscribe(ts);
+
+		ts.assertValues(4, 6, 8, 10, 12)
+		  .assertComplete();
+	}
+
+	@Test
+	public void fusedMapsKeepIntermediateStageReusable() {
+		Flux<Integer> first = Flux.range(1, 3)
+		                          .map(v -> v * 10);
+		first.map(v -> v + 1);
+
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		first.subscribe(ts);
+
+		ts.assertValues(10, 20, 30)
+		  .assertComplete();
+	}
+
+	@Test
+	public void fusedMapsRejectIntermediateNull() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 3)
+		    .map(v -> v == 2 ? null : v)
+		    .map(v -> v * 2)
+		    .subscribe(ts);
+
+		ts.assertValues(2)
+		  .assertError(NullPointerException.class);
+	}
+
+	@Test
+	public void fusedMapsPropagateMapperFailure() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 3)
+		    .map(v -> v + 1)
+		    .<Integer>map(v -> {
+			    throw new IllegalStateException("boom");
+		    })
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import reactor.core.test.TestSubscriber;
+
+public class FluxMergeOrderedTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void prefetchInvalid() {
+		Flux.mergeOrdered(Comparator.<Integer>naturalOrder(), 0, Flux.just(1), Flux.just(2));
+	}
+
+	@Test
+	public void mergesSortedSources() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.mergeOrdered(Comparator.naturalOrder(),
+				Flux.just(1, 4, 7, 10),
+				Flux.just(2, 5, 8),
+				Flux.<Integer>empty(),
+				Flux.just(3, 6, 9, 11, 12))
+		    .subscribe(ts);
+
+		ts.assertValues(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12)
+		  .assertComplete();
+	}
+
+	@Test
+	public void equalValuesInSourceOrder() {
+		TestSubscriber<String> ts = TestSubscriber.create();
+
+		Flux.mergeOrdered(Comparator.comparing((String s) -> s.charAt(0)),
+				Flux.just("b1", "c1"),
+				Flux.just("a2", "b2"),
+				Flux.just("a3", "c3"))
+		    .subscribe(ts);
+
+		ts.assertValues("a2", "a3", "b1", "b2", "c1", "c3")
+		  .assertComplete();
+	}
+
+	@Test
+	public void manySources() {
+		Random random = new Random(7);
+		List<Publisher<Integer>> sources = new ArrayList<>();
+		List<Integer> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			List<Integer> partition = new ArrayList<>();
+			for (int j = random.nextInt(200); j > 0; j--) {
+				partition.add(random.nextInt(10_000));
+			}
+			Collections.sort(partition);
+			expected.addAll(partition);
+			sources.add(Flux.fromIterable(partition).hide());
+		}
+		Collections.sort(expected);
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		Publisher<Integer>[] array = sources.toArray(new Publisher[0]);
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.mergeOrdered(Comparator.naturalOrder(), 8, array)
+		    .subscribe(ts);
+
+		ts.assertValueSequence(expected)
+		  .assertComplete();
+	}
+
+	@Test
+	public void backpressuredWithBoundedPrefetch() {
+		AtomicLong requested1 = new AtomicLong();
+		AtomicLong requested2 = new AtomicLong();
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+
+		Flux.mergeOrdered(Comparator.naturalOrder(), 4,
+				Flux.range(0, 1000).map(i -> i * 2).doOnRequest(requested1::addAndGet).hide(),
+				Flux.range(0, 1000).map(i -> i * 2 + 1).doOnRequest(requested2::addAndGet).hide())
+		    .subscribe(ts);
+
+		ts.assertNoValues();
+		Assert.assertEquals(4L, requested1.get());
+		Assert.assertEquals(4L, requested2.get());
+
+		ts.request(5);
+		ts.assertValues(0, 1, 2, 3, 4)
+		  .assertNotComplete();
+		Assert.assertTrue(requested1.get() <= 10L);
+		Assert.assertTrue(requested2.get() <= 10L);
+
+		ts.request(Long.MAX_VALUE);
+		ts.assertValueCount(2000)
+		  .assertComplete();
+	}
+
+	@Test
+	public void waitsForEverySource() {
+		DirectProcessor<Integer> up1 = DirectProcessor.create();
+		DirectProcessor<Integer> up2 = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.mergeOrdered(Comparator.naturalOrder(), up1, up2)
+		    .subscribe(ts);
+
+		up1.onNext(1);
+		up1.onNext(3);
+		ts.assertNoValues();
+
+		up2.onNext(2);
+		ts.assertValues(1, 2);
+
+		up2.onComplete();
+		ts.assertValues(1, 2, 3);
+
+		up1.onComplete();
+		ts.assertComplete();
+	}
+
+	@Test
+	public void errorCancelsOtherSources() {
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.mergeOrdered(Comparator.naturalOrder(),
+				up,
+				Flux.<Integer>error(new IllegalStateException("boom")))
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+		Assert.assertFalse(up.hasDownstreams());
+	}
+
+	@Test
+	public void comparatorFailure() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.mergeOrdered((Integer a, Integer b) -> {
+			throw new IllegalStateException("boom");
+		}, Flux.just(1, 2), Flux.just(3))
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+	}
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.flow.Cancellation;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.core.test.TestSubscriber;
+
+public class FluxPublishOnTest {
+
+	Scheduler single;
+
+	@Before
+	public void before() {
+		single = Schedulers.newSingle("publishOn-inline");
+	}
+
+	@After
+	public void after() {
+		single.shutdown();
+	}
+
+	@Test
+	public void sameThreadDeliversInline() throws Exception {
+		CountingScheduler counting = new CountingScheduler(single);
+		AtomicInteger wrongThread = new AtomicInteger();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 1000)
+		    .hide()
+		    .subscribeOn(single)
+		    .publishOn(counting)
+		    .doOnNext(v -> {
+			    if (!single.ownsCurrentThread()) {
+				    wrongThread.incrementAndGet();
+			    }
+		    })
+		    .subscribe(ts);
+
+		ts.await(Duration.ofSeconds(5))
+		  .assertValueCount(1000)
+		  .assertNoError()
+		  .assertComplete();
+
+		Assert.assertEquals(0, wrongThread.get());
+		// only the initial request, issued from the test thread, may need a hop
+		Assert.assertTrue(counting.scheduled.get() <= 1);
+	}
+
+	@Test
+	public void otherThreadStillSchedules() throws Exception {
+		Scheduler other = Schedulers.newSingle("publishOn-other");
+		try {
+			CountingScheduler counting = new CountingScheduler(other);
+			TestSubscriber<Integer> ts = TestSubscriber.create();
+
+			Flux.range(1, 1000)
+			    .hide()
+			    .subscribeOn(single)
+			    .publishOn(counting)
+			    .subscribe(ts);
+
+			ts.await(Duration.ofSeconds(5))
+			  .assertValueCount(1000)
+			  .assertNoError()
+			  .assertComplete();
+
+			Assert.assertTrue(counting.scheduled.get() > 0);
+		}
+		finally {
+			other.shutdown();
+		}
+	}
+
+	@Test
+	public void monoSameThreadDeliversInline() throws Exception {
+		CountingScheduler counting = new CountingScheduler(single);
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.fromCallable(() -> 1)
+		    .subscribeOn(single)
+		    .publishOn(counting)
+		    .subscribe(ts);
+
+		ts.await(Duration.ofSeconds(5))
+		  .assertValues(1)
+		  .assertNoError()
+		  .assertComplete();
+
+		Assert.assertEquals(0, counting.scheduled.get());
+	}
+
+	@Test
+	public void adaptivePrefetchGrowsForSlowProducer() throws Exception {
+		Scheduler producer = Schedulers.newSingle("publishOn-producer");
+		try {
+			AtomicLong maxRequest = new AtomicLong();
+			TestSubscriber<Integer> ts = TestSubscriber.create();
+
+			Flux.range(1, 10_000)
+			    .hide()
+			    .doOnRequest(n -> maxRequest.accumulateAndGet(n, Math::max))
+			    .subscribeOn(producer)
+			    .publishOn(single, 4, 256)
+			    .subscribe(ts);
+
+			ts.await(Duration.ofSeconds(5))
+			  .assertValueCount(10_000)
+			  .assertNoError()
+			  .assertComplete();
+
+			Assert.assertTrue(maxRequest.get() > 4);
+			Assert.assertTrue(maxRequest.get() <= 256);
+		}
+		finally {
+			producer.shutdown();
+		}
+	}
+
+	@Test
+	public void adaptivePrefetchKeepsOrderWithSlowConsumer() throws Exception {
+		AtomicInteger expected = new AtomicInteger(1);
+		AtomicInteger outOfOrder = new AtomicInteger();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 2_000)
+		    .hide()
+		    .publishOn(single, 2, 64)
+		    .doOnNext(v -> {
+			    if (v != expected.getAndIncrement()) {
+				    outOfOrder.incrementAndGet();
+			    }
+			    if (v % 100 == 0) {
+				    LockSupport.parkNanos(1_000_000);
+			    }
+		    })
+		    .subscribe(ts);
+
+		ts.await(Duration.ofSeconds(5))
+		  .assertValueCount(2_000)
+		  .assertNoError()
+		  .assertComplete();
+
+		Assert.assertEquals(0, outOfOrder.get());
+	}
+
+	static final class CountingScheduler implements Scheduler {
+
+		final Scheduler     actual;
+		final AtomicInteger scheduled = new AtomicInteger();
+
+		CountingScheduler(Scheduler actual) {
+			this.actual = actual;
+		}
+
+		@Override
+		public Cancellation schedule(Runnable task) {
+			scheduled.incrementAndGet();
+			return actual.schedule(task);
+		}
+
+		@Override
+		public boolean ownsCurrentThread() {
+			return actual.ownsCurrentThread();
+		}
+
+		@Override
+		public Worker createWorker() {
+			Worker w = actual.createWorker();
+			return new Worker() {
+				@Override
+				public Cancellation schedule(Runnable task) {
+					scheduled.incrementAndGet();
+					return w.schedule(task);
+				}
+
+				@Override
+				public void shutdown() {
+					w.shutdown();
+				}
+
+				@Override
+				public boolean ownsCurrentThread() {
+					return w.ownsCurrentThread();
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+
+public class FluxQuantilesTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void fractionInvalid() {
+		Flux.just(1).quantiles(Comparator.naturalOrder(), 0.5, 1.5);
+	}
+
+	@Test
+	public void exactBelowSketchSize() {
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.range(1, 101)
+		    .quantiles(Comparator.naturalOrder(), 0d, 0.5, 1d)
+		    .subscribe(ts);
+
+		ts.assertValues(Arrays.asList(1, 51, 101))
+		  .assertComplete();
+	}
+
+	@Test
+	public void emptySourceCompletesEmpty() {
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.<Integer>empty()
+		    .quantiles(Comparator.naturalOrder(), 0.5)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertComplete();
+	}
+
+	@Test
+	public void boundedRankErrorOnLargeSource() {
+		int n = 1_000_000;
+		List<Integer> source = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			source.add(i);
+		}
+		Collections.shuffle(source);
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.fromIterable(source)
+		    .quantiles(Comparator.naturalOrder(), 0.01, 0.5, 0.99)
+		    .subscribe(ts);
+
+		ts.assertValuesWith(q -> {
+			Assert.assertEquals(0.01 * n, q.get(0), 0.02 * n);
+			Assert.assertEquals(0.5 * n, q.get(1), 0.02 * n);
+			Assert.assertEquals(0.99 * n, q.get(2), 0.02 * n);
+		})
+		  .assertComplete();
+	}
+
+	@Test
+	public void sketchRetainsBoundedValues() {
+		QuantilesSketch<Integer> sketch = new QuantilesSketch<>(100, Comparator.naturalOrder());
+		for (int i = 0; i < 1_000_000; i++) {
+			sketch.offer(i);
+		}
+
+		Assert.assertEquals(1_000_000L, sketch.count());
+		Assert.assertTrue("retained: " + sketch.retained, sketch.retained < 400);
+	}
+}
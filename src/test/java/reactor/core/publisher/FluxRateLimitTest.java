@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.scheduler.RateLimiter;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class FluxRateLimitTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void permitsInvalid() {
+		Flux.never().rateLimit(0d, 1, VirtualTimeScheduler.create());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void burstInvalid() {
+		Flux.never().rateLimit(10d, 0, VirtualTimeScheduler.create());
+	}
+
+	@Test
+	public void shapesUnboundedDemand() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		AtomicLong requested = new AtomicLong();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(0, 100)
+		    .doOnRequest(requested::addAndGet)
+		    .rateLimit(10d, 2, vts)
+		    .subscribe(ts);
+
+		ts.assertValues(0, 1);
+
+		vts.advanceTimeBy(Duration.ofMillis(100));
+		ts.assertValueCount(3);
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertValueCount(13)
+		  .assertNotTerminated();
+		Assert.assertEquals(13L, requested.get());
+
+		vts.advanceTimeBy(Duration.ofSeconds(10));
+		ts.assertValueCount(100)
+		  .assertComplete();
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void honorsDownstreamRequest() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create(3);
+
+		Flux.range(0, 100)
+		    .rateLimit(10d, 1, vts)
+		    .subscribe(ts);
+
+		vts.advanceTimeBy(Duration.ofSeconds(10));
+		ts.assertValues(0, 1, 2)
+		  .assertNotTerminated();
+		Assert.assertEquals(0, vts.getPending());
+
+		ts.request(2);
+		ts.assertValueCount(4);
+		vts.advanceTimeBy(Duration.ofMillis(100));
+		ts.assertValueCount(5);
+	}
+
+	@Test
+	public void sharedLimiter() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		RateLimiter limiter = RateLimiter.create(10d, 1, vts);
+		TestSubscriber<Integer> ts1 = TestSubscriber.create();
+		TestSubscriber<Integer> ts2 = TestSubscriber.create();
+
+		AtomicLong delivered = new AtomicLong();
+
+		Flux<Integer> source = Flux.range(0, 100)
+		                           .rateLimit(limiter)
+		                           .doOnNext(v -> delivered.incrementAndGet());
+		source.subscribe(ts1);
+		source.subscribe(ts2);
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+
+		Assert.assertEquals(11L, delivered.get());
+		Assert.assertEquals(0L, limiter.getPending());
+		ts1.assertNotTerminated();
+		ts2.assertNotTerminated();
+
+		TestSubscriber<Integer> ts3 = TestSubscriber.create();
+		Flux.range(0, 100).rateLimit(limiter).subscribe(ts3);
+		ts3.assertNoValues();
+	}
+
+	@Test
+	public void cancelStopsRetries() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(0, 100)
+		    .rateLimit(10d, 1, vts)
+		    .subscribe(ts);
+
+		ts.assertValues(0);
+		ts.cancel();
+
+		Assert.assertEquals(0, vts.getPending());
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertValues(0);
+	}
+
+	@Test
+	public void limiterAcquiresUpToAvailable() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		RateLimiter limiter = RateLimiter.create(1000d, 5, vts);
+
+		Assert.assertEquals(5L, limiter.getPending());
+		Assert.assertEquals(3L, limiter.tryAcquire(3));
+		Assert.assertEquals(2L, limiter.tryAcquire(10));
+		Assert.assertEquals(0L, limiter.tryAcquire(1));
+		Assert.assertEquals(1_000_000L, limiter.nanosUntilAvailable());
+
+		vts.advanceTimeBy(Duration.ofMillis(2));
+		Assert.assertEquals(2L, limiter.tryAcquire(10));
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		Assert.assertEquals(5L, limiter.getPending());
+	}
+}
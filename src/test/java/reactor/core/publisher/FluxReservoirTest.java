@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class FluxReservoirTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void kInvalid() {
+		Flux.just(1).reservoir(0, Duration.ofSeconds(1), VirtualTimeScheduler.create());
+	}
+
+	@Test
+	public void samplePerPeriod() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		up.reservoir(10, Duration.ofSeconds(1), vts)
+		  .subscribe(ts);
+
+		for (int i = 0; i < 1000; i++) {
+			up.onNext(i);
+		}
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+
+		for (int i = 1000; i < 1003; i++) {
+			up.onNext(i);
+		}
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+
+		// empty period skipped
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+
+		up.onNext(2000);
+		up.onComplete();
+
+		ts.assertValueCount(3)
+		  .assertValuesWith(first -> {
+			  Assert.assertEquals(10, new HashSet<>(first).size());
+			  first.forEach(v -> Assert.assertTrue(v >= 0 && v < 1000));
+		  }, second -> Assert.assertEquals(Arrays.asList(1000, 1001, 1002), second),
+				  third -> Assert.assertEquals(Arrays.asList(2000), third))
+		  .assertComplete();
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void uniformSample() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		int[] hits = new int[100];
+
+		up.reservoir(10, Duration.ofSeconds(1), vts)
+		  .subscribe(sample -> sample.forEach(v -> hits[v]++));
+
+		for (int period = 0; period < 2000; period++) {
+			for (int i = 0; i < 100; i++) {
+				up.onNext(i);
+			}
+			vts.advanceTimeBy(Duration.ofSeconds(1));
+		}
+
+		// 200 hits expected per value, standard deviation about 13.4
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals("value " + i, 200d, hits[i], 70d);
+		}
+	}
+
+	@Test
+	public void samplesQueuedWithoutDemand() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create(0);
+
+		up.reservoir(5, Duration.ofSeconds(1), vts)
+		  .subscribe(ts);
+
+		up.onNext(1);
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		up.onNext(2);
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertNoValues();
+
+		ts.request(2);
+		ts.assertValues(Arrays.asList(1), Arrays.asList(2));
+	}
+
+	@Test
+	public void cancelledOnSubscribeDoesNotSchedule() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+
+		up.reservoir(10, Duration.ofSeconds(1), vts)
+		  .doOnSubscribe(Subscription::cancel)
+		  .subscribe(TestSubscriber.create());
+
+		Assert.assertEquals(0, vts.getPending());
+		Assert.assertFalse(up.hasDownstreams());
+	}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+
+public class FluxSampleRandomTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void probabilityInvalid() {
+		Flux.just(1).sampleRandom(1.5);
+	}
+
+	@Test
+	public void probabilityOneRelaysEverything() {
+		Flux<Integer> source = Flux.range(1, 10);
+
+		Assert.assertSame(source, source.sampleRandom(1d));
+	}
+
+	@Test
+	public void probabilityZeroDropsEverything() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 10_000)
+		    .sampleRandom(0d)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertComplete();
+	}
+
+	@Test
+	public void relaysExpectedFraction() {
+		AtomicLong count = new AtomicLong();
+
+		Flux.range(0, 1_000_000)
+		    .sampleRandom(0.01)
+		    .subscribe(v -> count.incrementAndGet());
+
+		// 10_000 expected, standard deviation about 100
+		Assert.assertEquals(10_000d, count.get(), 600d);
+	}
+
+	@Test
+	public void backpressured() {
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+		AtomicLong requested = new AtomicLong();
+
+		Flux.range(0, 1_000_000)
+		    .doOnRequest(requested::addAndGet)
+		    .sampleRandom(0.5)
+		    .subscribe(ts);
+
+		ts.request(5);
+		ts.assertValueCount(5)
+		  .assertNotComplete();
+		Assert.assertTrue(requested.get() < 1_000L);
+	}
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class FluxSlidingReduceTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void sizeInvalid() {
+		Flux.just(1).slidingReduce(0, 1, 0, Integer::sum);
+	}
+
+	@Test
+	public void overlappingWindows() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 5)
+		    .slidingReduce(3, 1, 0, Integer::sum)
+		    .subscribe(ts);
+
+		ts.assertValues(6, 9, 12)
+		  .assertComplete();
+	}
+
+	@Test
+	public void tumblingWindowsDropPartialWindow() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 7)
+		    .slidingReduce(3, 3, 0, Integer::sum)
+		    .subscribe(ts);
+
+		ts.assertValues(6, 15)
+		  .assertComplete();
+	}
+
+	@Test
+	public void skipLargerThanSizeDropsValuesBetweenWindows() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 10)
+		    .slidingReduce(2, 4, 0, Integer::sum)
+		    .subscribe(ts);
+
+		ts.assertValues(3, 11, 19)
+		  .assertComplete();
+	}
+
+	@Test
+	public void rollingMaxMatchesNaiveWithAmortizedCombinerCalls() {
+		int n = 20_000;
+		int size = 1_000;
+		Random random = new Random(42);
+		List<Integer> source = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			source.add(random.nextInt());
+		}
+		List<Integer> expected = new ArrayList<>();
+		for (int i = size - 1; i < n; i += 7) {
+			int max = Integer.MIN_VALUE;
+			for (int j = i - size + 1; j <= i; j++) {
+				max = Math.max(max, source.get(j));
+			}
+			expected.add(max);
+		}
+		AtomicLong calls = new AtomicLong();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.fromIterable(source)
+		    .slidingReduce(size, 7, Integer.MIN_VALUE, (a, b) -> {
+			    calls.incrementAndGet();
+			    return Math.max(a, b);
+		    })
+		    .subscribe(ts);
+
+		ts.assertValueSequence(expected)
+		  .assertComplete();
+		Assert.assertTrue("combiner calls: " + calls.get(), calls.get() <= 3L * n);
+	}
+
+	@Test
+	public void rollingSumWithInverse() {
+		AtomicLong calls = new AtomicLong();
+		TestSubscriber<Long> ts = TestSubscriber.create();
+
+		Flux.range(0, 10_000)
+		    .map(i -> (long) i)
+		    .slidingReduce(10, 1, 0L, (a, b) -> {
+			    calls.incrementAndGet();
+			    return a + b;
+		    }, (a, b) -> a - b)
+		    .takeLast(1)
+		    .subscribe(ts);
+
+		long last = 0L;
+		for (long i = 9_990L; i < 10_000L; i++) {
+			last += i;
+		}
+		ts.assertValues(last)
+		  .assertComplete();
+		Assert.assertEquals(10_000L, calls.get());
+	}
+
+	@Test
+	public void backpressured() {
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+		AtomicLong requested = new AtomicLong();
+
+		Flux.range(1, 100)
+		    .doOnRequest(requested::addAndGet)
+		    .slidingReduce(3, 1, 0, Integer::sum)
+		    .subscribe(ts);
+
+		ts.request(2);
+		ts.assertValues(6, 9)
+		  .assertNotComplete();
+		Assert.assertEquals(4L, requested.get());
+	}
+
+	@Test
+	public void combinerFailure() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.range(1, 5)
+		    .slidingReduce(2, 1, 0, (a, b) -> {
+			    throw new IllegalStateException("boom");
+		    })
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void timedWindowEvictsOldValues() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		up.slidingReduce(Duration.ofSeconds(3), Duration.ofSeconds(1), 0, Integer::sum, vts)
+		  .subscribe(ts);
+
+		up.onNext(1);
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertValues(1);
+
+		vts.advanceTimeBy(Duration.ofMillis(500));
+		up.onNext(2);
+		vts.advanceTimeBy(Duration.ofMillis(500));
+		ts.assertValues(1, 3);
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertValues(1, 3, 2);
+
+		vts.advanceTimeBy(Duration.ofSeconds(2));
+		ts.assertValues(1, 3, 2, 2, 0);
+
+		up.onComplete();
+		ts.assertComplete();
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void timedAggregatesQueuedWithoutDemand() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+
+		up.slidingReduce(Duration.ofSeconds(10), Duration.ofSeconds(1), Integer.MIN_VALUE,
+				Math::max, vts)
+		  .subscribe(ts);
+
+		up.onNext(5);
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		up.onNext(3);
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertNoValues();
+
+		ts.request(5);
+		ts.assertValues(5, 5);
+
+		up.onComplete();
+		ts.assertComplete();
+	}
+
+	@Test
+	public void timedCancelledOnSubscribeDoesNotSchedule() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> up = DirectProcessor.create();
+
+		up.slidingReduce(Duration.ofSeconds(3), Duration.ofSeconds(1), 0, Integer::sum, vts)
+		  .doOnSubscribe(Subscription::cancel)
+		  .subscribe(TestSubscriber.create());
+
+		Assert.assertEquals(0, vts.getPending());
+		Assert.assertFalse(up.hasDownstreams());
+	}
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+
+public class FluxTopKTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void kInvalid() {
+		Flux.just(1).topK(0, Comparator.naturalOrder());
+	}
+
+	@Test
+	public void greatestFirst() {
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.just(5, 1, 9, 3, 7, 2, 8)
+		    .topK(3, Comparator.naturalOrder())
+		    .subscribe(ts);
+
+		ts.assertValues(Arrays.asList(9, 8, 7))
+		  .assertComplete();
+	}
+
+	@Test
+	public void fewerValuesThanK() {
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.just(2, 1)
+		    .topK(5, Comparator.naturalOrder())
+		    .subscribe(ts);
+
+		ts.assertValues(Arrays.asList(2, 1))
+		  .assertComplete();
+	}
+
+	@Test
+	public void emptySource() {
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.<Integer>empty()
+		    .topK(5, Comparator.naturalOrder())
+		    .subscribe(ts);
+
+		ts.assertValues(Collections.emptyList())
+		  .assertComplete();
+	}
+
+	@Test
+	public void largeShuffledSource() {
+		List<Integer> source = new ArrayList<>();
+		for (int i = 0; i < 100_000; i++) {
+			source.add(i);
+		}
+		Collections.shuffle(source);
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.fromIterable(source)
+		    .topK(4, Comparator.reverseOrder())
+		    .subscribe(ts);
+
+		ts.assertValues(Arrays.asList(0, 1, 2, 3))
+		  .assertComplete();
+	}
+}
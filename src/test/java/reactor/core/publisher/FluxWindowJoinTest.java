@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.state.Backpressurable;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+
+public class FluxWindowJoinTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void windowInvalid() {
+		Flux.just("a").join(Flux.just("a"), s -> s, s -> s, Duration.ZERO, (a, b) -> a + b,
+				VirtualTimeScheduler.create());
+	}
+
+	@Test
+	public void joinsWithinWindow() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<String> orders = DirectProcessor.create();
+		DirectProcessor<String> fills = DirectProcessor.create();
+		TestSubscriber<String> ts = TestSubscriber.create();
+
+		orders.join(fills, o -> o.charAt(0), f -> f.charAt(0), Duration.ofSeconds(10),
+				(o, f) -> o + "-" + f, vts)
+		      .subscribe(ts);
+
+		orders.onNext("a1");
+		vts.advanceTimeBy(Duration.ofSeconds(5));
+		fills.onNext("a2");
+		fills.onNext("b2");
+		ts.assertValues("a1-a2");
+
+		orders.onNext("b1");
+		orders.onNext("a3");
+		ts.assertValues("a1-a2", "b1-b2", "a3-a2");
+
+		vts.advanceTimeBy(Duration.ofSeconds(6));
+		fills.onNext("a4");
+		ts.assertValues("a1-a2", "b1-b2", "a3-a2", "a3-a4");
+
+		vts.advanceTimeBy(Duration.ofSeconds(20));
+		fills.onNext("a5");
+		ts.assertValueCount(4)
+		  .assertNotComplete();
+	}
+
+	@Test
+	public void indexesEvictedPeriodically() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> left = DirectProcessor.create();
+		DirectProcessor<Integer> right = DirectProcessor.create();
+		AtomicReference<Subscription> subscription = new AtomicReference<>();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		left.join(right, i -> i, i -> i, Duration.ofSeconds(1), Integer::sum, vts)
+		    .doOnSubscribe(subscription::set)
+		    .subscribe(ts);
+
+		for (int i = 0; i < 100; i++) {
+			left.onNext(i);
+			right.onNext(i + 1000);
+		}
+		Backpressurable join = (Backpressurable) subscription.get();
+		Assert.assertEquals(200L, join.getPending());
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		Assert.assertEquals(0L, join.getPending());
+		ts.assertNoValues();
+	}
+
+	@Test
+	public void completesWhenNoMoreMatchPossible() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> left = DirectProcessor.create();
+		DirectProcessor<Integer> right = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		left.join(right, i -> i, i -> i, Duration.ofSeconds(1), Integer::sum, vts)
+		    .subscribe(ts);
+
+		left.onNext(1);
+		left.onComplete();
+		ts.assertNotComplete();
+
+		right.onNext(1);
+		ts.assertValues(2);
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		ts.assertComplete();
+		Assert.assertFalse(right.hasDownstreams());
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void backpressured() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+
+		Flux.range(1, 10)
+		    .join(Flux.range(1, 10), i -> i % 2, i -> i % 2, Duration.ofSeconds(1),
+				    (a, b) -> a * b, vts)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertNotComplete();
+
+		ts.request(10);
+		ts.assertValueCount(10)
+		  .assertNotComplete();
+
+		ts.request(Long.MAX_VALUE);
+		ts.assertValueCount(50)
+		  .assertComplete();
+	}
+
+	@Test
+	public void keyFailure() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> right = DirectProcessor.create();
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Flux.just(1)
+		    .join(right, i -> {
+			    throw new IllegalStateException("boom");
+		    }, i -> i, Duration.ofSeconds(1), Integer::sum, vts)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+		Assert.assertFalse(right.hasDownstreams());
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void cancelledOnSubscribeDoesNotSchedule() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		DirectProcessor<Integer> left = DirectProcessor.create();
+		DirectProcessor<Integer> right = DirectProcessor.create();
+
+		left.join(right, i -> i, i -> i, Duration.ofSeconds(1), Integer::sum, vts)
+		    .doOnSubscribe(Subscription::cancel)
+		    .subscribe(TestSubscriber.create());
+
+		Assert.assertEquals(0, vts.getPending());
+		Assert.assertFalse(left.hasDownstreams());
+		Assert.assertFalse(right.hasDownstreams());
+	}
+}
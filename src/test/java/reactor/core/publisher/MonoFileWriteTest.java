@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+
+public class MonoFileWriteTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxInFlightInvalid() {
+		Flux.just(ByteBuffer.allocate(1)).writeTo(Paths.get("unused"), 0, 16);
+	}
+
+	@Test
+	public void writesAllBuffersInOrder() throws IOException {
+		Path path = Files.createTempFile("reactor-write", ".txt");
+		try {
+			TestSubscriber<Long> ts = TestSubscriber.create();
+			AtomicLong requested = new AtomicLong();
+
+			Flux.range(0, 1000)
+			    .map(i -> ByteBuffer.wrap((i + "\n").getBytes(StandardCharsets.UTF_8)))
+			    .doOnRequest(requested::addAndGet)
+			    .writeTo(path, 2, 64)
+			    .subscribe(ts);
+
+			ts.await()
+			  .assertNoError()
+			  .assertComplete();
+
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < 1000; i++) {
+				expected.append(i).append('\n');
+			}
+			byte[] content = Files.readAllBytes(path);
+
+			ts.assertValues((long) content.length);
+			Assert.assertEquals(expected.toString(), new String(content, StandardCharsets.UTF_8));
+			Assert.assertTrue(requested.get() < Long.MAX_VALUE);
+		}
+		finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	public void largeBuffersAreNotCopied() throws IOException {
+		Path path = Files.createTempFile("reactor-write", ".bin");
+		try {
+			ByteBuffer large = ByteBuffer.allocate(100_000);
+			TestSubscriber<Long> ts = TestSubscriber.create();
+
+			Flux.just(large, large.duplicate())
+			    .writeTo(path)
+			    .subscribe(ts);
+
+			ts.await()
+			  .assertValues(200_000L)
+			  .assertComplete();
+
+			Assert.assertEquals(0, large.position());
+			Assert.assertEquals(200_000L, Files.size(path));
+		}
+		finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	public void upstreamErrorIsPropagated() throws IOException {
+		Path path = Files.createTempFile("reactor-write", ".bin");
+		try {
+			TestSubscriber<Long> ts = TestSubscriber.create();
+
+			Flux.just(ByteBuffer.allocate(10))
+			    .concatWith(Flux.error(new IllegalStateException("boom")))
+			    .writeTo(path)
+			    .subscribe(ts);
+
+			ts.await()
+			  .assertNoValues()
+			  .assertError(IllegalStateException.class);
+		}
+		finally {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	public void openFailureIsPropagated() {
+		TestSubscriber<Long> ts = TestSubscriber.create();
+
+		Flux.just(ByteBuffer.allocate(10))
+		    .writeTo(Paths.get("does", "not", "exist.bin"), 1, 16,
+				    StandardOpenOption.WRITE)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(NoSuchFileException.class);
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+import reactor.core.test.VirtualTimeScheduler;
+import reactor.core.util.Histogram;
+
+public class MonoHedgeTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void maxAttemptsInvalid() {
+		Mono.just(1).hedge(Duration.ofMillis(1), 0, VirtualTimeScheduler.create());
+	}
+
+	@Test
+	public void fastSourceIsSubscribedOnce() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		AtomicInteger subscriptions = new AtomicInteger();
+
+		TestSubscriber<Integer> ts = TestSubscriber.subscribe(Mono.just(1)
+		                                                          .doOnSubscribe(s -> subscriptions.incrementAndGet())
+		                                                          .hedge(Duration.ofMillis(10), 3, vts));
+
+		ts.assertValues(1)
+		  .assertComplete();
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		Assert.assertEquals(1, subscriptions.get());
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void slowAttemptIsHedgedAndLoserCancelled() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		AtomicInteger subscriptions = new AtomicInteger();
+		AtomicInteger cancellations = new AtomicInteger();
+
+		// first attempt answers after 100ms, later ones after 5ms
+		Mono<Integer> source = Mono.defer(() -> {
+			int n = subscriptions.incrementAndGet();
+			return Mono.delay(Duration.ofMillis(n == 1 ? 100 : 5), vts)
+			           .map(v -> n)
+			           .doOnCancel(cancellations::incrementAndGet);
+		});
+
+		TestSubscriber<Integer> ts = TestSubscriber.subscribe(source.hedge(Duration.ofMillis(10), 3, vts));
+
+		vts.advanceTimeBy(Duration.ofMillis(10));
+		Assert.assertEquals(2, subscriptions.get());
+		ts.assertNoValues();
+
+		vts.advanceTimeBy(Duration.ofMillis(5));
+		ts.assertValues(2)
+		  .assertComplete();
+		Assert.assertEquals(1, cancellations.get());
+
+		vts.advanceTimeBy(Duration.ofSeconds(1));
+		Assert.assertEquals(2, subscriptions.get());
+	}
+
+	@Test
+	public void errorWaitsForOtherAttempts() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		AtomicInteger subscriptions = new AtomicInteger();
+
+		Mono<Integer> source = Mono.defer(() -> {
+			int n = subscriptions.incrementAndGet();
+			if (n == 1) {
+				return Mono.delay(Duration.ofMillis(20), vts)
+				           .then(v -> Mono.<Integer>error(new IllegalStateException("boom")));
+			}
+			return Mono.delay(Duration.ofMillis(20), vts).map(v -> n);
+		});
+
+		TestSubscriber<Integer> ts = TestSubscriber.subscribe(source.hedge(Duration.ofMillis(10), 2, vts));
+
+		vts.advanceTimeBy(Duration.ofMillis(20));
+		ts.assertNoValues()
+		  .assertNotTerminated();
+
+		vts.advanceTimeBy(Duration.ofMillis(10));
+		ts.assertValues(2)
+		  .assertComplete();
+	}
+
+	@Test
+	public void allAttemptsFailing() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+
+		TestSubscriber<Integer> ts = TestSubscriber.subscribe(Mono.<Integer>error(new IllegalStateException("boom"))
+		                                                          .hedge(Duration.ofMillis(10), 3, vts));
+
+		ts.assertError(IllegalStateException.class);
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void adaptiveDelayFollowsPercentile() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		Histogram latencies = new Histogram();
+		for (int i = 0; i < 100; i++) {
+			latencies.record(TimeUnit.MILLISECONDS.toNanos(50));
+		}
+		AtomicInteger subscriptions = new AtomicInteger();
+
+		TestSubscriber<Long> ts = TestSubscriber.subscribe(
+				Mono.delay(Duration.ofMillis(60), vts)
+				    .doOnSubscribe(s -> subscriptions.incrementAndGet())
+				    .hedge(latencies, 99d, Duration.ofMillis(1), 2, vts));
+
+		vts.advanceTimeBy(Duration.ofMillis(45));
+		Assert.assertEquals(1, subscriptions.get());
+
+		vts.advanceTimeBy(Duration.ofMillis(10));
+		Assert.assertEquals(2, subscriptions.get());
+
+		vts.advanceTimeBy(Duration.ofMillis(5));
+		ts.assertValues(0L);
+		Assert.assertEquals(101, latencies.getCount());
+	}
+}
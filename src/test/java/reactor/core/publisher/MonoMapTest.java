@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.publisher;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.test.TestSubscriber;
+
+public class MonoMapTest {
+
+	@Test
+	public void scalarChainStaysCallable() throws Exception {
+		Mono<Integer> m = Mono.just(1)
+		                      .map(v -> v + 1)
+		                      .filter(v -> v % 2 == 0)
+		                      .map(v -> v * 10);
+
+		Assert.assertTrue(m instanceof MonoCallableOrEmpty);
+		Assert.assertEquals(20, ((Callable<?>) m).call());
+
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+		m.subscribe(ts);
+
+		ts.assertValues(20)
+		  .assertComplete();
+	}
+
+	@Test
+	public void scalarChainThenFused() {
+		TestSubscriber<String> ts = TestSubscriber.create();
+
+		Mono.just(1)
+		    .map(v -> v + 1)
+		    .filter(v -> v > 1)
+		    .then(v -> Mono.just("v" + v))
+		    .subscribe(ts);
+
+		ts.assertValues("v2")
+		  .assertComplete();
+	}
+
+	@Test
+	public void scalarFilterEmpty() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.just(1)
+		    .filter(v -> v > 1)
+		    .map(v -> v * 10)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertComplete();
+	}
+
+	@Test
+	public void scalarMapperReturnsNull() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.just(1)
+		    .<Integer>map(v -> null)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(NullPointerException.class);
+	}
+
+	@Test
+	public void scalarMapperFails() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.just(1)
+		    .<Integer>map(v -> {
+			    throw new IllegalStateException("boom");
+		    })
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(IllegalStateException.class);
+	}
+
+	@Test
+	public void callableEvaluatedPerSubscription() {
+		AtomicInteger calls = new AtomicInteger();
+		Mono<Integer> m = Mono.fromCallable(calls::incrementAndGet)
+		                      .map(v -> v * 10);
+
+		Assert.assertEquals(0, calls.get());
+
+		TestSubscriber<Integer> ts1 = TestSubscriber.create();
+		m.subscribe(ts1);
+		TestSubscriber<Integer> ts2 = TestSubscriber.create();
+		m.subscribe(ts2);
+
+		ts1.assertValues(10)
+		   .assertComplete();
+		ts2.assertValues(20)
+		   .assertComplete();
+	}
+
+	@Test
+	public void callableReturningNullStillFails() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.<Integer>fromCallable(() -> null)
+		    .map(v -> v * 10)
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(NullPointerException.class);
+	}
+
+	@Test
+	public void justOtherwiseIsElided() {
+		Mono<Integer> m = Mono.just(1);
+
+		Assert.assertSame(m, m.otherwise(e -> Mono.just(2)));
+		Assert.assertSame(m, m.otherwiseIfEmpty(Mono.just(2)));
+	}
+
+	@Test
+	public void filteredScalarToFluxCompletesEmpty() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.just(1)
+		    .filter(v -> false)
+		    .flux()
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertComplete();
+	}
+
+	@Test
+	public void callableReturningNullToFluxStillFails() {
+		TestSubscriber<Integer> ts = TestSubscriber.create();
+
+		Mono.<Integer>fromCallable(() -> null)
+		    .flux()
+		    .subscribe(ts);
+
+		ts.assertNoValues()
+		  .assertError(NullPointerException.class);
+	}
+
+	@Test
+	public void fusedScalarKeepsItsSource() {
+		Mono<Integer> source = Mono.just(1);
+		Mono<Integer> m = source.map(v -> v + 1);
+
+		Assert.assertSame(source, ((MonoCallableOrEmpty<?>) m).upstream());
+	}
+}
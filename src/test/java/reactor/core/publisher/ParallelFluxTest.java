@@ -207,6 +207,41 @@ public class ParallelFluxTest {
 		ts.assertValues(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
 	}
 
+	@Test
+	public void topK() {
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.range(1, 10_000)
+		    .parallel(4)
+		    .runOn(Schedulers.parallel())
+		    .topK(3, Comparator.naturalOrder())
+		    .subscribe(ts);
+
+		ts.await(Duration.ofSeconds(5))
+		  .assertValues(Arrays.asList(10_000, 9_999, 9_998))
+		  .assertComplete();
+	}
+
+	@Test
+	public void quantiles() {
+		int n = 200_000;
+		TestSubscriber<List<Integer>> ts = TestSubscriber.create();
+
+		Flux.range(0, n)
+		    .parallel(4)
+		    .runOn(Schedulers.parallel())
+		    .quantiles(Comparator.naturalOrder(), 0d, 0.5, 1d)
+		    .subscribe(ts);
+
+		ts.await(Duration.ofSeconds(5))
+		  .assertValuesWith(q -> {
+			  Assert.assertEquals(0d, q.get(0), 0.02 * n);
+			  Assert.assertEquals(0.5 * n, q.get(1), 0.02 * n);
+			  Assert.assertEquals(n, q.get(2), 0.02 * n);
+		  })
+		  .assertComplete();
+	}
+
 	@Test
 	public void sorted() {
 		TestSubscriber<Integer> ts = TestSubscriber.create(0);
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.queue;
+
+import java.util.Queue;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SpscGrowableArrayQueueTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void capacityInvalid() {
+		QueueSupplier.growable(0);
+	}
+
+	@Test
+	public void startsSmall() {
+		SpscGrowableArrayQueue<Integer> q = new SpscGrowableArrayQueue<>(8, 256);
+
+		Assert.assertEquals(9, q.producerArray.length());
+
+		for (int i = 0; i < 4; i++) {
+			Assert.assertTrue(q.offer(i));
+			Assert.assertEquals(i, q.poll().intValue());
+		}
+		Assert.assertEquals(9, q.producerArray.length());
+	}
+
+	@Test
+	public void growsUpToCapacity() {
+		Queue<Integer> q = QueueSupplier.<Integer>growable(100).get();
+
+		for (int i = 0; i < 128; i++) {
+			Assert.assertTrue("" + i, q.offer(i));
+		}
+		Assert.assertFalse(q.offer(128));
+		Assert.assertEquals(128, q.size());
+
+		for (int i = 0; i < 128; i++) {
+			Assert.assertEquals(i, q.peek().intValue());
+			Assert.assertEquals(i, q.poll().intValue());
+		}
+		Assert.assertNull(q.poll());
+		Assert.assertTrue(q.isEmpty());
+	}
+
+	@Test
+	public void wrapsInPlaceAtCapacity() {
+		SpscGrowableArrayQueue<Integer> q = new SpscGrowableArrayQueue<>(2, 32);
+
+		for (int i = 0; i < 32; i++) {
+			Assert.assertTrue(q.offer(i));
+		}
+		for (int i = 0; i < 32; i++) {
+			Assert.assertEquals(i, q.poll().intValue());
+		}
+		Object full = q.producerArray;
+		Assert.assertEquals(33, q.producerArray.length());
+
+		for (int round = 0; round < 100; round++) {
+			for (int i = 0; i < 32; i++) {
+				Assert.assertTrue(q.offer(i));
+			}
+			Assert.assertFalse(q.offer(32));
+			for (int i = 0; i < 32; i++) {
+				Assert.assertEquals(i, q.poll().intValue());
+			}
+			for (int i = 0; i < 10_000 / 100; i++) {
+				Assert.assertTrue(q.offer(i));
+				Assert.assertEquals(i, q.poll().intValue());
+			}
+		}
+		Assert.assertSame(full, q.producerArray);
+		Assert.assertSame(full, q.consumerArray);
+	}
+
+	@Test
+	public void interleavedOfferPoll() {
+		Queue<Integer> q = QueueSupplier.<Integer>growable(32).get();
+
+		int produced = 0;
+		int consumed = 0;
+		for (int round = 0; round < 100; round++) {
+			int n = round % 17;
+			for (int i = 0; i < n; i++) {
+				Assert.assertTrue(q.offer(produced++));
+			}
+			for (int i = 0; i < n / 2 + 1 && !q.isEmpty(); i++) {
+				Assert.assertEquals(consumed++, q.poll().intValue());
+			}
+			while (q.size() > 16) {
+				Assert.assertEquals(consumed++, q.poll().intValue());
+			}
+		}
+		q.clear();
+		Assert.assertTrue(q.isEmpty());
+	}
+
+	@Test
+	public void concurrentFifo() throws InterruptedException {
+		Queue<Integer> q = QueueSupplier.<Integer>growable(256).get();
+		int n = 1_000_000;
+
+		Thread producer = new Thread(() -> {
+			for (int i = 0; i < n; i++) {
+				while (!q.offer(i)) {
+					Thread.yield();
+				}
+			}
+		});
+		producer.start();
+
+		for (int i = 0; i < n; i++) {
+			Integer v;
+			while ((v = q.poll()) == null) {
+				Thread.yield();
+			}
+			Assert.assertEquals(i, v.intValue());
+		}
+		producer.join();
+		Assert.assertTrue(q.isEmpty());
+	}
+}
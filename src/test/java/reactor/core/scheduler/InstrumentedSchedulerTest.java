@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.scheduler;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.flow.Cancellation;
+import reactor.core.util.Histogram;
+
+public class InstrumentedSchedulerTest {
+
+	@Test
+	public void recordsLatencyAndDuration() throws InterruptedException {
+		SchedulerMetrics metrics = new SchedulerMetrics("test");
+		Scheduler s = Schedulers.instrument(Schedulers.newSingle("test-instrumented"), metrics);
+
+		try {
+			Scheduler.Worker w = s.createWorker();
+			Assert.assertEquals(1, metrics.getActiveWorkers());
+
+			CountDownLatch latch = new CountDownLatch(10);
+			for (int i = 0; i < 10; i++) {
+				w.schedule(() -> {
+					try {
+						Thread.sleep(1);
+					}
+					catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					latch.countDown();
+				});
+			}
+
+			Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+			w.shutdown();
+
+			Assert.assertEquals(0, metrics.getActiveWorkers());
+			Assert.assertEquals(0, metrics.getPendingTasks());
+			Assert.assertEquals(10, metrics.getTaskLatency().getCount());
+			Assert.assertTrue(metrics.getTaskDuration()
+			                         .getValueAtPercentile(50d) >= TimeUnit.MILLISECONDS.toNanos(1));
+		}
+		finally {
+			s.shutdown();
+		}
+	}
+
+	@Test
+	public void pendingTasksTrackedUntilCancelled() {
+		SchedulerMetrics metrics = new SchedulerMetrics("test");
+		TimedScheduler s = Schedulers.instrument(Schedulers.newTimer("test-instrumented"), metrics);
+
+		try {
+			Cancellation c = s.schedule(() -> { }, 1, TimeUnit.HOURS);
+			Assert.assertEquals(1, metrics.getPendingTasks());
+
+			c.dispose();
+			Assert.assertEquals(0, metrics.getPendingTasks());
+
+			TimedScheduler.TimedWorker w = s.createWorker();
+			w.schedule(() -> { }, 1, TimeUnit.HOURS);
+			w.schedule(() -> { }, 1, TimeUnit.HOURS);
+			Assert.assertEquals(2, metrics.getPendingTasks());
+
+			w.shutdown();
+			Assert.assertEquals(0, metrics.getPendingTasks());
+			Assert.assertEquals(0, metrics.getActiveWorkers());
+		}
+		finally {
+			s.shutdown();
+		}
+	}
+
+	@Test
+	public void ownsCurrentThreadDelegates() throws InterruptedException {
+		Scheduler s = Schedulers.instrument(Schedulers.single(), new SchedulerMetrics("test"));
+		Scheduler.Worker w = s.createWorker();
+		AtomicBoolean schedulerOwns = new AtomicBoolean();
+		AtomicBoolean workerOwns = new AtomicBoolean();
+		CountDownLatch latch = new CountDownLatch(1);
+
+		try {
+			w.schedule(() -> {
+				schedulerOwns.set(s.ownsCurrentThread());
+				workerOwns.set(w.ownsCurrentThread());
+				latch.countDown();
+			});
+
+			Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+			Assert.assertTrue(schedulerOwns.get());
+			Assert.assertTrue(workerOwns.get());
+			Assert.assertFalse(s.ownsCurrentThread());
+			Assert.assertFalse(w.ownsCurrentThread());
+		}
+		finally {
+			w.shutdown();
+		}
+	}
+
+	@Test
+	public void histogramPercentiles() {
+		Histogram h = new Histogram();
+		for (int i = 1; i <= 1000; i++) {
+			h.record(i * 1000L);
+		}
+
+		Assert.assertEquals(1000, h.getCount());
+		Assert.assertEquals(1_000_000L, h.getMax());
+		Assert.assertEquals(500_500d, h.getMean(), 0.1d);
+		Assert.assertEquals(500_000d, h.getValueAtPercentile(50d), 500_000d * 0.04d);
+		Assert.assertEquals(990_000d, h.getValueAtPercentile(99d), 990_000d * 0.04d);
+		Assert.assertEquals(1_000_000L, h.getValueAtPercentile(100d));
+
+		h.reset();
+		Assert.assertEquals(0, h.getCount());
+		Assert.assertEquals(0L, h.getValueAtPercentile(99d));
+	}
+}
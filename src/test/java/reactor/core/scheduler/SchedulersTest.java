@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.scheduler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SchedulersTest {
+
+	static boolean ownsInWorker(Scheduler.Worker w) throws Exception {
+		CompletableFuture<Boolean> f = new CompletableFuture<>();
+		w.schedule(() -> f.complete(w.ownsCurrentThread()));
+		return f.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void singleOwnsItsThread() throws Exception {
+		Scheduler s = Schedulers.newSingle("affinity-single");
+		try {
+			Scheduler.Worker w = s.createWorker();
+
+			Assert.assertFalse(s.ownsCurrentThread());
+			Assert.assertFalse(w.ownsCurrentThread());
+			Assert.assertTrue(ownsInWorker(w));
+
+			CompletableFuture<Boolean> f = new CompletableFuture<>();
+			s.schedule(() -> f.complete(s.ownsCurrentThread()));
+			Assert.assertTrue(f.get(5, TimeUnit.SECONDS));
+
+			w.shutdown();
+		}
+		finally {
+			s.shutdown();
+		}
+	}
+
+	@Test
+	public void parallelWorkerOwnsOnlyItsThread() throws Exception {
+		Scheduler s = Schedulers.newParallel("affinity-parallel", 2);
+		try {
+			Scheduler.Worker w1 = s.createWorker();
+			Scheduler.Worker w2 = s.createWorker();
+
+			Assert.assertTrue(ownsInWorker(w1));
+
+			CompletableFuture<Boolean> f = new CompletableFuture<>();
+			w1.schedule(() -> f.complete(w2.ownsCurrentThread() || !s.ownsCurrentThread()));
+			Assert.assertFalse(f.get(5, TimeUnit.SECONDS));
+
+			w1.shutdown();
+			w2.shutdown();
+		}
+		finally {
+			s.shutdown();
+		}
+	}
+
+	@Test
+	public void elasticWorkerOwnsItsThreadUntilShutdown() throws Exception {
+		Scheduler s = Schedulers.newElastic("affinity-elastic");
+		try {
+			Scheduler.Worker w = s.createWorker();
+
+			Assert.assertTrue(ownsInWorker(w));
+
+			w.shutdown();
+
+			Assert.assertFalse(w.ownsCurrentThread());
+		}
+		finally {
+			s.shutdown();
+		}
+	}
+
+	@Test
+	public void immediateDoesNotClaimThreads() {
+		Assert.assertFalse(Schedulers.immediate()
+		                             .ownsCurrentThread());
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import reactor.core.flow.Cancellation;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public class VirtualTimeSchedulerTests {
+
+	@Test
+	public void intervalReplaysADayInstantly() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+
+		TestSubscriber<Long> ts = TestSubscriber.subscribe(Flux.interval(Duration.ofHours(1), vts));
+
+		ts.assertNoValues();
+
+		vts.advanceTimeBy(Duration.ofDays(1));
+
+		ts.assertValueCount(24)
+		  .assertNotComplete();
+		Assert.assertEquals(24, vts.now(TimeUnit.HOURS));
+
+		ts.cancel();
+		vts.advanceTimeBy(Duration.ofDays(1));
+		ts.assertValueCount(24);
+	}
+
+	@Test
+	public void delayCompletesOnlyWhenDue() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+
+		TestSubscriber<Long> ts = TestSubscriber.subscribe(Mono.delay(Duration.ofMinutes(5), vts));
+
+		vts.advanceTimeBy(Duration.ofMinutes(4));
+		ts.assertNoValues();
+
+		vts.advanceTimeBy(Duration.ofMinutes(1));
+		ts.assertValues(0L)
+		  .assertComplete();
+	}
+
+	@Test
+	public void tasksRunInDueTimeThenFifoOrder() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		List<Integer> order = new ArrayList<>();
+
+		vts.schedule(() -> order.add(3), 2, TimeUnit.SECONDS);
+		vts.schedule(() -> order.add(1), 1, TimeUnit.SECONDS);
+		vts.schedule(() -> order.add(2), 1, TimeUnit.SECONDS);
+		Cancellation c = vts.schedule(() -> order.add(4), 3, TimeUnit.SECONDS);
+		c.dispose();
+
+		vts.advanceTimeTo(10, TimeUnit.SECONDS);
+
+		Assert.assertEquals(Arrays.asList(1, 2, 3), order);
+		Assert.assertEquals(0, vts.getPending());
+	}
+
+	@Test
+	public void shutdownWorkerDropsTasks() {
+		VirtualTimeScheduler vts = VirtualTimeScheduler.create();
+		List<Integer> order = new ArrayList<>();
+
+		VirtualTimeScheduler.TimedWorker w = vts.createWorker();
+		w.schedule(() -> order.add(1), 1, TimeUnit.SECONDS);
+		w.shutdown();
+
+		vts.advanceTimeBy(1, TimeUnit.SECONDS);
+
+		Assert.assertTrue(order.isEmpty());
+	}
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2011-2016 Pivotal Software Inc, All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package reactor.core.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrencyLimitTest {
+
+	@Test(expected = IllegalArgumentException.class)
+	public void initialLimitOutOfBounds() {
+		ConcurrencyLimit.aimd(20, 10);
+	}
+
+	@Test
+	public void aimdGrowsWhenSaturatedAndBacksOffOnFailure() {
+		ConcurrencyLimit limit = ConcurrencyLimit.aimd(10, 1, 20, 0.5d, Duration.ofSeconds(1));
+
+		limit.onSample(1_000L, 2, false);
+		Assert.assertEquals(10, limit.getLimit());
+
+		limit.onSample(1_000L, 10, false);
+		Assert.assertEquals(11, limit.getLimit());
+
+		limit.onSample(1_000L, 11, true);
+		Assert.assertEquals(5, limit.getLimit());
+
+		limit.onSample(TimeUnit.SECONDS.toNanos(2), 5, false);
+		Assert.assertEquals(2, limit.getLimit());
+		Assert.assertEquals(2, limit.getCapacity());
+
+		for (int i = 0; i < 100; i++) {
+			limit.onSample(1_000L, limit.getLimit(), false);
+		}
+		Assert.assertEquals(20, limit.getLimit());
+	}
+
+	@Test
+	public void gradientShrinksWhenLatencyInflates() {
+		ConcurrencyLimit limit = ConcurrencyLimit.gradient(20, 1, 100);
+
+		for (int i = 0; i < 50; i++) {
+			limit.onSample(1_000_000L, limit.getLimit(), false);
+		}
+		int healthy = limit.getLimit();
+		Assert.assertTrue("limit should grow at stable latency: " + healthy, healthy > 20);
+
+		for (int i = 0; i < 50; i++) {
+			limit.onSample(10_000_000L, limit.getLimit(), false);
+		}
+		Assert.assertTrue("limit should shrink under queueing: " + limit, limit.getLimit() < healthy);
+	}
+}
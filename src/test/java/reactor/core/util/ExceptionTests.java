@@ -16,7 +16,10 @@
 package reactor.core.util;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.test.TestSubscriber;
 
 /**
  * @author Stephane Maldini
@@ -33,4 +36,37 @@ public class ExceptionTests {
 		Assert.assertTrue(Exceptions.unwrap(w) == t);
 	}
 
+	@Test
+	public void backpressureFailureIsIllegalState() throws Exception {
+		Throwable e = Exceptions.failWithBackpressure("lack of requests");
+
+		Assert.assertTrue(e instanceof IllegalStateException);
+		Assert.assertEquals("lack of requests", e.getMessage());
+		Assert.assertNotSame(e, Exceptions.failWithBackpressure("lack of requests"));
+		Assert.assertEquals(PlatformDependent.TRACE_BACKPRESSURE, e.getStackTrace().length != 0);
+	}
+
+	@Test
+	public void backpressureFailureIsStacklessByDefault() throws Exception {
+		// the default build enables tracing, stacklessTest runs this with it disabled
+		Assume.assumeFalse(PlatformDependent.TRACE_BACKPRESSURE);
+
+		Exceptions.BackpressureException e = Exceptions.failWithBackpressure("lack of requests");
+
+		Assert.assertSame(e, e.fillInStackTrace());
+		Assert.assertEquals(0, e.getStackTrace().length);
+	}
+
+	@Test
+	public void lackOfRequestsSignalsBackpressureFailure() throws Exception {
+		TestSubscriber<Integer> ts = TestSubscriber.create(0);
+		DirectProcessor<Integer> dp = DirectProcessor.create();
+		dp.subscribe(ts);
+
+		dp.onNext(1);
+
+		ts.assertNoValues()
+		  .assertError(Exceptions.BackpressureException.class);
+	}
+
 }
\ No newline at end of file